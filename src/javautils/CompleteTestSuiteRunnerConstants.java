@@ -16,20 +16,58 @@ public interface CompleteTestSuiteRunnerConstants {
    * <ul>
    * <li>{@link javautils.ClassesTest}</li>
    * <li>{@link javautils.collections.AlgsTest}</li>
+   * <li>{@link javautils.collections.LruCacheTest}</li>
+   * <li>{@link javautils.dispensers.ConcurrentQueueTest}</li>
+   * <li>{@link javautils.dispensers.PriorityDispenserTest}</li>
+   * <li>{@link javautils.dispensers.QueueTest}</li>
+   * <li>{@link javautils.dispensers.WorkStealingDequeTest}</li>
+   * <li>{@link javautils.graph.DynamicGraphTest}</li>
    * <li>{@link javautils.graph.GraphsTest}</li>
+   * <li>{@link javautils.graph.MappedGraphTest}</li>
+   * <li>{@link javautils.graph.PersistentGraphTest}</li>
+   * <li>{@link javautils.graph.ReachabilityLabelsTest}</li>
+   * <li>{@link javautils.graph.ShortestPathsTest}</li>
+   * <li>{@link javautils.graph.StronglyConnectedComponentsTest}</li>
    * <li>{@link javautils.graph.templates.BfsTemplateTest}</li>
    * <li>{@link javautils.graph.templates.DfsTemplateTest}</li>
+   * <li>{@link javautils.graph.templates.ParallelBfsTemplateTest}</li>
+   * <li>{@link javautils.graph.TransitiveClosureTest}</li>
    * <li>{@link javautils.ImmutablePairTest}</li>
+   * <li>{@link javautils.jdbc.JDBCTest}</li>
+   * <li>{@link javautils.maps.ConcurrentObjectToIntMapTest}</li>
+   * <li>{@link javautils.maps.ConcurrentObjectToLongMapTest}</li>
+   * <li>{@link javautils.maps.LongToLongMapTest}</li>
+   * <li>{@link javautils.maps.ObjectToIntMapTest}</li>
+   * <li>{@link javautils.maps.PersistentHashMapTest}</li>
    * <li>{@link javautils.ObjectsTest}</li>
    * </ul>
    */
   static final Class[] TESTS = {
     javautils.ClassesTest.class,
     javautils.collections.AlgsTest.class,
+    javautils.collections.LruCacheTest.class,
+    javautils.dispensers.ConcurrentQueueTest.class,
+    javautils.dispensers.PriorityDispenserTest.class,
+    javautils.dispensers.QueueTest.class,
+    javautils.dispensers.WorkStealingDequeTest.class,
+    javautils.graph.DynamicGraphTest.class,
     javautils.graph.GraphsTest.class,
+    javautils.graph.MappedGraphTest.class,
+    javautils.graph.PersistentGraphTest.class,
+    javautils.graph.ReachabilityLabelsTest.class,
+    javautils.graph.ShortestPathsTest.class,
+    javautils.graph.StronglyConnectedComponentsTest.class,
     javautils.graph.templates.BfsTemplateTest.class,
     javautils.graph.templates.DfsTemplateTest.class,
+    javautils.graph.templates.ParallelBfsTemplateTest.class,
+    javautils.graph.TransitiveClosureTest.class,
     javautils.ImmutablePairTest.class,
+    javautils.jdbc.JDBCTest.class,
+    javautils.maps.ConcurrentObjectToIntMapTest.class,
+    javautils.maps.ConcurrentObjectToLongMapTest.class,
+    javautils.maps.LongToLongMapTest.class,
+    javautils.maps.ObjectToIntMapTest.class,
+    javautils.maps.PersistentHashMapTest.class,
     javautils.ObjectsTest.class,
   };
 }
@@ -1,7 +1,6 @@
 package javautils.collections;
 
 import java.lang.reflect.Array;
-import java.lang.reflect.Method;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -16,10 +15,14 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
-import javautils.Exceptions;
 import javautils.collections.AbstractIterator;
 import javautils.dispensers.Stack;
 import javautils.fun.Function;
+import javautils.fun.IntToBoolean;
+import javautils.fun.IntToInt;
+import javautils.fun.IntToIntToInt;
+import javautils.fun.IntToObject;
+import javautils.fun.IntToVoid;
 import javautils.fun.ObjectToBoolean;
 import javautils.fun.ObjectToObject;
 import javautils.fun.ObjectToObjectToBoolean;
@@ -421,6 +424,17 @@ public class Algs {
   public static boolean exists(Collection in, Function pred) { return exists(iterator(in), pred); }
   public static boolean exists(Object[]   in, Function pred) { return exists(iterator(in), pred); }
 
+  /**
+   * <p>Like {@link #exists(Iterator,Function)}, but without boxing the
+   * elements.</p>
+   */
+  public static boolean exists(int[] in, IntToBoolean pred) {
+    for (int i=0; i<in.length; ++i)
+      if (pred.with(in[i]))
+        return true;
+    return false;
+  }
+
   /**
    * <p>A sequence of elements that contains the elements from the given
    * sequence for which <code>pred.with(element)</code> is true.</p>
@@ -450,6 +464,24 @@ public class Algs {
   public static Iterator filter(Collection from, Function pred) { return filter(iterator(from), pred); }
   public static Iterator filter(Object[]   from, Function pred) { return filter(iterator(from), pred); }
 
+  /**
+   * <p>A new array that contains the elements from the given array for
+   * which <code>pred.with(element)</code> is true.</p>
+   */
+  public static int[] filter(int[] from, IntToBoolean pred) {
+    int[] result = new int[from.length];
+    int n = 0;
+    for (int i=0; i<from.length; ++i)
+      if (pred.with(from[i]))
+        result[n++] = from[i];
+    if (n == result.length)
+      return result;
+
+    int[] trimmed = new int[n];
+    System.arraycopy(result, 0, trimmed, 0, n);
+    return trimmed;
+  }
+
   /**
    * <pre>
    * <b>while</b> (in.hasNext()) {
@@ -538,6 +570,16 @@ public class Algs {
   public static Object fold(Object lhs, Collection rhs, Function fun) { return fold(lhs, iterator(rhs), fun); }
   public static Object fold(Object lhs, Object[]   rhs, Function fun) { return fold(lhs, iterator(rhs), fun); }
 
+  /**
+   * <p>Like {@link #fold(Object,Iterator,Function)}, but without boxing
+   * the elements or the accumulator.</p>
+   */
+  public static int fold(int lhs, int[] rhs, IntToIntToInt fun) {
+    for (int i=0; i<rhs.length; ++i)
+      lhs = fun.with(lhs, rhs[i]);
+    return lhs;
+  }
+
   /**
    * <pre>
    * <b>while</b> (lhs.hasPrevious())
@@ -588,6 +630,17 @@ public class Algs {
   public static boolean forAll(Collection in, Function pred) { return forAll(iterator(in), pred); }
   public static boolean forAll(Object[]   in, Function pred) { return forAll(iterator(in), pred); }
 
+  /**
+   * <p>Like {@link #forAll(Iterator,Function)}, but without boxing the
+   * elements.</p>
+   */
+  public static boolean forAll(int[] in, IntToBoolean pred) {
+    for (int i=0; i<in.length; ++i)
+      if (!pred.with(in[i]))
+        return false;
+    return true;
+  }
+
   /**
    * <pre>
    * <b>while</b> (in.hasNext())
@@ -603,6 +656,15 @@ public class Algs {
   public static void forEach(Collection in, Function proc) { forEach(iterator(in), proc); }
   public static void forEach(Object[]   in, Function proc) { forEach(iterator(in), proc); }
 
+  /**
+   * <p>Like {@link #forEach(Iterator,Function)}, but without boxing the
+   * elements.</p>
+   */
+  public static void forEach(int[] in, IntToVoid proc) {
+    for (int i=0; i<in.length; ++i)
+      proc.with(in[i]);
+  }
+
   /**
    * <pre>
    * <b>while</b> (lhs.hasNext() &amp;&amp; rhs.hasNext())
@@ -668,17 +730,11 @@ public class Algs {
   public static void genForEach(Iterator[] is, Function proc) {
     assert is.length == proc.getMethod().getParameterTypes().length;
 
-    try {
-      Object[] ps = new Object[is.length];
-      Method m = proc.getMethod();
-      Object s = proc.getSelf();
-
-      while (hasNext(is)) {
-        nextTo(is, ps);
-        m.invoke(s, ps);
-      }
-    } catch (Exception e) {
-      throw Exceptions.toThrowUnchecked(e);
+    Object[] ps = new Object[is.length];
+
+    while (hasNext(is)) {
+      nextTo(is, ps);
+      proc.invoke(ps);
     }
   }
 
@@ -800,6 +856,37 @@ public class Algs {
   public static Iterator map(Collection from, Function fun) { return map(iterator(from), fun); }
   public static Iterator map(Object[]   from, Function fun) { return map(iterator(from), fun); }
 
+  /**
+   * <p>A new array of <code>fun.with(element)</code> for each element of
+   * the given array.</p>
+   */
+  public static int[] map(int[] from, IntToInt fun) {
+    int[] result = new int[from.length];
+    for (int i=0; i<from.length; ++i)
+      result[i] = fun.with(from[i]);
+    return result;
+  }
+
+  /**
+   * <p>A sequence of <code>fun.with(element)</code> for each element of
+   * the given array.</p>
+   */
+  public static Iterator map(final int[] from, final IntToObject fun) {
+    return new AbstractIterator() {
+        private int i = 0;
+
+        public boolean hasNext() {
+          return i < from.length;
+        }
+
+        public Object next() {
+          if (from.length <= i)
+            throw new NoSuchElementException();
+          return fun.with(from[i++]);
+        }
+      };
+  }
+
   /**
    * <p>Maps the function in parallel to elements from the given sequences
    * producing a new sequence.</p>
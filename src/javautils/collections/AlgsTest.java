@@ -5,6 +5,9 @@ import java.util.Map;
 import javautils.ImmutablePair;
 import javautils.collections.Algs;
 import javautils.fun.Function;
+import javautils.fun.IntToBoolean;
+import javautils.fun.IntToInt;
+import javautils.fun.IntToIntToInt;
 import javautils.fun.ObjectToBoolean;
 import junit.framework.TestCase;
 
@@ -185,6 +188,29 @@ public class AlgsTest extends TestCase {
                  result.toString());
   }
 
+  public void testIntArrayOverloads() {
+    IntToBoolean odd = new IntToBoolean() {
+        public boolean with(int x) {
+          return 1 == x % 2;
+        }};
+
+    assertEquals("[7, 9, 6, 9, 5, 1, 8, 4]",
+                 Algs.collect(Algs.iterator(Algs.map(PI_ARRAY,
+                                                     new IntToInt() {
+                                                       public int with(int x) {
+                                                         return 10-x;
+                                                       }}))).toString());
+    assertEquals("[3, 1, 1, 5, 9]",
+                 Algs.collect(Algs.iterator(Algs.filter(PI_ARRAY, odd))).toString());
+    assertTrue(Algs.exists(PI_ARRAY, odd));
+    assertFalse(Algs.forAll(PI_ARRAY, odd));
+    assertEquals(31, Algs.fold(0, PI_ARRAY,
+                               new IntToIntToInt() {
+                                 public int with(int lhs, int rhs) {
+                                   return lhs + rhs;
+                                 }}));
+  }
+
   public void testIntegersInRange() {
     assertEquals("[]", Algs.collect(Algs.integersInRange(65,65)).toString());
     assertEquals("[5]", Algs.collect(Algs.integersInRange(5,4)).toString());
@@ -200,6 +226,15 @@ public class AlgsTest extends TestCase {
                                          }})).toString());
   }
 
+  public void testMapWithTypedFunction() {
+    assertEquals("[true, true, false, true, true, true, false, false]",
+                 Algs.collect(Algs.map(PI,
+                                       new ObjectToBoolean() {
+                                         public boolean with(Object x) {
+                                           return 1 == ((Integer)x).intValue() % 2;
+                                         }})).toString());
+  }
+
   public void testMapMorphism() {
     Map integerToStringMap = Algs.newMap(new Object[][]{{new Integer(0), "0"},
                                                         {new Integer(1), "1"},
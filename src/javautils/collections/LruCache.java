@@ -0,0 +1,257 @@
+package javautils.collections;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javautils.fun.Function;
+import javautils.fun.ObjectToObject;
+import javautils.fun.ObjectToObjectToVoid;
+
+/**
+ * <p>A thread-safe cache of bounded size that evicts the least recently
+ * used entries.</p>
+ *
+ * <p>The cache is split into segments by the hash codes of the keys.
+ * Each segment is an access ordered {@link LinkedHashMap} with its own
+ * lock, so that threads using keys in different segments do not contend.
+ * The capacity is divided evenly among the segments, which means that
+ * recency is only tracked within a segment. A cache with a single segment
+ * is an exact LRU cache.</p>
+ *
+ * <p>The cache counts hits, misses and evictions. An optional eviction
+ * procedure, <code>onEviction.with(key, value)</code>, is called for each
+ * evicted or cleared entry and for each value replaced by {@link #put
+ * put}, outside of the locks of the cache. This can be used to
+ * release resources held by the values.</p>
+ */
+public class LruCache {
+
+  /**
+   * <p>A new cache with the given capacity and a number of segments
+   * suitable for the capacity.</p>
+   */
+  public LruCache(int capacity) {
+    this(capacity, defaultSegmentCount(capacity), null);
+  }
+
+  /**
+   * <p>A new cache with the given capacity and number of segments. The
+   * eviction procedure may be <code>null</code>.</p>
+   */
+  public LruCache(int capacity, int segmentCount, Function onEviction) {
+    assert 0 < segmentCount && segmentCount <= capacity;
+
+    this.capacity = capacity;
+    this.onEviction = null == onEviction ? null : ObjectToObjectToVoid.from(onEviction);
+    this.segments = new Segment[segmentCount];
+    for (int i=0; i<segmentCount; ++i)
+      segments[i] = new Segment(capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0));
+  }
+
+  /**
+   * <p>The value associated with the key or <code>null</code> if the key
+   * is not in the cache. A found entry becomes the most recently
+   * used.</p>
+   */
+  public Object get(Object key) {
+    Segment segment = segmentOf(key);
+    Object value;
+
+    synchronized (segment) {
+      value = segment.get(key);
+    }
+    (null != value ? hits : misses).incrementAndGet();
+    return value;
+  }
+
+  /**
+   * <p>The value associated with the key. On a miss the value is created
+   * by <code>factory.with(key)</code> and added to the cache. The factory
+   * is called while the segment of the key is locked, so it should be
+   * cheap and must not use the cache.</p>
+   */
+  public Object get(Object key, Function factory) {
+    Segment segment = segmentOf(key);
+    Object value;
+    boolean hit = true;
+    Object[] evicted = null;
+
+    synchronized (segment) {
+      value = segment.get(key);
+      if (null == value) {
+        hit = false;
+        value = ObjectToObject.from(factory).with(key);
+        assert null != value;
+        segment.put(key, value);
+        evicted = segment.takeEvicted();
+      }
+    }
+    (hit ? hits : misses).incrementAndGet();
+    evicted(evicted);
+    return value;
+  }
+
+  /**
+   * <p>Associates the value with the key, possibly evicting the least
+   * recently used entry of the segment. Returns the previous value
+   * associated with the key or <code>null</code>. A previous value that
+   * is not the same object as the new value is passed to the eviction
+   * procedure, but it is not counted as an eviction.</p>
+   */
+  public Object put(Object key, Object value) {
+    assert null != value;
+
+    Segment segment = segmentOf(key);
+    Object previous;
+    Object[] evicted;
+
+    synchronized (segment) {
+      previous = segment.put(key, value);
+      evicted = segment.takeEvicted();
+    }
+    if (null != previous && previous != value && null != onEviction)
+      onEviction.with(key, previous);
+    evicted(evicted);
+    return previous;
+  }
+
+  /**
+   * <p>Removes the entry of the key and returns its value or
+   * <code>null</code>. The eviction procedure is not called.</p>
+   */
+  public Object remove(Object key) {
+    Segment segment = segmentOf(key);
+
+    synchronized (segment) {
+      return segment.remove(key);
+    }
+  }
+
+  /**
+   * <p>Removes all entries, calling the eviction procedure for each of
+   * them.</p>
+   */
+  public void clear() {
+    for (int i=0; i<segments.length; ++i) {
+      List entries;
+
+      synchronized (segments[i]) {
+        entries = new ArrayList(segments[i].entrySet());
+        segments[i].clear();
+      }
+      if (null != onEviction)
+        for (Iterator it = entries.iterator(); it.hasNext();) {
+          Map.Entry entry = (Map.Entry)it.next();
+          onEviction.with(entry.getKey(), entry.getValue());
+        }
+    }
+  }
+
+  /**
+   * <p>The maximum number of entries in the cache.</p>
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * <p>The number of entries in the cache.</p>
+   */
+  public int size() {
+    int size = 0;
+    for (int i=0; i<segments.length; ++i)
+      synchronized (segments[i]) {
+        size += segments[i].size();
+      }
+    return size;
+  }
+
+  /**
+   * <p>The number of lookups that found a value.</p>
+   */
+  public long hits() {
+    return hits.get();
+  }
+
+  /**
+   * <p>The number of lookups that did not find a value.</p>
+   */
+  public long misses() {
+    return misses.get();
+  }
+
+  /**
+   * <p>The number of entries evicted to make room for new entries.</p>
+   */
+  public long evictions() {
+    return evictions.get();
+  }
+
+  public String toString() {
+    return "LruCache(size=" + size() + ", capacity=" + capacity +
+      ", hits=" + hits() + ", misses=" + misses() + ", evictions=" + evictions() + ")";
+  }
+
+  private Segment segmentOf(Object key) {
+    int h = key.hashCode();
+    h ^= (h >>> 20) ^ (h >>> 12);
+    h ^= (h >>> 7) ^ (h >>> 4);
+    return segments[(h & 0x7fffffff) % segments.length];
+  }
+
+  private void evicted(Object[] entry) {
+    if (null == entry)
+      return;
+
+    evictions.incrementAndGet();
+    if (null != onEviction)
+      onEviction.with(entry[0], entry[1]);
+  }
+
+  private static int defaultSegmentCount(int capacity) {
+    int count = 1;
+    while (count < 16 && count * 2 * 16 <= capacity)
+      count *= 2;
+    return count;
+  }
+
+  /**
+   * <p>An access ordered map that evicts its eldest entry when it grows
+   * over its capacity. The evicted entry is kept until it is taken, which
+   * happens before the lock of the segment is released.</p>
+   */
+  private static final class Segment extends LinkedHashMap {
+    Segment(int capacity) {
+      super(16, 0.75f, true);
+      this.capacity = capacity;
+    }
+
+    Object[] takeEvicted() {
+      Object[] result = evicted;
+      evicted = null;
+      return result;
+    }
+
+    protected boolean removeEldestEntry(Map.Entry eldest) {
+      if (size() <= capacity)
+        return false;
+      evicted = new Object[]{eldest.getKey(), eldest.getValue()};
+      return true;
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private final int capacity;
+    private Object[] evicted;
+  }
+
+  private final int capacity;
+  private final ObjectToObjectToVoid onEviction;
+  private final Segment[] segments;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+}
@@ -0,0 +1,103 @@
+package javautils.collections;
+
+import javautils.fun.ObjectToObject;
+import javautils.fun.ObjectToObjectToVoid;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link LruCache}.</p>
+ */
+public class LruCacheTest extends TestCase {
+
+  /**
+   * <p>Tests that a single segment cache evicts the least recently used
+   * entry and counts hits, misses and evictions.</p>
+   */
+  public void testEvictsLeastRecentlyUsed() {
+    final StringBuffer evicted = new StringBuffer();
+    LruCache cache = new LruCache(3, 1, new ObjectToObjectToVoid() {
+        public void with(Object key, Object value) {
+          evicted.append(key).append("=").append(value).append(" ");
+        }});
+
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.put("c", "3");
+    assertEquals("1", cache.get("a"));
+    cache.put("d", "4");
+    assertNull(cache.get("b"));
+    assertEquals("b=2 ", evicted.toString());
+
+    assertEquals("5", cache.get("e", new ObjectToObject() {
+        public Object with(Object key) {
+          return "5";
+        }}));
+    assertEquals("b=2 c=3 ", evicted.toString());
+
+    assertEquals(3, cache.size());
+    assertEquals(1, cache.hits());
+    assertEquals(2, cache.misses());
+    assertEquals(2, cache.evictions());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals("b=2 c=3 a=1 d=4 e=5 ", evicted.toString());
+  }
+
+  /**
+   * <p>Tests that a value replaced by {@link LruCache#put} is passed to
+   * the eviction procedure unless it is the same object.</p>
+   */
+  public void testPutReleasesReplacedValue() {
+    final StringBuffer evicted = new StringBuffer();
+    LruCache cache = new LruCache(2, 1, new ObjectToObjectToVoid() {
+        public void with(Object key, Object value) {
+          evicted.append(key).append("=").append(value).append(" ");
+        }});
+    String one = "1";
+
+    assertNull(cache.put("a", one));
+    assertSame(one, cache.put("a", one));
+    assertEquals("", evicted.toString());
+    assertSame(one, cache.put("a", "2"));
+    assertEquals("a=1 ", evicted.toString());
+    assertEquals(0, cache.evictions());
+  }
+
+  /**
+   * <p>Tests that concurrent lookups through a factory never exceed the
+   * capacity and count every lookup once.</p>
+   */
+  public void testConcurrentLookups() throws Exception {
+    final LruCache cache = new LruCache(64);
+    final ObjectToObject identity = new ObjectToObject() {
+        public Object with(Object key) {
+          return key;
+        }};
+    final Object[] failure = {null};
+    Thread[] threads = new Thread[4];
+
+    for (int t=0; t<threads.length; ++t) {
+      final int seed = t;
+      threads[t] = new Thread() {
+          public void run() {
+            for (int i=0; i<10000; ++i) {
+              Integer key = new Integer((i * 31 + seed) % 100);
+              Object value = cache.get(key, identity);
+              if (!key.equals(value))
+                synchronized (failure) {
+                  failure[0] = key + " -> " + value;
+                }
+            }
+          }};
+      threads[t].start();
+    }
+    for (int t=0; t<threads.length; ++t)
+      threads[t].join();
+
+    assertNull(failure[0]);
+    assertTrue(cache.size() <= cache.capacity());
+    assertEquals(4 * 10000, cache.hits() + cache.misses());
+  }
+}
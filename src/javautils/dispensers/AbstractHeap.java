@@ -0,0 +1,80 @@
+package javautils.dispensers;
+
+import java.util.Comparator;
+import javautils.fun.ObjectToDouble;
+
+/**
+ * <p>Base class of the {@link PriorityDispenser}s that order elements
+ * either by a comparator or by a <code>double</code> priority function.
+ * Implements {@link #push push} using {@link #insert insert}.</p>
+ *
+ * <p>A priority function is called once per insert and once per {@link
+ * #decreaseKey decreaseKey}, and the priority is cached in the handle. A
+ * comparator is called on every comparison.</p>
+ */
+public abstract class AbstractHeap extends AbstractDispenser implements PriorityDispenser {
+
+  /**
+   * <p>A heap ordered by the comparator.</p>
+   */
+  protected AbstractHeap(Comparator comparator) {
+    assert null != comparator;
+    this.comparator = comparator;
+    this.priority = null;
+  }
+
+  /**
+   * <p>A heap ordered by the priority function.</p>
+   */
+  protected AbstractHeap(ObjectToDouble priority) {
+    assert null != priority;
+    this.comparator = null;
+    this.priority = priority;
+  }
+
+  public void push(Object element) {
+    insert(element);
+  }
+
+  /**
+   * <p>A handle with the cached priority of its element.</p>
+   */
+  protected static class Entry implements Handle {
+    protected Entry(Object element) {
+      this.element = element;
+    }
+
+    public Object element() {
+      return element;
+    }
+
+    public boolean isQueued() {
+      return queued;
+    }
+
+    protected final Object element;
+    protected double key;
+    protected boolean queued;
+  }
+
+  /**
+   * <p>Updates the cached priority of the entry.</p>
+   */
+  protected final void updateKey(Entry entry) {
+    if (null != priority)
+      entry.key = priority.with(entry.element);
+  }
+
+  /**
+   * <p>True if and only if the lhs entry has a lesser priority than the
+   * rhs entry.</p>
+   */
+  protected final boolean less(Entry lhs, Entry rhs) {
+    return null != priority
+      ? lhs.key < rhs.key
+      : comparator.compare(lhs.element, rhs.element) < 0;
+  }
+
+  private final Comparator comparator;
+  private final ObjectToDouble priority;
+}
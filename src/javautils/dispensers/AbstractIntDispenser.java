@@ -0,0 +1,16 @@
+package javautils.dispensers;
+
+/**
+ * <p>Implements the {@link IntDispenser#isEmpty isEmpty()} and {@link
+ * IntDispenser#notEmpty notEmpty()} methods.</p>
+ */
+public abstract class AbstractIntDispenser implements IntDispenser {
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public boolean notEmpty() {
+    return size() != 0;
+  }
+}
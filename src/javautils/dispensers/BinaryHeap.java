@@ -0,0 +1,106 @@
+package javautils.dispensers;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import javautils.fun.ObjectToDouble;
+
+/**
+ * <p>Priority queue implemented as an implicit binary heap in an array.
+ * Each handle knows its position in the array, so {@link #decreaseKey
+ * decreaseKey} takes <code>O(log n)</code> time.</p>
+ */
+public final class BinaryHeap extends AbstractHeap {
+  public BinaryHeap(Comparator comparator) {
+    super(comparator);
+  }
+
+  public BinaryHeap(ObjectToDouble priority) {
+    super(priority);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public Object peek() {
+    if (0 == size)
+      throw new NoSuchElementException();
+    return heap[0].element;
+  }
+
+  public Object pop() {
+    Object result = peek();
+
+    heap[0].queued = false;
+    Node last = heap[--size];
+    heap[size] = null;
+    if (0 < size) {
+      heap[0] = last;
+      last.index = 0;
+      siftDown(last);
+    }
+    return result;
+  }
+
+  public Handle insert(Object element) {
+    Node node = new Node(element);
+    updateKey(node);
+    node.queued = true;
+
+    if (size == heap.length) {
+      Node[] grown = new Node[2 * heap.length];
+      System.arraycopy(heap, 0, grown, 0, size);
+      heap = grown;
+    }
+    heap[size] = node;
+    node.index = size++;
+    siftUp(node);
+    return node;
+  }
+
+  public void decreaseKey(Handle handle) {
+    Node node = (Node)handle;
+    assert node.queued && heap[node.index] == node;
+    updateKey(node);
+    siftUp(node);
+  }
+
+  private void siftUp(Node node) {
+    int i = node.index;
+    while (0 < i) {
+      int parent = (i - 1) >>> 1;
+      if (!less(node, heap[parent]))
+        break;
+      heap[i] = heap[parent];
+      heap[i].index = i;
+      i = parent;
+    }
+    heap[i] = node;
+    node.index = i;
+  }
+
+  private void siftDown(Node node) {
+    int i = node.index;
+    for (int child; (child = 2 * i + 1) < size; i = child) {
+      if (child + 1 < size && less(heap[child + 1], heap[child]))
+        ++child;
+      if (!less(heap[child], node))
+        break;
+      heap[i] = heap[child];
+      heap[i].index = i;
+    }
+    heap[i] = node;
+    node.index = i;
+  }
+
+  private static final class Node extends Entry {
+    Node(Object element) {
+      super(element);
+    }
+
+    int index;
+  }
+
+  private Node[] heap = new Node[16];
+  private int size = 0;
+}
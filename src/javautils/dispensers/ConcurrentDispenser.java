@@ -0,0 +1,29 @@
+package javautils.dispensers;
+
+import java.util.Collection;
+
+/**
+ * <p>A thread-safe {@link Dispenser}.</p>
+ *
+ * <p>As other threads may pop elements between a call to {@link
+ * #isEmpty isEmpty} and a call to {@link #pop pop}, concurrent consumers
+ * should use {@link #poll poll}, which atomically checks for and removes
+ * an element. The {@link #size size} of a concurrent dispenser is a
+ * snapshot that may already be out of date when it is returned.</p>
+ */
+public interface ConcurrentDispenser extends Dispenser {
+
+  /**
+   * <p>Like {@link #pop pop}, but returns <code>null</code> if the
+   * dispenser is empty. The elements of a concurrent dispenser must not
+   * be <code>null</code>.</p>
+   */
+  Object poll();
+
+  /**
+   * <p>Removes all elements from the dispenser and adds them to the
+   * collection in the order in which they would have been popped.
+   * Returns the number of elements removed.</p>
+   */
+  int drainTo(Collection c);
+}
@@ -0,0 +1,143 @@
+package javautils.dispensers;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import javautils.collections.AbstractIterator;
+
+/**
+ * <p>Lock-free FIFO queue.</p>
+ *
+ * <p>This is the non-blocking linked queue of Michael and Scott. Pushing
+ * and popping threads only contend on the tail and head of the queue,
+ * respectively, and a thread that is delayed in the middle of an
+ * operation never blocks the other threads. {@link #pushAll(Iterator)
+ * pushAll} links the pushed elements into a chain first and then appends
+ * the whole chain with a single atomic update, so the elements of a batch
+ * are never interleaved with the elements pushed by other threads.</p>
+ */
+public class ConcurrentQueue extends AbstractDispenser implements ConcurrentDispenser {
+  public ConcurrentQueue() {}
+
+  public ConcurrentQueue(Collection c) {
+    pushAll(c);
+  }
+
+  public int size() {
+    return Math.max(0, size.get());
+  }
+
+  public Object pop() {
+    Object element = poll();
+    if (null == element)
+      throw new NoSuchElementException();
+    return element;
+  }
+
+  public Object poll() {
+    for (;;) {
+      Node h = head;
+      Node t = tail;
+      Node first = h.next;
+
+      if (h != head)
+        continue;
+      if (null == first)
+        return null;
+      if (h == t) {
+        // The tail is lagging behind, help the pushing thread.
+        TAIL.compareAndSet(this, t, first);
+      } else if (HEAD.compareAndSet(this, h, first)) {
+        Object element = first.element;
+        // The first node becomes the sentinel and must not retain the
+        // element.
+        first.element = null;
+        size.decrementAndGet();
+        return element;
+      }
+    }
+  }
+
+  public void push(Object element) {
+    assert null != element;
+    Node node = new Node(element);
+    append(node, node, 1);
+  }
+
+  public void pushAll(Iterator i) {
+    if (!i.hasNext())
+      return;
+
+    Node first = new Node(i.next());
+    Node last = first;
+    int n = 1;
+
+    for (; i.hasNext(); ++n)
+      last = last.next = new Node(i.next());
+    assert noNulls(first);
+    append(first, last, n);
+  }
+
+  public void pushAllRight(List l) {
+    final ListIterator i = l.listIterator(l.size());
+    pushAll(new AbstractIterator() {
+        public boolean hasNext() { return i.hasPrevious(); }
+        public Object next() { return i.previous(); }
+      });
+  }
+
+  public int drainTo(Collection c) {
+    int n = 0;
+    for (Object element; null != (element = poll()); ++n)
+      c.add(element);
+    return n;
+  }
+
+  private static boolean noNulls(Node first) {
+    for (Node node = first; null != node; node = node.next)
+      if (null == node.element)
+        return false;
+    return true;
+  }
+
+  private void append(Node first, Node last, int n) {
+    for (;;) {
+      Node t = tail;
+      Node next = t.next;
+
+      if (t != tail)
+        continue;
+      if (null != next) {
+        TAIL.compareAndSet(this, t, next);
+      } else if (NEXT.compareAndSet(t, null, first)) {
+        size.addAndGet(n);
+        TAIL.compareAndSet(this, t, last);
+        return;
+      }
+    }
+  }
+
+  private static final class Node {
+    Node(Object element) {
+      this.element = element;
+    }
+
+    volatile Object element;
+    volatile Node next;
+  }
+
+  private static final AtomicReferenceFieldUpdater HEAD =
+    AtomicReferenceFieldUpdater.newUpdater(ConcurrentQueue.class, Node.class, "head");
+  private static final AtomicReferenceFieldUpdater TAIL =
+    AtomicReferenceFieldUpdater.newUpdater(ConcurrentQueue.class, Node.class, "tail");
+  private static final AtomicReferenceFieldUpdater NEXT =
+    AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+  private volatile Node head = new Node(null);
+  private volatile Node tail = head;
+  private final AtomicInteger size = new AtomicInteger();
+}
@@ -0,0 +1,133 @@
+package javautils.dispensers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link ConcurrentQueue} and {@link ConcurrentStack}.</p>
+ */
+public class ConcurrentQueueTest extends TestCase {
+
+  private static final int THREADS = 4;
+  private static final int BATCHES = 2000;
+  private static final int BATCH_SIZE = 5;
+
+  /**
+   * <p>Tests that a {@link ConcurrentQueue} pops in first in, first out
+   * order and a {@link ConcurrentStack} in last in, first out order, and
+   * that <code>pushAllRight</code> and <code>drainTo</code> keep that
+   * order.</p>
+   */
+  public void testOrder() {
+    List elements = Arrays.asList(new Object[]{"a", "b", "c"});
+    List result = new ArrayList();
+
+    ConcurrentQueue queue = new ConcurrentQueue(elements);
+    queue.push("d");
+    queue.pushAllRight(elements);
+    assertEquals(7, queue.size());
+    assertEquals("a", queue.pop());
+    assertEquals(6, queue.drainTo(result));
+    assertEquals("[b, c, d, c, b, a]", result.toString());
+    assertNull(queue.poll());
+
+    ConcurrentStack stack = new ConcurrentStack(elements);
+    stack.push("d");
+    stack.pushAllRight(elements);
+    assertEquals(7, stack.size());
+    assertEquals("a", stack.pop());
+    result.clear();
+    assertEquals(6, stack.drainTo(result));
+    assertEquals("[b, c, d, c, b, a]", result.toString());
+    assertTrue(stack.isEmpty());
+  }
+
+  /**
+   * <p>Tests that elements pushed and popped concurrently through a
+   * {@link ConcurrentQueue} are popped exactly once and in order.</p>
+   */
+  public void testConcurrentQueue() throws Exception {
+    assertEveryElementPoppedOnce(new ConcurrentQueue(), true);
+  }
+
+  /**
+   * <p>Tests that elements pushed and popped concurrently through a
+   * {@link ConcurrentStack} are popped exactly once.</p>
+   */
+  public void testConcurrentStack() throws Exception {
+    assertEveryElementPoppedOnce(new ConcurrentStack(), false);
+  }
+
+  /**
+   * <p>Pushes batches of elements from several threads while other
+   * threads pop, and checks that every element is popped exactly once.
+   * For a queue, the elements of each batch must also be popped in
+   * order by a single consumer.</p>
+   */
+  private static void assertEveryElementPoppedOnce(final ConcurrentDispenser dispenser,
+                                                   boolean fifo) throws Exception {
+    final int total = THREADS * BATCHES * BATCH_SIZE;
+    final List[] popped = new List[THREADS];
+    Thread[] threads = new Thread[2 * THREADS];
+
+    for (int t=0; t<THREADS; ++t) {
+      final int producer = t;
+      threads[t] = new Thread() {
+          public void run() {
+            for (int i=0; i<BATCHES; ++i) {
+              List batch = new ArrayList();
+              for (int j=0; j<BATCH_SIZE; ++j)
+                batch.add(new Integer(((producer * BATCHES) + i) * BATCH_SIZE + j));
+              dispenser.pushAll(batch);
+            }
+          }};
+    }
+    final int[] remaining = {total};
+    for (int t=0; t<THREADS; ++t) {
+      final List mine = popped[t] = new ArrayList();
+      threads[THREADS + t] = new Thread() {
+          public void run() {
+            for (;;) {
+              Object element = dispenser.poll();
+              if (null != element) {
+                mine.add(element);
+                synchronized (remaining) {
+                  --remaining[0];
+                }
+              } else {
+                synchronized (remaining) {
+                  if (0 == remaining[0])
+                    return;
+                }
+                Thread.yield();
+              }
+            }
+          }};
+    }
+    for (int t=0; t<threads.length; ++t)
+      threads[t].start();
+    for (int t=0; t<threads.length; ++t)
+      threads[t].join();
+
+    boolean[] seen = new boolean[total];
+    for (int t=0; t<THREADS; ++t) {
+      int[] lastInBatch = new int[total / BATCH_SIZE];
+      Arrays.fill(lastInBatch, -1);
+      for (int i=0; i<popped[t].size(); ++i) {
+        int element = ((Integer)popped[t].get(i)).intValue();
+        assertFalse(seen[element]);
+        seen[element] = true;
+        if (fifo) {
+          assertTrue(lastInBatch[element / BATCH_SIZE] < element);
+          lastInBatch[element / BATCH_SIZE] = element;
+        }
+      }
+    }
+    for (int i=0; i<total; ++i)
+      assertTrue(seen[i]);
+    assertTrue(dispenser.isEmpty());
+  }
+}
@@ -0,0 +1,122 @@
+package javautils.dispensers;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>Lock-free LIFO stack.</p>
+ *
+ * <p>This is Treiber's stack: the top of the stack is an atomic
+ * reference to an immutable linked list of nodes, which is replaced by
+ * compare-and-set. {@link #pushAll(Iterator) pushAll} links the pushed
+ * elements into a chain first and pushes the whole chain with a single
+ * atomic update, and {@link #drainTo drainTo} detaches the whole stack
+ * with a single atomic update.</p>
+ */
+public final class ConcurrentStack extends AbstractDispenser implements ConcurrentDispenser {
+  public ConcurrentStack() {}
+
+  public ConcurrentStack(Collection c) {
+    pushAll(c);
+  }
+
+  public int size() {
+    return Math.max(0, size.get());
+  }
+
+  public Object pop() {
+    Object element = poll();
+    if (null == element)
+      throw new NoSuchElementException();
+    return element;
+  }
+
+  public Object poll() {
+    for (;;) {
+      Node node = (Node)top.get();
+      if (null == node)
+        return null;
+      if (top.compareAndSet(node, node.next)) {
+        size.decrementAndGet();
+        return node.element;
+      }
+    }
+  }
+
+  public void push(Object element) {
+    Node node = new Node(element);
+    link(node, node, 1);
+  }
+
+  public void pushAll(Iterator i) {
+    if (!i.hasNext())
+      return;
+
+    Node bottom = new Node(i.next());
+    Node node = bottom;
+    int n = 1;
+
+    for (; i.hasNext(); ++n) {
+      Node next = new Node(i.next());
+      next.next = node;
+      node = next;
+    }
+    link(node, bottom, n);
+  }
+
+  public void pushAllRight(List l) {
+    if (l.isEmpty())
+      return;
+
+    ListIterator i = l.listIterator(l.size());
+    Node bottom = new Node(i.previous());
+    Node node = bottom;
+    int n = 1;
+
+    for (; i.hasPrevious(); ++n) {
+      Node next = new Node(i.previous());
+      next.next = node;
+      node = next;
+    }
+    link(node, bottom, n);
+  }
+
+  public int drainTo(Collection c) {
+    Node node = (Node)top.getAndSet(null);
+    int n = 0;
+
+    for (; null != node; node = node.next, ++n)
+      c.add(node.element);
+    size.addAndGet(-n);
+    return n;
+  }
+
+  private void link(Node first, Node bottom, int n) {
+    for (;;) {
+      Node old = (Node)top.get();
+      bottom.next = old;
+      if (top.compareAndSet(old, first)) {
+        size.addAndGet(n);
+        return;
+      }
+    }
+  }
+
+  private static final class Node {
+    Node(Object element) {
+      assert null != element;
+      this.element = element;
+    }
+
+    final Object element;
+    Node next;
+  }
+
+  private final AtomicReference top = new AtomicReference();
+  private final AtomicInteger size = new AtomicInteger();
+}
@@ -0,0 +1,39 @@
+package javautils.dispensers;
+
+/**
+ * <p>A {@link Dispenser} of <code>int</code>-values. Int dispensers are
+ * intended for algorithms that deal with dense indices, such as graph
+ * searches on indexed graphs, and avoid boxing each element.</p>
+ */
+public interface IntDispenser {
+
+  /**
+   * <pre>
+   * <b>return</b> size() == 0;
+   * </pre>
+   */
+  boolean isEmpty();
+
+  /**
+   * <pre>
+   * <b>return</b> &#33;isEmpty();
+   * </pre>
+   */
+  boolean notEmpty();
+
+  /**
+   * <p>Number of elements in the dispenser.</p>
+   */
+  int size();
+
+  /**
+   * <p>Chooses the next element to be processed, removes it from the
+   * dispenser, and returns the element.</p>
+   */
+  int pop();
+
+  /**
+   * <p>Adds a new element into the dispenser.</p>
+   */
+  void push(int element);
+}
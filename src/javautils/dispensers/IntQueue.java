@@ -0,0 +1,50 @@
+package javautils.dispensers;
+
+/**
+ * <p>FIFO queue of <code>int</code>-values. The queue is a growable
+ * circular array.</p>
+ */
+public final class IntQueue extends AbstractIntDispenser {
+
+  public IntQueue() {
+    this(16);
+  }
+
+  public IntQueue(int initialCapacity) {
+    int capacity = 1;
+    while (capacity < initialCapacity)
+      capacity *= 2;
+    elements = new int[capacity];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void push(int element) {
+    if (size == elements.length)
+      grow();
+    elements[(head + size++) & (elements.length - 1)] = element;
+  }
+
+  public int pop() {
+    assert 0 < size;
+    int result = elements[head];
+    head = (head + 1) & (elements.length - 1);
+    --size;
+    return result;
+  }
+
+  private void grow() {
+    int[] grown = new int[2 * elements.length];
+    int firstPart = elements.length - head;
+    System.arraycopy(elements, head, grown, 0, firstPart);
+    System.arraycopy(elements, 0, grown, firstPart, head);
+    elements = grown;
+    head = 0;
+  }
+
+  private int[] elements;
+  private int head = 0;
+  private int size = 0;
+}
@@ -0,0 +1,41 @@
+package javautils.dispensers;
+
+/**
+ * <p>LIFO stack of <code>int</code>-values.</p>
+ */
+public final class IntStack extends AbstractIntDispenser {
+
+  public IntStack() {
+    this(16);
+  }
+
+  public IntStack(int initialCapacity) {
+    elements = new int[Math.max(1, initialCapacity)];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void push(int element) {
+    if (size == elements.length) {
+      int[] grown = new int[2 * elements.length];
+      System.arraycopy(elements, 0, grown, 0, size);
+      elements = grown;
+    }
+    elements[size++] = element;
+  }
+
+  public int pop() {
+    assert 0 < size;
+    return elements[--size];
+  }
+
+  public int top() {
+    assert 0 < size;
+    return elements[size-1];
+  }
+
+  private int[] elements;
+  private int size = 0;
+}
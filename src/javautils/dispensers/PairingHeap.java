@@ -0,0 +1,140 @@
+package javautils.dispensers;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import javautils.fun.ObjectToDouble;
+
+/**
+ * <p>Priority queue implemented as a pairing heap. Pushing and {@link
+ * #decreaseKey decreaseKey} take constant time and popping takes
+ * <code>O(log n)</code> amortized time, which suits searches that
+ * decrease keys much more often than they pop, such as Dijkstra's
+ * algorithm on dense graphs.</p>
+ */
+public final class PairingHeap extends AbstractHeap {
+  public PairingHeap(Comparator comparator) {
+    super(comparator);
+  }
+
+  public PairingHeap(ObjectToDouble priority) {
+    super(priority);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public Object peek() {
+    if (null == root)
+      throw new NoSuchElementException();
+    return root.element;
+  }
+
+  public Object pop() {
+    Object result = peek();
+
+    root.queued = false;
+    root = mergePairs(root.child);
+    if (null != root)
+      root.previous = null;
+    --size;
+    return result;
+  }
+
+  public Handle insert(Object element) {
+    Node node = new Node(element);
+    updateKey(node);
+    node.queued = true;
+    root = null == root ? node : link(root, node);
+    ++size;
+    return node;
+  }
+
+  public void decreaseKey(Handle handle) {
+    Node node = (Node)handle;
+    assert node.queued;
+    updateKey(node);
+    if (node == root)
+      return;
+
+    // Cut the subtree of the node and link it with the root.
+    if (node.previous.child == node)
+      node.previous.child = node.sibling;
+    else
+      node.previous.sibling = node.sibling;
+    if (null != node.sibling)
+      node.sibling.previous = node.previous;
+    node.sibling = node.previous = null;
+    root = link(root, node);
+  }
+
+  /**
+   * <p>Links two roots by making the greater one the first child of the
+   * lesser one. Returns the new root.</p>
+   */
+  private Node link(Node a, Node b) {
+    if (less(b, a)) {
+      Node t = a;
+      a = b;
+      b = t;
+    }
+    b.sibling = a.child;
+    if (null != a.child)
+      a.child.previous = b;
+    b.previous = a;
+    a.child = b;
+    a.sibling = null;
+    return a;
+  }
+
+  /**
+   * <p>Links the siblings pairwise from left to right and then the pairs
+   * from right to left.</p>
+   */
+  private Node mergePairs(Node first) {
+    if (null == first)
+      return null;
+
+    // First pass: link pairs, chaining the results through previous.
+    Node pairs = null;
+    while (null != first) {
+      Node second = first.sibling;
+      Node next = null == second ? null : second.sibling;
+      first.sibling = first.previous = null;
+      Node pair = first;
+      if (null != second) {
+        second.sibling = second.previous = null;
+        pair = link(first, second);
+      }
+      pair.previous = pairs;
+      pairs = pair;
+      first = next;
+    }
+
+    // Second pass: link from the last pair to the first.
+    Node result = pairs;
+    pairs = pairs.previous;
+    result.previous = null;
+    while (null != pairs) {
+      Node next = pairs.previous;
+      pairs.previous = null;
+      result = link(result, pairs);
+      pairs = next;
+    }
+    return result;
+  }
+
+  private static final class Node extends Entry {
+    Node(Object element) {
+      super(element);
+    }
+
+    Node child;
+    Node sibling;
+    // The parent of a first child or the left sibling of other nodes.
+    Node previous;
+  }
+
+  private Node root;
+  private int size = 0;
+}
@@ -0,0 +1,49 @@
+package javautils.dispensers;
+
+/**
+ * <p>A priority queue {@link Dispenser}: {@link #pop pop} returns an
+ * element with the least priority, so that for example the element with
+ * the shortest tentative distance is processed next.</p>
+ *
+ * <p>Pushing an element with {@link #insert insert} returns a handle that
+ * addresses the element in the dispenser. When the priority of a queued
+ * element decreases, for example because a shorter path to a node was
+ * found, the dispenser must be notified with {@link #decreaseKey
+ * decreaseKey}. The priority of a queued element must not increase.</p>
+ */
+public interface PriorityDispenser extends Dispenser {
+
+  /**
+   * <p>Addresses an element in a priority dispenser.</p>
+   */
+  interface Handle {
+
+    /**
+     * <p>The element.</p>
+     */
+    Object element();
+
+    /**
+     * <p>True if and only if the element has been pushed and not yet
+     * popped.</p>
+     */
+    boolean isQueued();
+  }
+
+  /**
+   * <p>Pushes an element and returns a handle to it.</p>
+   */
+  Handle insert(Object element);
+
+  /**
+   * <p>Restores the order of the dispenser after the priority of the
+   * queued element of the handle has decreased.</p>
+   */
+  void decreaseKey(Handle handle);
+
+  /**
+   * <p>An element with the least priority, which {@link #pop pop} would
+   * return.</p>
+   */
+  Object peek();
+}
@@ -0,0 +1,108 @@
+package javautils.dispensers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import javautils.fun.ObjectToDouble;
+import javautils.fun.ObjectToLong;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for the {@link PriorityDispenser} implementations {@link
+ * BinaryHeap}, {@link PairingHeap} and {@link RadixHeap}.</p>
+ */
+public class PriorityDispenserTest extends TestCase {
+
+  private final long[] keys = new long[20000];
+
+  private final ObjectToLong longKey = new ObjectToLong() {
+      public long with(Object id) {
+        return keys[((Integer)id).intValue()];
+      }};
+
+  private final ObjectToDouble doubleKey = new ObjectToDouble() {
+      public double with(Object id) {
+        return keys[((Integer)id).intValue()];
+      }};
+
+  private final Comparator comparator = new Comparator() {
+      public int compare(Object lhs, Object rhs) {
+        long l = keys[((Integer)lhs).intValue()];
+        long r = keys[((Integer)rhs).intValue()];
+        return l < r ? -1 : l == r ? 0 : 1;
+      }};
+
+  /**
+   * <p>Tests that a {@link BinaryHeap} ordered by a key or by a
+   * comparator always pops an element with the least key.</p>
+   */
+  public void testBinaryHeap() {
+    assertPopsLeastKeys(new BinaryHeap(doubleKey));
+    assertPopsLeastKeys(new BinaryHeap(comparator));
+  }
+
+  /**
+   * <p>Tests that a {@link PairingHeap} ordered by a key or by a
+   * comparator always pops an element with the least key.</p>
+   */
+  public void testPairingHeap() {
+    assertPopsLeastKeys(new PairingHeap(doubleKey));
+    assertPopsLeastKeys(new PairingHeap(comparator));
+  }
+
+  /**
+   * <p>Tests that a {@link RadixHeap} always pops an element with the
+   * least key under monotone use.</p>
+   */
+  public void testRadixHeap() {
+    assertPopsLeastKeys(new RadixHeap(longKey));
+  }
+
+  /**
+   * <p>Runs a random, monotone sequence of inserts, decreases and pops
+   * like a shortest path search would, and checks each pop against a
+   * linear scan of the queued elements.</p>
+   */
+  private void assertPopsLeastKeys(PriorityDispenser dispenser) {
+    Random random = new Random(7);
+    List queued = new ArrayList();
+    long last = 0;
+    int n = 0;
+
+    for (int step=0; step<3 * keys.length && (n < keys.length || dispenser.notEmpty()); ++step) {
+      int op = random.nextInt(3);
+
+      if (0 == op && n < keys.length) {
+        keys[n] = last + random.nextInt(1000);
+        queued.add(dispenser.insert(new Integer(n++)));
+      } else if (1 == op && !queued.isEmpty()) {
+        PriorityDispenser.Handle handle =
+          (PriorityDispenser.Handle)queued.get(random.nextInt(queued.size()));
+        int id = ((Integer)handle.element()).intValue();
+        keys[id] = last + (long)(random.nextDouble() * (keys[id] - last));
+        dispenser.decreaseKey(handle);
+      } else if (dispenser.notEmpty()) {
+        long least = Long.MAX_VALUE;
+        for (int i=0; i<queued.size(); ++i)
+          least = Math.min(least, keys[((Integer)((PriorityDispenser.Handle)queued.get(i)).element()).intValue()]);
+
+        assertEquals(dispenser.peek(), dispenser.peek());
+        int id = ((Integer)dispenser.pop()).intValue();
+        assertEquals(least, keys[id]);
+        last = keys[id];
+
+        for (int i=0; i<queued.size(); ++i) {
+          PriorityDispenser.Handle handle = (PriorityDispenser.Handle)queued.get(i);
+          if (!handle.isQueued()) {
+            queued.set(i, queued.get(queued.size() - 1));
+            queued.remove(queued.size() - 1);
+            break;
+          }
+        }
+      }
+      assertEquals(queued.size(), dispenser.size());
+    }
+  }
+}
@@ -1,29 +1,77 @@
 package javautils.dispensers;
 
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
- * <p>FIFO queue.</p>
+ * <p>FIFO queue. The queue is a growable circular array, so pushing and
+ * popping do not allocate except when the array grows.</p>
  */
 public class Queue extends AbstractDispenser {
-  public Queue() {}
+  public Queue() {
+    this(16);
+  }
+
+  public Queue(int initialCapacity) {
+    int capacity = 1;
+    while (capacity < initialCapacity)
+      capacity *= 2;
+    elements = new Object[capacity];
+  }
 
   public Queue(Collection c) {
+    this(c.size());
     pushAll(c);
   }
 
   public int size() {
-    return list.size();
+    return size;
   }
 
   public Object pop() {
-    return list.removeFirst();
+    if (0 == size)
+      throw new NoSuchElementException();
+
+    Object result = elements[head];
+    elements[head] = null;
+    head = (head + 1) & (elements.length - 1);
+    --size;
+    return result;
   }
 
   public void push(Object element) {
-    list.addLast(element);
+    if (size == elements.length)
+      grow(size + 1);
+    elements[(head + size++) & (elements.length - 1)] = element;
+  }
+
+  public void pushAll(Collection c) {
+    if (elements.length < size + c.size())
+      grow(size + c.size());
+    super.pushAll(c);
+  }
+
+  public void pushAllRight(List l) {
+    if (elements.length < size + l.size())
+      grow(size + l.size());
+    super.pushAllRight(l);
+  }
+
+  private void grow(int minCapacity) {
+    int capacity = elements.length;
+    while (capacity < minCapacity)
+      capacity *= 2;
+
+    Object[] grown = new Object[capacity];
+    int firstPart = Math.min(size, elements.length - head);
+    System.arraycopy(elements, head, grown, 0, firstPart);
+    System.arraycopy(elements, 0, grown, firstPart, size - firstPart);
+    elements = grown;
+    head = 0;
   }
 
-  private LinkedList list = new LinkedList();
+  private Object[] elements;
+  private int head = 0;
+  private int size = 0;
 }
@@ -0,0 +1,44 @@
+package javautils.dispensers;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link Queue}.</p>
+ */
+public class QueueTest extends TestCase {
+
+  /**
+   * <p>Tests that random pushes and pops, which wrap around and grow the
+   * circular array, give the same results as a {@link LinkedList}.</p>
+   */
+  public void testAgainstLinkedList() {
+    Random random = new Random(42);
+    Queue queue = new Queue(2);
+    LinkedList expected = new LinkedList();
+
+    for (int i=0; i<10000; ++i) {
+      switch (random.nextInt(4)) {
+      case 0:
+        if (!expected.isEmpty())
+          assertEquals(expected.removeFirst(), queue.pop());
+        break;
+      case 1:
+        queue.pushAllRight(Arrays.asList(new Object[]{"a" + i, "b" + i}));
+        expected.addLast("b" + i);
+        expected.addLast("a" + i);
+        break;
+      default:
+        queue.push(new Integer(i));
+        expected.addLast(new Integer(i));
+      }
+      assertEquals(expected.size(), queue.size());
+    }
+    while (queue.notEmpty())
+      assertEquals(expected.removeFirst(), queue.pop());
+    assertTrue(expected.isEmpty());
+  }
+}
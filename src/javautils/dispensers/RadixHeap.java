@@ -0,0 +1,152 @@
+package javautils.dispensers;
+
+import java.util.NoSuchElementException;
+import javautils.fun.ObjectToLong;
+
+/**
+ * <p>Monotone priority queue of elements with non-negative
+ * <code>long</code> priorities, implemented as a radix heap.</p>
+ *
+ * <p>The heap is monotone: the priority of a pushed element, and the new
+ * priority given to an element by {@link #decreaseKey decreaseKey}, must
+ * not be less than the priority of the last popped element. This holds
+ * for Dijkstra's algorithm with non-negative integer edge weights. In
+ * exchange, pushing and {@link #decreaseKey decreaseKey} take constant
+ * time and popping takes amortized <code>O(log C)</code> time, where
+ * <code>C</code> is the largest priority, without comparisons between
+ * elements.</p>
+ *
+ * <p>Bucket <code>0</code> holds the elements whose priority equals the
+ * priority of the last popped element, and bucket <code>i &gt; 0</code>
+ * holds the elements whose priority first differs from it in bit
+ * <code>i-1</code>.</p>
+ */
+public final class RadixHeap extends AbstractDispenser implements PriorityDispenser {
+  public RadixHeap(ObjectToLong priority) {
+    this.priority = priority;
+    for (int i=0; i<buckets.length; ++i)
+      buckets[i] = new Node[4];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public Object peek() {
+    return buckets[0][fillBucketZero()].element;
+  }
+
+  public Object pop() {
+    Node node = buckets[0][fillBucketZero()];
+    remove(node);
+    node.queued = false;
+    --size;
+    return node.element;
+  }
+
+  public void push(Object element) {
+    insert(element);
+  }
+
+  public Handle insert(Object element) {
+    Node node = new Node(element);
+    node.key = priority.with(element);
+    assert last <= node.key;
+    node.queued = true;
+    add(node);
+    ++size;
+    return node;
+  }
+
+  public void decreaseKey(Handle handle) {
+    Node node = (Node)handle;
+    assert node.queued;
+    long key = priority.with(node.element);
+    assert last <= key && key <= node.key;
+    node.key = key;
+    int bucket = bucketOf(key);
+    if (bucket != node.bucket) {
+      remove(node);
+      add(node);
+    }
+  }
+
+  /**
+   * <p>Makes bucket <code>0</code> non-empty by redistributing the first
+   * non-empty bucket around its least priority, and returns the index of
+   * an element in bucket <code>0</code>.</p>
+   */
+  private int fillBucketZero() {
+    if (0 == size)
+      throw new NoSuchElementException();
+    if (0 < counts[0])
+      return counts[0] - 1;
+
+    int i = 1;
+    while (0 == counts[i])
+      ++i;
+
+    Node[] bucket = buckets[i];
+    int count = counts[i];
+    long min = bucket[0].key;
+    for (int j=1; j<count; ++j)
+      min = Math.min(min, bucket[j].key);
+
+    last = min;
+    counts[i] = 0;
+    buckets[i] = new Node[Math.max(4, bucket.length / 2)];
+    for (int j=0; j<count; ++j)
+      add(bucket[j]);
+    return counts[0] - 1;
+  }
+
+  private int bucketOf(long key) {
+    return key == last ? 0 : 64 - Long.numberOfLeadingZeros(key ^ last);
+  }
+
+  private void add(Node node) {
+    int b = bucketOf(node.key);
+    if (counts[b] == buckets[b].length) {
+      Node[] grown = new Node[2 * counts[b]];
+      System.arraycopy(buckets[b], 0, grown, 0, counts[b]);
+      buckets[b] = grown;
+    }
+    node.bucket = b;
+    node.index = counts[b];
+    buckets[b][counts[b]++] = node;
+  }
+
+  private void remove(Node node) {
+    Node[] bucket = buckets[node.bucket];
+    Node moved = bucket[--counts[node.bucket]];
+    bucket[node.index] = moved;
+    moved.index = node.index;
+    bucket[counts[node.bucket]] = null;
+  }
+
+  private static final class Node implements Handle {
+    Node(Object element) {
+      this.element = element;
+    }
+
+    public Object element() {
+      return element;
+    }
+
+    public boolean isQueued() {
+      return queued;
+    }
+
+    final Object element;
+    long key;
+    int bucket;
+    int index;
+    boolean queued;
+  }
+
+  private final ObjectToLong priority;
+  private final Node[][] buckets = new Node[65][];
+  private final int[] counts = new int[65];
+  private long last = 0;
+  private int size = 0;
+}
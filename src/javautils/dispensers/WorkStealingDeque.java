@@ -0,0 +1,149 @@
+package javautils.dispensers;
+
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>A work-stealing deque for a single owner thread and any number of
+ * thief threads.</p>
+ *
+ * <p>The owner treats the deque as a LIFO stack: {@link #push push},
+ * {@link #pop pop}, {@link #poll poll} and {@link #drainTo drainTo} work
+ * at the bottom of the deque and must only be called by the owner. Other
+ * threads take the oldest elements from the top of the deque with {@link
+ * #steal steal}. This is the dynamic circular deque of Chase and Lev: the
+ * owner only synchronizes with thieves when they compete for the last
+ * element, and the circular array grows as needed.</p>
+ *
+ * <p>A typical use is one deque per worker thread in a scheduler, where a
+ * worker pushes new jobs to its own deque and steals from the other
+ * deques when its own deque is empty.</p>
+ */
+public final class WorkStealingDeque extends AbstractDispenser implements ConcurrentDispenser {
+  public WorkStealingDeque() {
+    this(INITIAL_CAPACITY);
+  }
+
+  /**
+   * <p>A new deque with room for at least <code>capacity</code> elements
+   * before it has to grow.</p>
+   */
+  public WorkStealingDeque(int capacity) {
+    int length = INITIAL_CAPACITY;
+    while (length <= capacity)
+      length <<= 1;
+    array = new AtomicReferenceArray(length);
+  }
+
+  public int size() {
+    long n = bottom - top.get();
+    return n < 0 ? 0 : (int)n;
+  }
+
+  public Object pop() {
+    Object element = poll();
+    if (null == element)
+      throw new NoSuchElementException();
+    return element;
+  }
+
+  /**
+   * <p>Removes and returns the most recently pushed element or returns
+   * <code>null</code> if the deque is empty. Must only be called by the
+   * owner.</p>
+   */
+  public Object poll() {
+    long b = bottom - 1;
+    AtomicReferenceArray a = array;
+    bottom = b;
+
+    long t = top.get();
+    if (b < t) {
+      bottom = t;
+      return null;
+    }
+
+    int i = (int)b & (a.length() - 1);
+    Object element = a.get(i);
+    if (t < b) {
+      a.set(i, null);
+      return element;
+    }
+
+    // The last element: compete with the thieves for it.
+    if (top.compareAndSet(t, t + 1))
+      a.set(i, null);
+    else
+      element = null;
+    bottom = t + 1;
+    return element;
+  }
+
+  /**
+   * <p>Pushes an element to the bottom of the deque. Must only be called
+   * by the owner.</p>
+   */
+  public void push(Object element) {
+    assert null != element;
+
+    long b = bottom;
+    long t = top.get();
+    AtomicReferenceArray a = array;
+
+    if (a.length() - 1 <= b - t)
+      a = grow(a, t, b);
+    a.set((int)b & (a.length() - 1), element);
+    bottom = b + 1;
+  }
+
+  /**
+   * <p>Removes and returns the least recently pushed element or returns
+   * <code>null</code> if the deque is empty. May be called by any
+   * thread.</p>
+   */
+  public Object steal() {
+    for (;;) {
+      long t = top.get();
+      long b = bottom;
+      AtomicReferenceArray a = array;
+
+      if (b <= t)
+        return null;
+
+      Object element = a.get((int)t & (a.length() - 1));
+      if (top.compareAndSet(t, t + 1))
+        return element;
+    }
+  }
+
+  /**
+   * <p>Pops all elements in LIFO order. Must only be called by the
+   * owner.</p>
+   */
+  public int drainTo(Collection c) {
+    int n = 0;
+    for (Object element; null != (element = poll()); ++n)
+      c.add(element);
+    return n;
+  }
+
+  private AtomicReferenceArray grow(AtomicReferenceArray a, long t, long b) {
+    AtomicReferenceArray grown = new AtomicReferenceArray(a.length() * 2);
+    for (long i=t; i<b; ++i)
+      grown.set((int)i & (grown.length() - 1), a.get((int)i & (a.length() - 1)));
+    array = grown;
+    return grown;
+  }
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  // Only the owner writes the bottom and the array, thieves advance the
+  // top. Stolen slots keep their element until the owner overwrites
+  // them, because a thief cannot clear a slot without racing with the
+  // owner.
+  private volatile long bottom;
+  private final AtomicLong top = new AtomicLong();
+  private volatile AtomicReferenceArray array;
+}
@@ -0,0 +1,97 @@
+package javautils.dispensers;
+
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link WorkStealingDeque}.</p>
+ */
+public class WorkStealingDequeTest extends TestCase {
+
+  private static final int THIEVES = 3;
+  private static final int ELEMENTS = 200000;
+
+  /**
+   * <p>Tests that the owner pops the most recently pushed element and
+   * thieves steal the least recently pushed one.</p>
+   */
+  public void testOwnerIsLifoAndThievesAreFifo() {
+    WorkStealingDeque deque = new WorkStealingDeque(2);
+    for (int i=0; i<100; ++i)
+      deque.push(new Integer(i));
+
+    assertEquals(100, deque.size());
+    assertEquals(new Integer(0), deque.steal());
+    assertEquals(new Integer(99), deque.pop());
+    assertEquals(new Integer(1), deque.steal());
+
+    List rest = new ArrayList();
+    assertEquals(97, deque.drainTo(rest));
+    assertEquals(new Integer(98), rest.get(0));
+    assertEquals(new Integer(2), rest.get(96));
+    assertNull(deque.poll());
+    assertNull(deque.steal());
+  }
+
+  /**
+   * <p>Tests that elements pushed and popped by the owner while thieves
+   * steal are all taken exactly once.</p>
+   */
+  public void testConcurrentStealing() throws Exception {
+    final WorkStealingDeque deque = new WorkStealingDeque();
+    final boolean[] done = {false};
+    final List[] stolen = new List[THIEVES];
+    Thread[] thieves = new Thread[THIEVES];
+
+    for (int t=0; t<THIEVES; ++t) {
+      final List mine = stolen[t] = new ArrayList();
+      thieves[t] = new Thread() {
+          public void run() {
+            for (;;) {
+              Object element = deque.steal();
+              if (null != element)
+                mine.add(element);
+              else
+                synchronized (done) {
+                  if (done[0])
+                    return;
+                }
+            }
+          }};
+      thieves[t].start();
+    }
+
+    List popped = new ArrayList();
+    for (int i=0; i<ELEMENTS; ++i) {
+      deque.push(new Integer(i));
+      if (i % 3 == 0) {
+        Object element = deque.poll();
+        if (null != element)
+          popped.add(element);
+      }
+    }
+    deque.drainTo(popped);
+    synchronized (done) {
+      done[0] = true;
+    }
+    for (int t=0; t<THIEVES; ++t)
+      thieves[t].join();
+
+    boolean[] seen = new boolean[ELEMENTS];
+    int n = mark(seen, popped);
+    for (int t=0; t<THIEVES; ++t)
+      n += mark(seen, stolen[t]);
+    assertEquals(ELEMENTS, n);
+  }
+
+  private static int mark(boolean[] seen, List elements) {
+    for (int i=0; i<elements.size(); ++i) {
+      int element = ((Integer)elements.get(i)).intValue();
+      assertFalse(seen[element]);
+      seen[element] = true;
+    }
+    return elements.size();
+  }
+}
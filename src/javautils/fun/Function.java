@@ -1,6 +1,8 @@
 package javautils.fun;
 
 import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
 import javautils.Classes;
 import javautils.Exceptions;
 
@@ -33,14 +35,37 @@ public class Function {
    */
   protected Function() {
     this.self = this;
+    this.method = withMethodOf(getClass());
+  }
+
+  /**
+   * <p>The public <code>with()</code>-method of the class. The method is
+   * looked up only once per class, because looking up methods is
+   * relatively expensive and functions are often created in loops.</p>
+   */
+  private static Method withMethodOf(Class cls) {
+    Method result = (Method)classToWithMethodMap.get(cls);
 
-    Method[] methods = getClass().getMethods();
+    if (null == result) {
+      result = findWithMethod(cls);
+
+      // The map is copied on write, so that lookups need no locking.
+      synchronized (Function.class) {
+        Map newClassToWithMethodMap = new HashMap(classToWithMethodMap);
+        newClassToWithMethodMap.put(cls, result);
+        classToWithMethodMap = newClassToWithMethodMap;
+      }
+    }
+    return result;
+  }
+
+  private static Method findWithMethod(Class cls) {
+    Method[] methods = cls.getMethods();
 
     for (int i=0; i<methods.length; ++i) {
       if ("with".equals(methods[i].getName())) {
-        this.method = methods[i];
-        this.method.setAccessible(true);
-        return;
+        methods[i].setAccessible(true);
+        return methods[i];
       }
     }
     throw new RuntimeException("No public `with()' method defined in the derived Function class.");
@@ -85,6 +110,10 @@ public class Function {
    *
    * <p>Any checked exceptions thrown by the bound method will be thrown
    * wrapped inside {@link java.lang.RuntimeException}-exceptions.</p>
+   *
+   * <p>The typed function classes, such as {@link ObjectToObject},
+   * override this method to call their <code>with()</code>-method
+   * directly instead of through reflection.</p>
    */
   public Object invoke(Object[] args) {
     try {
@@ -110,4 +139,6 @@ public class Function {
 
   private final Object self;
   private final Method method;
+
+  private static volatile Map classToWithMethodMap = new HashMap();
 }
@@ -0,0 +1,58 @@
+package javautils.fun;
+
+import java.lang.reflect.Method;
+import javautils.Classes;
+import javautils.Exceptions;
+import javautils.Objects;
+
+/**
+ * <p><code>int->int</code> function.</p>
+ */
+public abstract class IntToInt extends Function {
+  public abstract int with(int _0);
+
+  /**
+   * <p>Calls {@link #with(int)} directly instead of through
+   * reflection.</p>
+   */
+  public Object invoke(Object[] args) {
+    return Objects.asObject(with(((Number)args[0]).intValue()));
+  }
+
+  /**
+   * <p>A wrapper that calls the given arbitrary function.</p>
+   *
+   * <p><b>Note</b>:</p>
+   * <ul>
+   * <li>Careless wrapping and use of arbitrary functions may lead to
+   * run-time type errors.</li>
+   * <li>The dynamic invocation performed by the created wrapper will be
+   * slower than direct invocation of the original {@link Function}
+   * object.</li>
+   * </ul>
+   */
+  public static IntToInt from(final Function f) {
+    return f instanceof IntToInt
+      ? (IntToInt)f
+      : bindSelf(f.getMethod(), f.getSelf());
+  }
+
+  /**
+   * <p>A wrapper that calls the given arbitrary method on the given
+   * object with the parameter given to the {@link #with(int)}-method
+   * of the wrapper.</p>
+   */
+  public static IntToInt bindSelf(final Method method, final Object self) {
+    assert 1 == method.getParameterTypes().length;
+    assert Classes.asObjectType(method.getReturnType()).equals(Integer.class);
+    method.setAccessible(true);
+    return new IntToInt() {
+        public int with(int _0) {
+          try {
+            return ((Integer)method.invoke(self, new Object[]{Objects.asObject(_0)})).intValue();
+          } catch (Exception e) {
+            throw Exceptions.toThrowUnchecked(e);
+          }
+        }};
+  }
+}
@@ -0,0 +1,58 @@
+package javautils.fun;
+
+import java.lang.reflect.Method;
+import javautils.Classes;
+import javautils.Exceptions;
+import javautils.Objects;
+
+/**
+ * <p><code>int->int->int</code> function.</p>
+ */
+public abstract class IntToIntToInt extends Function {
+  public abstract int with(int _0, int _1);
+
+  /**
+   * <p>Calls {@link #with(int,int)} directly instead of through
+   * reflection.</p>
+   */
+  public Object invoke(Object[] args) {
+    return Objects.asObject(with(((Number)args[0]).intValue(), ((Number)args[1]).intValue()));
+  }
+
+  /**
+   * <p>A wrapper that calls the given arbitrary function.</p>
+   *
+   * <p><b>Note</b>:</p>
+   * <ul>
+   * <li>Careless wrapping and use of arbitrary functions may lead to
+   * run-time type errors.</li>
+   * <li>The dynamic invocation performed by the created wrapper will be
+   * slower than direct invocation of the original {@link Function}
+   * object.</li>
+   * </ul>
+   */
+  public static IntToIntToInt from(final Function f) {
+    return f instanceof IntToIntToInt
+      ? (IntToIntToInt)f
+      : bindSelf(f.getMethod(), f.getSelf());
+  }
+
+  /**
+   * <p>A wrapper that calls the given arbitrary method on the given
+   * object with the parameters given to the {@link #with(int,int)}-method
+   * of the wrapper.</p>
+   */
+  public static IntToIntToInt bindSelf(final Method method, final Object self) {
+    assert 2 == method.getParameterTypes().length;
+    assert Classes.asObjectType(method.getReturnType()).equals(Integer.class);
+    method.setAccessible(true);
+    return new IntToIntToInt() {
+        public int with(int _0, int _1) {
+          try {
+            return ((Integer)method.invoke(self, new Object[]{Objects.asObject(_0),Objects.asObject(_1)})).intValue();
+          } catch (Exception e) {
+            throw Exceptions.toThrowUnchecked(e);
+          }
+        }};
+  }
+}
@@ -0,0 +1,57 @@
+package javautils.fun;
+
+import java.lang.reflect.Method;
+import javautils.Exceptions;
+import javautils.Objects;
+
+/**
+ * <p><code>int->void</code> procedure.</p>
+ */
+public abstract class IntToVoid extends Function {
+  public abstract void with(int _0);
+
+  /**
+   * <p>Calls {@link #with(int)} directly instead of through
+   * reflection.</p>
+   */
+  public Object invoke(Object[] args) {
+    with(((Number)args[0]).intValue());
+    return null;
+  }
+
+  /**
+   * <p>A wrapper that calls the given arbitrary function.</p>
+   *
+   * <p><b>Note</b>:</p>
+   * <ul>
+   * <li>Careless wrapping and use of arbitrary functions may lead to
+   * run-time type errors.</li>
+   * <li>The dynamic invocation performed by the created wrapper will be
+   * slower than direct invocation of the original {@link Function}
+   * object.</li>
+   * </ul>
+   */
+  public static IntToVoid from(final Function f) {
+    return f instanceof IntToVoid
+      ? (IntToVoid)f
+      : bindSelf(f.getMethod(), f.getSelf());
+  }
+
+  /**
+   * <p>A wrapper that calls the given arbitrary method on the given
+   * object with the parameter given to the {@link #with(int)}-method
+   * of the wrapper.</p>
+   */
+  public static IntToVoid bindSelf(final Method method, final Object self) {
+    assert 1 == method.getParameterTypes().length;
+    method.setAccessible(true);
+    return new IntToVoid() {
+        public void with(int _0) {
+          try {
+            method.invoke(self, new Object[]{Objects.asObject(_0)});
+          } catch (Exception e) {
+            throw Exceptions.toThrowUnchecked(e);
+          }
+        }};
+  }
+}
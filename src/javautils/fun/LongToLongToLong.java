@@ -0,0 +1,58 @@
+package javautils.fun;
+
+import java.lang.reflect.Method;
+import javautils.Classes;
+import javautils.Exceptions;
+import javautils.Objects;
+
+/**
+ * <p><code>long->long->long</code> function.</p>
+ */
+public abstract class LongToLongToLong extends Function {
+  public abstract long with(long _0, long _1);
+
+  /**
+   * <p>Calls {@link #with(long,long)} directly instead of through
+   * reflection.</p>
+   */
+  public Object invoke(Object[] args) {
+    return Objects.asObject(with(((Number)args[0]).longValue(), ((Number)args[1]).longValue()));
+  }
+
+  /**
+   * <p>A wrapper that calls the given arbitrary function.</p>
+   *
+   * <p><b>Note</b>:</p>
+   * <ul>
+   * <li>Careless wrapping and use of arbitrary functions may lead to
+   * run-time type errors.</li>
+   * <li>The dynamic invocation performed by the created wrapper will be
+   * slower than direct invocation of the original {@link Function}
+   * object.</li>
+   * </ul>
+   */
+  public static LongToLongToLong from(final Function f) {
+    return f instanceof LongToLongToLong
+      ? (LongToLongToLong)f
+      : bindSelf(f.getMethod(), f.getSelf());
+  }
+
+  /**
+   * <p>A wrapper that calls the given arbitrary method on the given
+   * object with the parameters given to the {@link #with(long,long)}-method
+   * of the wrapper.</p>
+   */
+  public static LongToLongToLong bindSelf(final Method method, final Object self) {
+    assert 2 == method.getParameterTypes().length;
+    assert Classes.asObjectType(method.getReturnType()).equals(Long.class);
+    method.setAccessible(true);
+    return new LongToLongToLong() {
+        public long with(long _0, long _1) {
+          try {
+            return ((Long)method.invoke(self, new Object[]{Objects.asObject(_0),Objects.asObject(_1)})).longValue();
+          } catch (Exception e) {
+            throw Exceptions.toThrowUnchecked(e);
+          }
+        }};
+  }
+}
@@ -3,6 +3,7 @@ package javautils.fun;
 import java.lang.reflect.Method;
 import javautils.Classes;
 import javautils.Exceptions;
+import javautils.Objects;
 
 /**
  * <p><code>Object->boolean</code> function.</p>
@@ -10,6 +11,14 @@ import javautils.Exceptions;
 public abstract class ObjectToBoolean extends Function {
   public abstract boolean with(Object _0);
 
+  /**
+   * <p>Calls {@link #with(Object)} directly instead of through
+   * reflection.</p>
+   */
+  public Object invoke(Object[] args) {
+    return Objects.asObject(with(args[0]));
+  }
+
   /**
    * <p>A wrapper that calls the given arbitrary function.</p>
    *
@@ -19,13 +28,23 @@ public abstract class ObjectToBoolean extends Function {
    * run-time type errors.</li>
    * <li>The dynamic invocation performed by the created wrapper will be
    * slower than direct invocation of the original {@link Function}
-   * object.</li>
+   * object. A typed function with a compatible signature, {@link
+   * ObjectToObject}, is called directly.</li>
    * </ul>
    */
   public static ObjectToBoolean from(final Function f) {
-    return f instanceof ObjectToBoolean
-      ? (ObjectToBoolean)f
-      : bindSelf(f.getMethod(), f.getSelf());
+    if (f instanceof ObjectToBoolean)
+      return (ObjectToBoolean)f;
+
+    if (f instanceof ObjectToObject) {
+      final ObjectToObject fn = (ObjectToObject)f;
+      return new ObjectToBoolean() {
+          public boolean with(Object _0) {
+            return ((Boolean)fn.with(_0)).booleanValue();
+          }};
+    }
+
+    return bindSelf(f.getMethod(), f.getSelf());
   }
 
   /**
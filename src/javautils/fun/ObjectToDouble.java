@@ -0,0 +1,58 @@
+package javautils.fun;
+
+import java.lang.reflect.Method;
+import javautils.Classes;
+import javautils.Exceptions;
+import javautils.Objects;
+
+/**
+ * <p><code>Object->double</code> function.</p>
+ */
+public abstract class ObjectToDouble extends Function {
+  public abstract double with(Object _0);
+
+  /**
+   * <p>Calls {@link #with(Object)} directly instead of through
+   * reflection.</p>
+   */
+  public Object invoke(Object[] args) {
+    return Objects.asObject(with(args[0]));
+  }
+
+  /**
+   * <p>A wrapper that calls the given arbitrary function.</p>
+   *
+   * <p><b>Note</b>:</p>
+   * <ul>
+   * <li>Careless wrapping and use of arbitrary functions may lead to
+   * run-time type errors.</li>
+   * <li>The dynamic invocation performed by the created wrapper will be
+   * slower than direct invocation of the original {@link Function}
+   * object.</li>
+   * </ul>
+   */
+  public static ObjectToDouble from(final Function f) {
+    return f instanceof ObjectToDouble
+      ? (ObjectToDouble)f
+      : bindSelf(f.getMethod(), f.getSelf());
+  }
+
+  /**
+   * <p>A wrapper that calls the given arbitrary method on the given
+   * object with the parameter given to the {@link #with(Object)}-method
+   * of the wrapper.</p>
+   */
+  public static ObjectToDouble bindSelf(final Method method, final Object self) {
+    assert 1 == method.getParameterTypes().length;
+    assert Classes.asObjectType(method.getReturnType()).equals(Double.class);
+    method.setAccessible(true);
+    return new ObjectToDouble() {
+        public double with(Object _0) {
+          try {
+            return ((Double)method.invoke(self, new Object[]{_0})).doubleValue();
+          } catch (Exception e) {
+            throw Exceptions.toThrowUnchecked(e);
+          }
+        }};
+  }
+}
@@ -0,0 +1,58 @@
+package javautils.fun;
+
+import java.lang.reflect.Method;
+import javautils.Classes;
+import javautils.Exceptions;
+import javautils.Objects;
+
+/**
+ * <p><code>Object->long</code> function.</p>
+ */
+public abstract class ObjectToLong extends Function {
+  public abstract long with(Object _0);
+
+  /**
+   * <p>Calls {@link #with(Object)} directly instead of through
+   * reflection.</p>
+   */
+  public Object invoke(Object[] args) {
+    return Objects.asObject(with(args[0]));
+  }
+
+  /**
+   * <p>A wrapper that calls the given arbitrary function.</p>
+   *
+   * <p><b>Note</b>:</p>
+   * <ul>
+   * <li>Careless wrapping and use of arbitrary functions may lead to
+   * run-time type errors.</li>
+   * <li>The dynamic invocation performed by the created wrapper will be
+   * slower than direct invocation of the original {@link Function}
+   * object.</li>
+   * </ul>
+   */
+  public static ObjectToLong from(final Function f) {
+    return f instanceof ObjectToLong
+      ? (ObjectToLong)f
+      : bindSelf(f.getMethod(), f.getSelf());
+  }
+
+  /**
+   * <p>A wrapper that calls the given arbitrary method on the given
+   * object with the parameter given to the {@link #with(Object)}-method
+   * of the wrapper.</p>
+   */
+  public static ObjectToLong bindSelf(final Method method, final Object self) {
+    assert 1 == method.getParameterTypes().length;
+    assert Classes.asObjectType(method.getReturnType()).equals(Long.class);
+    method.setAccessible(true);
+    return new ObjectToLong() {
+        public long with(Object _0) {
+          try {
+            return ((Long)method.invoke(self, new Object[]{_0})).longValue();
+          } catch (Exception e) {
+            throw Exceptions.toThrowUnchecked(e);
+          }
+        }};
+  }
+}
@@ -2,6 +2,7 @@ package javautils.fun;
 
 import java.lang.reflect.Method;
 import javautils.Exceptions;
+import javautils.Objects;
 
 /**
  * <p><code>Object->Object</code> function.</p>
@@ -9,6 +10,14 @@ import javautils.Exceptions;
 public abstract class ObjectToObject extends Function {
   public abstract Object with(Object _0);
 
+  /**
+   * <p>Calls {@link #with(Object)} directly instead of through
+   * reflection.</p>
+   */
+  public Object invoke(Object[] args) {
+    return with(args[0]);
+  }
+
   public static final ObjectToObject IDENTITY = new ObjectToObject() {
       public Object with(Object o) {
         return o;
@@ -23,13 +32,32 @@ public abstract class ObjectToObject extends Function {
    * run-time type errors.</li>
    * <li>The dynamic invocation performed by the created wrapper will be
    * slower than direct invocation of the original {@link Function}
-   * object.</li>
+   * object. A typed function with a compatible signature, {@link
+   * ObjectToBoolean} or {@link ObjectToVoid}, is called directly.</li>
    * </ul>
    */
   public static ObjectToObject from(final Function f) {
-    return f instanceof ObjectToObject
-      ? (ObjectToObject)f
-      : bindSelf(f.getMethod(), f.getSelf());
+    if (f instanceof ObjectToObject)
+      return (ObjectToObject)f;
+
+    if (f instanceof ObjectToBoolean) {
+      final ObjectToBoolean p = (ObjectToBoolean)f;
+      return new ObjectToObject() {
+          public Object with(Object _0) {
+            return Objects.asObject(p.with(_0));
+          }};
+    }
+
+    if (f instanceof ObjectToVoid) {
+      final ObjectToVoid p = (ObjectToVoid)f;
+      return new ObjectToObject() {
+          public Object with(Object _0) {
+            p.with(_0);
+            return null;
+          }};
+    }
+
+    return bindSelf(f.getMethod(), f.getSelf());
   }
 
   /**
@@ -3,6 +3,7 @@ package javautils.fun;
 import java.lang.reflect.Method;
 import javautils.Classes;
 import javautils.Exceptions;
+import javautils.Objects;
 
 /**
  * <p><code>Object->Object->boolean</code> function.</p>
@@ -10,6 +11,14 @@ import javautils.Exceptions;
 public abstract class ObjectToObjectToBoolean extends Function {
   public abstract boolean with(Object _0, Object _1);
 
+  /**
+   * <p>Calls {@link #with(Object,Object)} directly instead of through
+   * reflection.</p>
+   */
+  public Object invoke(Object[] args) {
+    return Objects.asObject(with(args[0], args[1]));
+  }
+
   /**
    * <p>A wrapper that calls the given arbitrary function.</p>
    *
@@ -19,13 +28,23 @@ public abstract class ObjectToObjectToBoolean extends Function {
    * run-time type errors.</li>
    * <li>The dynamic invocation performed by the created wrapper will be
    * slower than direct invocation of the original {@link Function}
-   * object.</li>
+   * object. A typed function with a compatible signature, {@link
+   * ObjectToObjectToObject}, is called directly.</li>
    * </ul>
    */
   public static ObjectToObjectToBoolean from(final Function f) {
-    return f instanceof ObjectToObjectToBoolean
-      ? (ObjectToObjectToBoolean)f
-      : bindSelf(f.getMethod(), f.getSelf());
+    if (f instanceof ObjectToObjectToBoolean)
+      return (ObjectToObjectToBoolean)f;
+
+    if (f instanceof ObjectToObjectToObject) {
+      final ObjectToObjectToObject fn = (ObjectToObjectToObject)f;
+      return new ObjectToObjectToBoolean() {
+          public boolean with(Object _0, Object _1) {
+            return ((Boolean)fn.with(_0, _1)).booleanValue();
+          }};
+    }
+
+    return bindSelf(f.getMethod(), f.getSelf());
   }
 
   /**
@@ -2,6 +2,7 @@ package javautils.fun;
 
 import java.lang.reflect.Method;
 import javautils.Exceptions;
+import javautils.Objects;
 
 /**
  * <p><code>Object->Object->Object</code> function.</p>
@@ -9,6 +10,14 @@ import javautils.Exceptions;
 public abstract class ObjectToObjectToObject extends Function {
   public abstract Object with(Object _0, Object _1);
 
+  /**
+   * <p>Calls {@link #with(Object,Object)} directly instead of through
+   * reflection.</p>
+   */
+  public Object invoke(Object[] args) {
+    return with(args[0], args[1]);
+  }
+
   /**
    * <p>A wrapper that calls the given arbitrary function.</p>
    *
@@ -18,13 +27,33 @@ public abstract class ObjectToObjectToObject extends Function {
    * run-time type errors.</li>
    * <li>The dynamic invocation performed by the created wrapper will be
    * slower than direct invocation of the original {@link Function}
-   * object.</li>
+   * object. A typed function with a compatible signature, {@link
+   * ObjectToObjectToBoolean} or {@link ObjectToObjectToVoid}, is called
+   * directly.</li>
    * </ul>
    */
   public static ObjectToObjectToObject from(final Function f) {
-    return f instanceof ObjectToObjectToObject
-      ? (ObjectToObjectToObject)f
-      : bindSelf(f.getMethod(), f.getSelf());
+    if (f instanceof ObjectToObjectToObject)
+      return (ObjectToObjectToObject)f;
+
+    if (f instanceof ObjectToObjectToBoolean) {
+      final ObjectToObjectToBoolean p = (ObjectToObjectToBoolean)f;
+      return new ObjectToObjectToObject() {
+          public Object with(Object _0, Object _1) {
+            return Objects.asObject(p.with(_0, _1));
+          }};
+    }
+
+    if (f instanceof ObjectToObjectToVoid) {
+      final ObjectToObjectToVoid p = (ObjectToObjectToVoid)f;
+      return new ObjectToObjectToObject() {
+          public Object with(Object _0, Object _1) {
+            p.with(_0, _1);
+            return null;
+          }};
+    }
+
+    return bindSelf(f.getMethod(), f.getSelf());
   }
 
   /**
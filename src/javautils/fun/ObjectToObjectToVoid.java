@@ -9,6 +9,15 @@ import javautils.Exceptions;
 public abstract class ObjectToObjectToVoid extends Function {
   public abstract void with(Object _0, Object _1);
 
+  /**
+   * <p>Calls {@link #with(Object,Object)} directly instead of through
+   * reflection.</p>
+   */
+  public Object invoke(Object[] args) {
+    with(args[0], args[1]);
+    return null;
+  }
+
   public static final ObjectToObjectToVoid NOP =
     new ObjectToObjectToVoid() {
       public void with(Object _0, Object _1) {
@@ -23,13 +32,32 @@ public abstract class ObjectToObjectToVoid extends Function {
    * run-time type errors.</li>
    * <li>The dynamic invocation performed by the created wrapper will be
    * slower than direct invocation of the original {@link Function}
-   * object.</li>
+   * object. A typed function with a compatible signature, {@link
+   * ObjectToObjectToObject} or {@link ObjectToObjectToBoolean}, is called
+   * directly.</li>
    * </ul>
    */
   public static ObjectToObjectToVoid from(final Function f) {
-    return f instanceof ObjectToObjectToVoid
-      ? (ObjectToObjectToVoid)f
-      : bindSelf(f.getMethod(), f.getSelf());
+    if (f instanceof ObjectToObjectToVoid)
+      return (ObjectToObjectToVoid)f;
+
+    if (f instanceof ObjectToObjectToObject) {
+      final ObjectToObjectToObject fn = (ObjectToObjectToObject)f;
+      return new ObjectToObjectToVoid() {
+          public void with(Object _0, Object _1) {
+            fn.with(_0, _1);
+          }};
+    }
+
+    if (f instanceof ObjectToObjectToBoolean) {
+      final ObjectToObjectToBoolean p = (ObjectToObjectToBoolean)f;
+      return new ObjectToObjectToVoid() {
+          public void with(Object _0, Object _1) {
+            p.with(_0, _1);
+          }};
+    }
+
+    return bindSelf(f.getMethod(), f.getSelf());
   }
 
   /**
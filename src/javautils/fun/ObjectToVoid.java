@@ -9,6 +9,15 @@ import javautils.Exceptions;
 public abstract class ObjectToVoid extends Function {
   public abstract void with(Object _0);
 
+  /**
+   * <p>Calls {@link #with(Object)} directly instead of through
+   * reflection.</p>
+   */
+  public Object invoke(Object[] args) {
+    with(args[0]);
+    return null;
+  }
+
   public static final ObjectToVoid NOP =
     new ObjectToVoid() {
       public void with(Object _0) {
@@ -23,13 +32,31 @@ public abstract class ObjectToVoid extends Function {
    * run-time type errors.</li>
    * <li>The dynamic invocation performed by the created wrapper will be
    * slower than direct invocation of the original {@link Function}
-   * object.</li>
+   * object. A typed function with a compatible signature, {@link
+   * ObjectToObject} or {@link ObjectToBoolean}, is called directly.</li>
    * </ul>
    */
   public static ObjectToVoid from(final Function f) {
-    return f instanceof ObjectToVoid
-      ? (ObjectToVoid)f
-      : bindSelf(f.getMethod(), f.getSelf());
+    if (f instanceof ObjectToVoid)
+      return (ObjectToVoid)f;
+
+    if (f instanceof ObjectToObject) {
+      final ObjectToObject fn = (ObjectToObject)f;
+      return new ObjectToVoid() {
+          public void with(Object _0) {
+            fn.with(_0);
+          }};
+    }
+
+    if (f instanceof ObjectToBoolean) {
+      final ObjectToBoolean p = (ObjectToBoolean)f;
+      return new ObjectToVoid() {
+          public void with(Object _0) {
+            p.with(_0);
+          }};
+    }
+
+    return bindSelf(f.getMethod(), f.getSelf());
   }
 
   /**
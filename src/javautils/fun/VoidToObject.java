@@ -5,4 +5,12 @@ package javautils.fun;
  */
 public abstract class VoidToObject extends Function {
   public abstract Object with();
+
+  /**
+   * <p>Calls {@link #with()} directly instead of through
+   * reflection.</p>
+   */
+  public Object invoke(Object[] args) {
+    return with();
+  }
 }
@@ -9,6 +9,15 @@ import javautils.Exceptions;
 public abstract class VoidToVoid extends Function {
   public abstract void with();
 
+  /**
+   * <p>Calls {@link #with()} directly instead of through
+   * reflection.</p>
+   */
+  public Object invoke(Object[] args) {
+    with();
+    return null;
+  }
+
   public static final VoidToVoid NOP =
     new VoidToVoid() {
       public void with() {
@@ -23,13 +32,23 @@ public abstract class VoidToVoid extends Function {
    * run-time type errors.</li>
    * <li>The dynamic invocation performed by the created wrapper will be
    * slower than direct invocation of the original {@link Function}
-   * object.</li>
+   * object. A typed function with a compatible signature, {@link
+   * VoidToObject}, is called directly.</li>
    * </ul>
    */
   public static VoidToVoid from(final Function f) {
-    return f instanceof VoidToVoid
-      ? (VoidToVoid)f
-      : bindSelf(f.getMethod(), f.getSelf());
+    if (f instanceof VoidToVoid)
+      return (VoidToVoid)f;
+
+    if (f instanceof VoidToObject) {
+      final VoidToObject fn = (VoidToObject)f;
+      return new VoidToVoid() {
+          public void with() {
+            fn.with();
+          }};
+    }
+
+    return bindSelf(f.getMethod(), f.getSelf());
   }
 
   /**
@@ -0,0 +1,324 @@
+package javautils.graph;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import javautils.Objects;
+import javautils.collections.Algs;
+import javautils.graph.adt.Graph;
+import javautils.graph.adt.IndexedGraph;
+import javautils.maps.ObjectToIntMap;
+
+/**
+ * <p>An immutable graph in compressed sparse row (CSR) form. Nodes are
+ * identified by dense <code>int</code>-indices <code>0..nodeCount()-1</code>
+ * and edges by dense <code>int</code>-indices
+ * <code>0..edgeCount()-1</code>. The edges from node <code>i</code> are
+ * the edges <code>offsets[i]..offsets[i+1]-1</code> and the target of
+ * edge <code>e</code> is the node <code>targets[e]</code>.</p>
+ *
+ * <p>Unlike most graphs in this library, a compressed graph does not
+ * store an object for each edge. The edge objects returned by {@link
+ * #edgesFrom edgesFrom} are small {@link Edge}-handles that are created
+ * on demand and compared by edge index. Two handles are equal if and
+ * only if they denote the same edge index, so edge objects of different
+ * compressed graphs should not be mixed.</p>
+ *
+ * <p>The list returned by {@link #edgesFrom(int) edgesFrom} is created
+ * once per node and kept, but each <code>get</code> creates a new
+ * handle. Code that visits many edges, and needs only their targets or
+ * indices, should loop from {@link #edgesBegin edgesBegin} to {@link
+ * #edgesEnd edgesEnd} and use {@link #targetIndexOf targetIndexOf}
+ * instead, which allocates nothing.</p>
+ *
+ * <p>Optionally, each edge may also carry a client specified
+ * <code>int</code>-identifier, see {@link #edgeIdOf(int)}.</p>
+ */
+public final class CsrGraph implements IndexedGraph {
+
+  /**
+   * <p>A compressed version of the given graph. If the graph is already
+   * compressed, the same graph will be returned.</p>
+   *
+   * <p>The nodes of the compressed graph are the node objects of the
+   * given graph, indexed in the order of {@link Graph#nodes}. The edges
+   * from each node are indexed in the order of {@link
+   * Graph#edgesFrom}.</p>
+   */
+  public static CsrGraph from(Graph graph) {
+    if (graph instanceof CsrGraph)
+      return (CsrGraph)graph;
+
+    Object[] nodes = graph.nodes().toArray();
+    ObjectToIntMap nodeToIndexMap = indexMap(nodes);
+
+    int[] offsets = new int[nodes.length + 1];
+    for (int i=0; i<nodes.length; ++i)
+      offsets[i+1] = offsets[i] + graph.edgesFrom(nodes[i]).size();
+
+    int[] targets = new int[offsets[nodes.length]];
+    for (int i=0; i<nodes.length; ++i) {
+      int e = offsets[i];
+      for (Iterator edges = graph.edgesFrom(nodes[i]).iterator(); edges.hasNext(); ++e)
+        targets[e] = nodeToIndexMap.get(graph.targetOf(edges.next()));
+    }
+
+    return new CsrGraph(nodes, nodeToIndexMap, offsets, targets, null);
+  }
+
+  /**
+   * <p>A new compressed graph with the given nodes and adjacency
+   * structure. The arrays are used as such and must not be modified
+   * afterwards.</p>
+   */
+  public CsrGraph(Object[] nodes, int[] offsets, int[] targets) {
+    this(nodes, offsets, targets, null);
+  }
+
+  /**
+   * <p>A new compressed graph with the given nodes, adjacency structure
+   * and edge identifiers. The edge identifiers may be <code>null</code>,
+   * in which case the identifier of each edge is its index. The arrays
+   * are used as such and must not be modified afterwards.</p>
+   */
+  public CsrGraph(Object[] nodes, int[] offsets, int[] targets, int[] edgeIds) {
+    this(nodes, indexMap(nodes), offsets, targets, edgeIds);
+  }
+
+  private CsrGraph(Object[] nodes,
+                   ObjectToIntMap nodeToIndexMap,
+                   int[] offsets,
+                   int[] targets,
+                   int[] edgeIds) {
+    assert nodes.length + 1 == offsets.length;
+    assert 0 == offsets[0] && targets.length == offsets[nodes.length];
+    assert null == edgeIds || targets.length == edgeIds.length;
+    assert nodes.length == nodeToIndexMap.size() : "Duplicate nodes.";
+
+    this.nodes = nodes;
+    this.nodeList = Algs.asUnmodifiableList(nodes);
+    this.nodeToIndexMap = nodeToIndexMap;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.edgeIds = edgeIds;
+    this.edgeLists = new List[nodes.length];
+
+    assert invariant();
+  }
+
+  private boolean invariant() {
+    for (int i=0; i<nodes.length; ++i)
+      if (offsets[i+1] < offsets[i])
+        return false;
+    for (int e=0; e<targets.length; ++e)
+      if (targets[e] < 0 || nodes.length <= targets[e])
+        return false;
+    return true;
+  }
+
+  private static ObjectToIntMap indexMap(Object[] nodes) {
+    ObjectToIntMap result = new ObjectToIntMap();
+    for (int i=0; i<nodes.length; ++i)
+      result.put(nodes[i], i);
+    return result;
+  }
+
+  /**
+   * <p>A handle to an edge of a compressed graph.</p>
+   */
+  public static final class Edge {
+    Edge(int source, int index) {
+      this.source = source;
+      this.index = index;
+    }
+
+    public int hashCode() {
+      return Objects.rotateLeft(index, 32-5) ^ "CsrGraph.Edge".hashCode();
+    }
+
+    public boolean equals(Object other) {
+      return other instanceof Edge && this.index == ((Edge)other).index;
+    }
+
+    public String toString() {
+      return "#" + index;
+    }
+
+    /**
+     * <p>The index of the source node of the edge.</p>
+     */
+    public final int source;
+
+    /**
+     * <p>The index of the edge.</p>
+     */
+    public final int index;
+  }
+
+  public List nodes() {
+    return nodeList;
+  }
+
+  public List edgesFrom(Object node) {
+    assert isNode(node);
+    return edgesFrom(indexOf(node));
+  }
+
+  /**
+   * <p>List of all edges from the node with the specified index. The
+   * list is created on the first call for the node.</p>
+   */
+  public List edgesFrom(int node) {
+    List result = edgeLists[node];
+    if (null == result)
+      edgeLists[node] = result = newEdgeList(node);
+    return result;
+  }
+
+  /**
+   * <p>A view of the edges from the node. The view only has final fields,
+   * so it can be shared between threads without synchronization.</p>
+   */
+  private List newEdgeList(final int node) {
+    final int begin = offsets[node];
+    final int size = offsets[node+1] - begin;
+
+    return new AbstractList() {
+        public Object get(int i) {
+          if (i < 0 || size <= i)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+          return new Edge(node, begin + i);
+        }
+
+        public int size() {
+          return size;
+        }
+      };
+  }
+
+  public Object sourceOf(Object edge) {
+    return nodes[((Edge)edge).source];
+  }
+
+  public Object targetOf(Object edge) {
+    return nodes[targets[((Edge)edge).index]];
+  }
+
+  /**
+   * <p>True if and only if the object is a node of this graph.</p>
+   */
+  public boolean isNode(Object obj) {
+    return nodeToIndexMap.containsKey(obj);
+  }
+
+  /**
+   * <p>The number of nodes in this graph.</p>
+   */
+  public int nodeCount() {
+    return nodes.length;
+  }
+
+  /**
+   * <p>The number of edges in this graph.</p>
+   */
+  public int edgeCount() {
+    return targets.length;
+  }
+
+  /**
+   * <p>The node with the specified index.</p>
+   */
+  public Object node(int index) {
+    return nodes[index];
+  }
+
+  /**
+   * <p>The index of the node or <code>-1</code> if the object is not a
+   * node of this graph.</p>
+   */
+  public int indexOf(Object node) {
+    return nodeToIndexMap.getOr(node, -1);
+  }
+
+  /**
+   * <p>The index of the first edge from the specified node.</p>
+   */
+  public int edgesBegin(int node) {
+    return offsets[node];
+  }
+
+  /**
+   * <p>The index just past the last edge from the specified node.</p>
+   */
+  public int edgesEnd(int node) {
+    return offsets[node+1];
+  }
+
+  /**
+   * <p>The edge with the specified index.</p>
+   */
+  public Object edge(int edge) {
+    return new Edge(sourceIndexOf(edge), edge);
+  }
+
+  public Object edge(int source, int edge) {
+    assert edgesBegin(source) <= edge && edge < edgesEnd(source);
+    return new Edge(source, edge);
+  }
+
+  /**
+   * <p>The index of the edge.</p>
+   */
+  public int indexOfEdge(Object edge) {
+    return ((Edge)edge).index;
+  }
+
+  /**
+   * <p>The index of the source node of the specified edge. This takes
+   * <code>O(log N)</code> time, because source nodes are not stored.</p>
+   */
+  public int sourceIndexOf(int edge) {
+    assert 0 <= edge && edge < targets.length;
+
+    int lo = 0;
+    int hi = nodes.length - 1;
+
+    while (lo < hi) {
+      int mid = (lo + hi + 1) >>> 1;
+      if (offsets[mid] <= edge)
+        lo = mid;
+      else
+        hi = mid - 1;
+    }
+    return lo;
+  }
+
+  /**
+   * <p>The index of the target node of the specified edge.</p>
+   */
+  public int targetIndexOf(int edge) {
+    return targets[edge];
+  }
+
+  /**
+   * <p>The identifier of the specified edge.</p>
+   */
+  public int edgeIdOf(int edge) {
+    return null != edgeIds ? edgeIds[edge] : edge;
+  }
+
+  /**
+   * <p>The identifier of the edge.</p>
+   */
+  public int edgeIdOf(Object edge) {
+    return edgeIdOf(indexOfEdge(edge));
+  }
+
+  private final Object[] nodes;
+  private final List nodeList;
+  private final ObjectToIntMap nodeToIndexMap;
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] edgeIds;
+  private final List[] edgeLists;
+}
@@ -0,0 +1,490 @@
+package javautils.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javautils.collections.Algs;
+import javautils.graph.adt.AugmentedGraph;
+import javautils.graph.adt.Graph;
+import javautils.maps.ObjectToIntMap;
+
+/**
+ * <p>A mutable graph that publishes immutable {@link Snapshot snapshots}
+ * and maintains its strongly connected components in topological order
+ * as edges are added and removed.</p>
+ *
+ * <p>The edges from and to each node, and both together for the {@link
+ * Snapshot#undirected undirected} view, are kept in immutable lists that
+ * are replaced when an edge is added or removed, so a snapshot only
+ * copies the maps from nodes to their lists. The snapshot is cached until
+ * the next change.</p>
+ *
+ * <p>Components are kept in a topological order that is repaired after
+ * each added edge by the algorithm of Pearce and Kelly [<a
+ * href="{@docRoot}/overview-summary.html#[Pearce2006]">Pearce2006</a>]:
+ * only the components whose position lies between the ends of the new
+ * edge are searched and reordered. If the edge closes a cycle, the
+ * components on the cycle are merged. Removing an edge within a component
+ * recomputes the components of that component only. Merging and splitting
+ * components take additional time linear in the number of components to
+ * renumber the order.</p>
+ *
+ * <p>The edge objects are {@link Edge}s created by the graph. This class
+ * is not thread-safe, but snapshots can be shared between threads.</p>
+ */
+public final class DynamicGraph implements GraphBuilder {
+
+  /**
+   * <p>An edge of a dynamic graph. Edges are compared by identity, so an
+   * edge that is removed and added again is a new edge.</p>
+   */
+  public static final class Edge {
+    Edge(Object source, Object target, Object id) {
+      this.source = source;
+      this.target = target;
+      this.id = id;
+    }
+
+    public String toString() {
+      return String.valueOf(id);
+    }
+
+    /**
+     * <p>The source node.</p>
+     */
+    public final Object source;
+
+    /**
+     * <p>The target node.</p>
+     */
+    public final Object target;
+
+    /**
+     * <p>The identifier given when the edge was added.</p>
+     */
+    public final Object id;
+  }
+
+  /**
+   * <p>An immutable snapshot of a dynamic graph.</p>
+   */
+  public static final class Snapshot implements AugmentedGraph {
+    Snapshot(DynamicGraph graph) {
+      nodes = Algs.newUnmodifiableList(graph.nodes);
+      outEdges = new HashMap(graph.outEdges);
+      inEdges = new HashMap(graph.inEdges);
+      undirectedEdges = new HashMap(graph.undirectedEdges);
+
+      List components = new ArrayList(graph.order.size());
+      for (int i=0; i<graph.order.size(); ++i)
+        components.add(Algs.newUnmodifiableList(((Component)graph.order.get(i)).members));
+      this.components = Collections.unmodifiableList(components);
+    }
+
+    public List nodes() {
+      return nodes;
+    }
+
+    public List edgesFrom(Object node) {
+      return (List)outEdges.get(node);
+    }
+
+    public List edgesTo(Object node) {
+      return (List)inEdges.get(node);
+    }
+
+    public boolean isNode(Object obj) {
+      return outEdges.containsKey(obj);
+    }
+
+    public Object sourceOf(Object edge) {
+      return ((Edge)edge).source;
+    }
+
+    public Object targetOf(Object edge) {
+      return ((Edge)edge).target;
+    }
+
+    /**
+     * <p>The strongly connected components as a list of lists of nodes in
+     * topological order: no edge leads from a component to an earlier
+     * component.</p>
+     */
+    public List stronglyConnectedComponents() {
+      return components;
+    }
+
+    /**
+     * <p>The nodes of the graph, component by component in the order of
+     * {@link #stronglyConnectedComponents}. If the graph is acyclic, this
+     * is a topological order of the nodes.</p>
+     */
+    public List topologicalOrder() {
+      List result = new ArrayList(nodes.size());
+      for (int i=0; i<components.size(); ++i)
+        result.addAll((List)components.get(i));
+      return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * <p>An undirected view of the snapshot. The edges from a node are the
+     * edges from and to the node in the snapshot, in the order they were
+     * added, except that a self edge is only listed once. Like in {@link
+     * UndirectedGraph}, an edge to the node is seen reversed, so that its
+     * source is the node. The lists are maintained by the graph like the
+     * lists of the edges from and to each node.</p>
+     */
+    public Graph undirected() {
+      return new Graph() {
+          public List nodes() {
+            return nodes;
+          }
+
+          public List edgesFrom(Object node) {
+            return (List)undirectedEdges.get(node);
+          }
+
+          public Object sourceOf(Object edge) {
+            return edge instanceof Reversed ? ((Reversed)edge).edge.target : ((Edge)edge).source;
+          }
+
+          public Object targetOf(Object edge) {
+            return edge instanceof Reversed ? ((Reversed)edge).edge.source : ((Edge)edge).target;
+          }
+        };
+    }
+
+    private final List nodes;
+    private final Map outEdges;
+    private final Map inEdges;
+    private final Map undirectedEdges;
+    private final List components;
+  }
+
+  public void addNode(Object node) {
+    if (outEdges.containsKey(node))
+      return;
+
+    outEdges.put(node, Algs.EMPTY_LIST);
+    inEdges.put(node, Algs.EMPTY_LIST);
+    undirectedEdges.put(node, Algs.EMPTY_LIST);
+    nodes.add(node);
+
+    Component component = new Component(order.size());
+    component.members.add(node);
+    order.add(component);
+    componentOf.put(node, component);
+    snapshot = null;
+  }
+
+  /**
+   * <p>Adds an edge, and its source and target nodes if they are not in
+   * the graph. If there already is an edge with an equal identifier, no
+   * edge is added.</p>
+   */
+  public void addEdge(Object source, Object target, Object edgeID) {
+    if (edges.containsKey(edgeID))
+      return;
+
+    addNode(source);
+    addNode(target);
+
+    Edge edge = new Edge(source, target, edgeID);
+    edges.put(edgeID, edge);
+    outEdges.put(source, Graphs.listWith((List)outEdges.get(source), edge));
+    inEdges.put(target, Graphs.listWith((List)inEdges.get(target), edge));
+    undirectedEdges.put(source, Graphs.listWith((List)undirectedEdges.get(source), edge));
+    if (!source.equals(target))
+      undirectedEdges.put(target, Graphs.listWith((List)undirectedEdges.get(target), new Reversed(edge)));
+    snapshot = null;
+
+    addOrdered(componentOf(source), componentOf(target));
+  }
+
+  /**
+   * <p>Removes the edge with the identifier and returns true, or returns
+   * false if there is no such edge.</p>
+   */
+  public boolean removeEdge(Object edgeID) {
+    Edge edge = (Edge)edges.remove(edgeID);
+    if (null == edge)
+      return false;
+
+    outEdges.put(edge.source, Graphs.listWithout((List)outEdges.get(edge.source), edge));
+    inEdges.put(edge.target, Graphs.listWithout((List)inEdges.get(edge.target), edge));
+    undirectedEdges.put(edge.source, Graphs.listWithout((List)undirectedEdges.get(edge.source), edge));
+    if (!edge.source.equals(edge.target))
+      undirectedEdges.put(edge.target, Graphs.listWithout((List)undirectedEdges.get(edge.target), new Reversed(edge)));
+    snapshot = null;
+
+    Component component = componentOf(edge.source);
+    if (component == componentOf(edge.target) && 1 < component.members.size())
+      split(component);
+    return true;
+  }
+
+  /**
+   * <p>The node or {@link Edge} with the identifier, or <code>null</code>
+   * if there is no such node or edge.</p>
+   */
+  public Object object(Object id) {
+    return outEdges.containsKey(id) ? id : edges.get(id);
+  }
+
+  /**
+   * <p>An immutable snapshot of the current state of the graph.</p>
+   */
+  public Snapshot snapshot() {
+    if (null == snapshot)
+      snapshot = new Snapshot(this);
+    return snapshot;
+  }
+
+  /**
+   * <p>Restores the topological order of the components after adding an
+   * edge between them. The components reachable from the target and
+   * positioned at most at the source, and the components that reach the
+   * source and are positioned at least at the target, are searched. They
+   * are then reassigned their positions so that the latter come before the
+   * former. The components in both sets are on a cycle through the new
+   * edge and are merged between the two sets.</p>
+   */
+  private void addOrdered(Component from, Component to) {
+    if (from == to || from.ord < to.ord)
+      return;
+
+    Set forward = search(to, from.ord, true);
+    Set backward = search(from, to.ord, false);
+    List positions = new ArrayList();
+    List before = new ArrayList();
+    List after = new ArrayList();
+    List cycle = new ArrayList();
+
+    for (Iterator it = backward.iterator(); it.hasNext();) {
+      Component c = (Component)it.next();
+      positions.add(new Integer(c.ord));
+      (forward.contains(c) ? cycle : before).add(c);
+    }
+    for (Iterator it = forward.iterator(); it.hasNext();) {
+      Component c = (Component)it.next();
+      if (!backward.contains(c)) {
+        positions.add(new Integer(c.ord));
+        after.add(c);
+      }
+    }
+
+    Collections.sort(positions);
+    Collections.sort(before, BY_ORD);
+    Collections.sort(after, BY_ORD);
+    Collections.sort(cycle, BY_ORD);
+
+    int next = 0;
+    for (int i=0; i<before.size(); ++i)
+      place((Component)before.get(i), ((Integer)positions.get(next++)).intValue());
+
+    if (!cycle.isEmpty()) {
+      Component merged = new Component(((Integer)positions.get(next++)).intValue());
+      for (int i=0; i<cycle.size(); ++i) {
+        List members = ((Component)cycle.get(i)).members;
+        for (int j=0; j<members.size(); ++j)
+          componentOf.put(members.get(j), merged);
+        merged.members.addAll(members);
+      }
+      place(merged, merged.ord);
+
+      for (int i=positions.size()-after.size(); next<i; ++next)
+        order.set(((Integer)positions.get(next)).intValue(), null);
+    }
+
+    for (int i=0; i<after.size(); ++i)
+      place((Component)after.get(i), ((Integer)positions.get(next++)).intValue());
+
+    if (!cycle.isEmpty())
+      renumber(0);
+  }
+
+  /**
+   * <p>The components reachable from the start, forwards or backwards,
+   * through components positioned at most (forwards) or at least
+   * (backwards) at the bound.</p>
+   */
+  private Set search(Component start, int bound, boolean forwards) {
+    Set result = new HashSet();
+    List stack = new ArrayList();
+
+    result.add(start);
+    stack.add(start);
+    while (!stack.isEmpty()) {
+      List members = ((Component)stack.remove(stack.size() - 1)).members;
+      for (int i=0; i<members.size(); ++i) {
+        List edges = (List)(forwards ? outEdges : inEdges).get(members.get(i));
+        for (int j=0; j<edges.size(); ++j) {
+          Edge edge = (Edge)edges.get(j);
+          Component c = componentOf(forwards ? edge.target : edge.source);
+          if ((forwards ? c.ord <= bound : bound <= c.ord) && result.add(c))
+            stack.add(c);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * <p>Recomputes the components of the nodes of the component using
+   * Tarjan's algorithm on the edges within the component, and replaces the
+   * component by the new components in topological order.</p>
+   */
+  private void split(Component component) {
+    List members = component.members;
+    int n = members.size();
+    ObjectToIntMap index = new ObjectToIntMap(n);
+    int[] low = new int[n];
+    Object[] stack = new Object[n];
+    Object[] callNodes = new Object[n];
+    int[] callEdges = new int[n];
+    int stackSize = 0;
+    int callDepth = 0;
+    int discovered = 0;
+    Set assigned = new HashSet();
+    List parts = new ArrayList();
+
+    for (int r=0; r<n; ++r) {
+      Object root = members.get(r);
+      if (index.containsKey(root))
+        continue;
+
+      low[discovered] = discovered;
+      index.put(root, discovered++);
+      stack[stackSize++] = root;
+      callNodes[callDepth] = root;
+      callEdges[callDepth++] = 0;
+
+      while (0 < callDepth) {
+        Object node = callNodes[callDepth - 1];
+        int v = index.get(node);
+        List edges = (List)outEdges.get(node);
+        int e = callEdges[callDepth - 1];
+
+        if (e < edges.size()) {
+          callEdges[callDepth - 1] = e + 1;
+          Object target = ((Edge)edges.get(e)).target;
+          if (componentOf(target) != component)
+            continue;
+
+          if (!index.containsKey(target)) {
+            low[discovered] = discovered;
+            index.put(target, discovered++);
+            stack[stackSize++] = target;
+            callNodes[callDepth] = target;
+            callEdges[callDepth++] = 0;
+          } else if (!assigned.contains(target)) {
+            low[v] = Math.min(low[v], index.get(target));
+          }
+          continue;
+        }
+
+        --callDepth;
+        if (low[v] == v) {
+          Component part = new Component(0);
+          Object w;
+          do {
+            w = stack[--stackSize];
+            assigned.add(w);
+            part.members.add(w);
+          } while (w != node);
+          Collections.reverse(part.members);
+          parts.add(part);
+        }
+        if (0 < callDepth) {
+          int u = index.get(callNodes[callDepth - 1]);
+          low[u] = Math.min(low[u], low[v]);
+        }
+      }
+    }
+
+    if (1 == parts.size())
+      return;
+
+    Collections.reverse(parts);
+    for (int i=0; i<parts.size(); ++i) {
+      List partMembers = ((Component)parts.get(i)).members;
+      for (int j=0; j<partMembers.size(); ++j)
+        componentOf.put(partMembers.get(j), parts.get(i));
+    }
+    order.remove(component.ord);
+    order.addAll(component.ord, parts);
+    renumber(component.ord);
+  }
+
+  private void place(Component component, int ord) {
+    component.ord = ord;
+    order.set(ord, component);
+  }
+
+  /**
+   * <p>Removes the empty positions from the order and renumbers the
+   * components from the given position on.</p>
+   */
+  private void renumber(int from) {
+    order.removeAll(Collections.singleton(null));
+    for (int i=from; i<order.size(); ++i)
+      ((Component)order.get(i)).ord = i;
+  }
+
+  private Component componentOf(Object node) {
+    return (Component)componentOf.get(node);
+  }
+
+  /**
+   * <p>A strongly connected component and its position in the
+   * topological order.</p>
+   */
+  private static final class Component {
+    Component(int ord) {
+      this.ord = ord;
+    }
+
+    int ord;
+    final List members = new ArrayList();
+  }
+
+  /**
+   * <p>An edge seen from its target in an undirected view.</p>
+   */
+  private static final class Reversed {
+    Reversed(Edge edge) {
+      this.edge = edge;
+    }
+
+    public int hashCode() {
+      return ~edge.hashCode();
+    }
+
+    public boolean equals(Object other) {
+      return other instanceof Reversed && edge == ((Reversed)other).edge;
+    }
+
+    final Edge edge;
+  }
+
+  private static final Comparator BY_ORD =
+    new Comparator() {
+      public int compare(Object lhs, Object rhs) {
+        return ((Component)lhs).ord - ((Component)rhs).ord;
+      }};
+
+  private final List nodes = new ArrayList();
+  private final Map outEdges = new HashMap();
+  private final Map inEdges = new HashMap();
+  private final Map undirectedEdges = new HashMap();
+  private final Map edges = new HashMap();
+  private final Map componentOf = new HashMap();
+  private final List order = new ArrayList();
+  private Snapshot snapshot;
+}
@@ -0,0 +1,112 @@
+package javautils.graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import javautils.fun.ObjectToObject;
+import javautils.graph.adt.Graph;
+import javautils.maps.ObjectToIntMap;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link DynamicGraph}.</p>
+ */
+public class DynamicGraphTest extends TestCase {
+
+  /**
+   * <p>Tests that the components maintained over random edge insertions
+   * and removals equal the components computed from scratch and are in
+   * topological order.</p>
+   */
+  public void testComponentsAgainstTarjan() {
+    Random random = new Random(23);
+    DynamicGraph graph = new DynamicGraph();
+    List ids = new ArrayList();
+
+    for (int i=0; i<30; ++i)
+      graph.addNode(new Integer(i));
+
+    for (int step=0; step<600; ++step) {
+      if (ids.isEmpty() || random.nextInt(3) != 0) {
+        Object id = "e" + step;
+        graph.addEdge(new Integer(random.nextInt(30)), new Integer(random.nextInt(30)), id);
+        ids.add(id);
+      } else {
+        assertTrue(graph.removeEdge(ids.remove(random.nextInt(ids.size()))));
+      }
+      assertConsistent(graph.snapshot());
+    }
+    assertFalse(graph.removeEdge("none"));
+  }
+
+  /**
+   * <p>Tests that a snapshot is not affected by later changes and that the
+   * undirected view lists edges in both directions and keeps its lists
+   * up to date.</p>
+   */
+  public void testSnapshots() {
+    DynamicGraph graph = new DynamicGraph();
+    graph.addEdge("a", "b", "ab");
+    graph.addEdge("b", "b", "bb");
+
+    DynamicGraph.Snapshot before = graph.snapshot();
+    assertSame(before, graph.snapshot());
+    graph.addEdge("b", "c", "bc");
+    graph.addEdge("c", "a", "ca");
+    DynamicGraph.Snapshot after = graph.snapshot();
+
+    assertEquals("a: b[ab];\nb: b[bb];\n", Graphs.asString(before, ObjectToObject.IDENTITY, ObjectToObject.IDENTITY));
+    assertEquals("[[a], [b]]", before.stronglyConnectedComponents().toString());
+    assertEquals("[[a, b, c]]", after.stronglyConnectedComponents().toString());
+    assertEquals("[ab, bb]", after.edgesTo("b").toString());
+    assertSame(graph.object("ab"), after.edgesFrom("a").get(0));
+    assertSame("a", graph.object("a"));
+
+    Graph undirected = after.undirected();
+    assertEquals(3, undirected.edgesFrom("b").size());
+    for (int i=0; i<undirected.edgesFrom("b").size(); ++i)
+      assertEquals("b", undirected.sourceOf(undirected.edgesFrom("b").get(i)));
+    assertSame(undirected.edgesFrom("b"), after.undirected().edgesFrom("b"));
+    assertEquals(1, before.undirected().edgesFrom("a").size());
+
+    graph.removeEdge("ca");
+    assertEquals(2, undirected.edgesFrom("a").size());
+    assertEquals(1, graph.snapshot().undirected().edgesFrom("a").size());
+    assertEquals(1, graph.snapshot().undirected().edgesFrom("c").size());
+    assertEquals("b", undirected.targetOf(graph.snapshot().undirected().edgesFrom("c").get(0)));
+    assertEquals("[[a], [b], [c]]", graph.snapshot().stronglyConnectedComponents().toString());
+    assertEquals("[a, b, c]", graph.snapshot().topologicalOrder().toString());
+  }
+
+  private static void assertConsistent(DynamicGraph.Snapshot snapshot) {
+    List components = snapshot.stronglyConnectedComponents();
+    ObjectToIntMap positions = new ObjectToIntMap();
+    Set expected = new HashSet();
+    Set actual = new HashSet();
+
+    for (int i=0; i<components.size(); ++i) {
+      List component = (List)components.get(i);
+      actual.add(new HashSet(component));
+      for (int j=0; j<component.size(); ++j)
+        positions.put(component.get(j), i);
+    }
+    for (Iterator tarjan = Graphs.stronglyConnectedComponents(snapshot).iterator(); tarjan.hasNext();)
+      expected.add(new HashSet((Collection)tarjan.next()));
+    assertEquals(expected, actual);
+
+    List nodes = snapshot.nodes();
+    for (int i=0; i<nodes.size(); ++i) {
+      List edges = snapshot.edgesFrom(nodes.get(i));
+      for (int j=0; j<edges.size(); ++j) {
+        Object target = snapshot.targetOf(edges.get(j));
+        assertTrue(positions.get(nodes.get(i)) <= positions.get(target));
+        assertTrue(snapshot.edgesTo(target).contains(edges.get(j)));
+      }
+    }
+  }
+}
@@ -2,12 +2,19 @@ package javautils.graph;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import javautils.Counter;
+import javautils.Exceptions;
 import javautils.ImmutablePair;
 import javautils.collections.Algs;
 import javautils.collections.Unfold;
@@ -20,6 +27,7 @@ import javautils.graph.adt.AugmentedGraph;
 import javautils.graph.adt.Graph;
 import javautils.graph.templates.AdjacentIterTemplate;
 import javautils.graph.templates.DfsTemplate;
+import javautils.graph.templates.ParallelBfsTemplate;
 import javautils.graph.testing.BasicEdge;
 import javautils.maps.ObjectToIntMap;
 import javautils.maps.ObjectToListMap;
@@ -86,6 +94,16 @@ public class Graphs extends Algs {
     return AnAugmentedGraph.from(graph);
   }
 
+  /**
+   * <p>Compressed sparse row view of the given graph. If the given graph
+   * is already compressed, the same graph will simply be returned.</p>
+   *
+   * @see CsrGraph
+   */
+  public static CsrGraph compressed(Graph graph) {
+    return CsrGraph.from(graph);
+  }
+
   /**
    * <p>The connected components of the given graph. The graph is
    * interpreted as undirected. Two nodes <code>a</code> and
@@ -115,6 +133,58 @@ public class Graphs extends Algs {
     return result;
   }
 
+  /**
+   * <p>The connected components of the given graph computed in parallel.
+   * The graph is interpreted as undirected like in {@link
+   * #connectedComponents(Graph)}. The edges of the {@link #compressed
+   * compressed} graph are split into at most <code>parallelism</code>
+   * tasks executed by the executor, which merge the components of the
+   * ends of each edge in a shared lock-free union-find structure with
+   * path halving. The components are ordered by their first node in
+   * {@link Graph#nodes} and the nodes of each component are in the same
+   * order as in {@link Graph#nodes}.</p>
+   */
+  public static Collection connectedComponents(Graph directedGraph, ExecutorService executor, int parallelism) {
+    assert 0 < parallelism;
+
+    final CsrGraph graph = compressed(directedGraph);
+    int n = graph.nodeCount();
+    final AtomicIntegerArray parents = new AtomicIntegerArray(n);
+    List tasks = new ArrayList();
+
+    for (int node=0; node<n; ++node)
+      parents.set(node, node);
+
+    int chunk = (n + parallelism - 1) / parallelism;
+    for (int begin=0; begin<n; begin+=chunk) {
+      final int from = begin;
+      final int to = Math.min(n, begin + chunk);
+      tasks.add(new Callable() {
+          public Object call() {
+            for (int node=from; node<to; ++node)
+              for (int edge=graph.edgesBegin(node), end=graph.edgesEnd(node); edge<end; ++edge)
+                union(parents, node, graph.targetIndexOf(edge));
+            return null;
+          }});
+    }
+    invokeAll(executor, tasks);
+
+    List result = new ArrayList();
+    List[] components = new List[n];
+    for (int node=0; node<n; ++node) {
+      int root = find(parents, node);
+      if (null == components[root]) {
+        components[root] = new ArrayList();
+        result.add(components[root]);
+      }
+      components[root].add(graph.node(node));
+    }
+
+    for (int i=0; i<result.size(); ++i)
+      result.set(i, unsafeRestricted(directedGraph, (List)result.get(i)));
+    return result;
+  }
+
   /**
    * <p>A sequence of all edges of the graph.</p>
    */
@@ -160,6 +230,24 @@ public class Graphs extends Algs {
     forEach(graph.nodes(), proc);
   }
 
+  /**
+   * <p>The number of edges on a shortest path from the nearest of the
+   * specified roots to each reachable node, computed by a {@link
+   * ParallelBfsTemplate parallel breadth-first search} over the {@link
+   * #compressed compressed} view of the graph. Unreachable nodes are not
+   * in the map.</p>
+   */
+  public static ObjectToIntMap hopDistances(Graph graph, Collection roots, ExecutorService executor, int parallelism) {
+    CsrGraph compressed = compressed(graph);
+    int[] levels = new ParallelBfsTemplate(executor, parallelism) {}.search(compressed, roots.iterator());
+    ObjectToIntMap result = new ObjectToIntMap();
+
+    for (int node=0; node<levels.length; ++node)
+      if (0 <= levels[node])
+        result.put(compressed.node(node), levels[node]);
+    return result;
+  }
+
   /**
    * <p>A graph induced by the specified edges and additionally containing
    * the specified nodes.</p>
@@ -314,6 +402,22 @@ public class Graphs extends Algs {
   public static Set nodesReachableFrom(Graph graph, Collection roots) { return nodesReachableFrom(graph, roots.iterator()); }
   public static Set nodesReachableFrom(Graph graph, Object      root) { return nodesReachableFrom(graph, singletonIterator(root)); }
 
+  /**
+   * <p>Set of nodes reachable from the specified roots, computed by a
+   * {@link ParallelBfsTemplate parallel breadth-first search} over the
+   * {@link #compressed compressed} view of the graph.</p>
+   */
+  public static Set nodesReachableFrom(Graph graph, Collection roots, ExecutorService executor, int parallelism) {
+    CsrGraph compressed = compressed(graph);
+    int[] levels = new ParallelBfsTemplate(executor, parallelism) {}.search(compressed, roots.iterator());
+    Set result = new HashSet();
+
+    for (int node=0; node<levels.length; ++node)
+      if (0 <= levels[node])
+        result.add(compressed.node(node));
+    return result;
+  }
+
   /**
    * <p>A set of all nodes of the graph.</p>
    */
@@ -371,15 +475,16 @@ public class Graphs extends Algs {
     final List nodeList = collectUnmodifiable(nodes);
     final Set nodeSet = new HashSet(nodeList);
     final ObjectToListMap nodeToEdgesMap = new ObjectToListMap();
+    final ObjectToBoolean isRetainedEdge =
+      new ObjectToBoolean() {
+        public boolean with(Object edge) {
+          return nodeSet.contains(graph.targetOf(edge));
+        }};
 
     forEach(nodeList,
             new ObjectToVoid() {
               public void with(Object node) {
-                List edges = collect(filter(graph.edgesFrom(node),
-                                            new ObjectToBoolean() {
-                                              public boolean with(Object edge) {
-                                                return nodeSet.contains(graph.targetOf(edge));
-                                              }}));
+                List edges = collect(filter(graph.edgesFrom(node), isRetainedEdge));
 
                 if (0 != edges.size())
                   nodeToEdgesMap.put(node, edges);
@@ -417,63 +522,36 @@ public class Graphs extends Algs {
 
   /**
    * <p>The strongly connected components of the given directed graph. The
-   * result is a collection of collections of nodes of each component.</p>
+   * result is a collection of collections of nodes of each component. The
+   * components are iterated in topological order: no edge leads from a
+   * component to an earlier component. Use {@link
+   * StronglyConnectedComponents#asList} for indexed access.</p>
+   *
+   * @see StronglyConnectedComponents
    */
   public static Collection stronglyConnectedComponents(Graph graph) {
-    final List result = new ArrayList();
-
-    new DfsTemplate() {
-      List currentComponent = null;
-
-      protected void discoverRoot(Object node) {
-        currentComponent = new ArrayList();
-      }
-
-      protected void finishRoot(Object node) {
-        result.add(currentComponent);
-      }
-
-      protected void discoverNode(Object node) {
-        currentComponent.add(node);
-      }
-    }.search(transposed(graph), nodesByDecreasingDfsFinishingTime(graph));
+    return StronglyConnectedComponents.of(graph).asList();
+  }
 
-    return result;
+  /**
+   * <p>The strongly connected components of the given directed graph
+   * computed in parallel by tasks executed by the executor. The components
+   * are in topological order and the nodes of each component are in the
+   * same order as in {@link Graph#nodes}.</p>
+   *
+   * @see StronglyConnectedComponents#of(Graph, ExecutorService)
+   */
+  public static Collection stronglyConnectedComponents(Graph graph, ExecutorService executor) {
+    return StronglyConnectedComponents.of(graph, executor).asList();
   }
 
   /**
    * <p>Transitive, irreflexive closure of the given graph.</p>
+   *
+   * @see TransitiveClosure#asGraph
    */
-  public static Graph transitiveIrreflexiveClosure(final Graph graph) {
-    final ObjectToListMap nodeToEdgesMap = new ObjectToListMap();
-
-    forEach(graph.nodes(),
-            new ObjectToVoid() {
-              public void with(final Object sourceNode) {
-                new DfsTemplate() {
-                  protected void discoverNode(Object targetNode) {
-                    if (!sourceNode.equals(targetNode))
-                      nodeToEdgesMap.ensuredGet(sourceNode).add(new ImmutablePair(sourceNode,
-                                                                                  targetNode));
-                  }
-                }.search(graph, sourceNode);
-              }});
-
-    nodeToEdgesMap.transformListsToUnmodifiableLists();
-
-    return new GraphDecorator(graph) {
-        public List edgesFrom(Object node) {
-          return nodeToEdgesMap.getOrEmptyUnmodifiableList(node);
-        }
-
-        public Object sourceOf(Object edge) {
-          return ((ImmutablePair)edge).first;
-        }
-
-        public Object targetOf(Object edge) {
-          return ((ImmutablePair)edge).second;
-        }
-      };
+  public static Graph transitiveIrreflexiveClosure(Graph graph) {
+    return TransitiveClosure.of(graph).asGraph();
   }
 
   /**
@@ -516,6 +594,80 @@ public class Graphs extends Algs {
     return UndirectedGraph.from(graph);
   }
 
+  /**
+   * <p>The root of the set of the node in a union-find structure, where
+   * every non-root node has a parent with a smaller index. Halves the path
+   * to the root on the way.</p>
+   */
+  private static int find(AtomicIntegerArray parents, int node) {
+    for (int parent; node != (parent = parents.get(node));) {
+      int grandparent = parents.get(parent);
+      if (parent != grandparent)
+        parents.compareAndSet(node, parent, grandparent);
+      node = grandparent;
+    }
+    return node;
+  }
+
+  /**
+   * <p>Merges the sets of the nodes by linking the root with the greater
+   * index under the other root. The link only succeeds if the root is
+   * still a root, otherwise the roots are looked up again.</p>
+   */
+  private static void union(AtomicIntegerArray parents, int a, int b) {
+    while (true) {
+      a = find(parents, a);
+      b = find(parents, b);
+      if (a == b)
+        return;
+      if (a < b) {
+        int t = a;
+        a = b;
+        b = t;
+      }
+      if (parents.compareAndSet(a, a, b))
+        return;
+    }
+  }
+
+  /**
+   * <p>Executes the tasks and waits for them to complete. The first
+   * failure of a task is rethrown.</p>
+   */
+  static void invokeAll(ExecutorService executor, List tasks) {
+    try {
+      List futures = executor.invokeAll(tasks);
+      for (int i=0; i<futures.size(); ++i)
+        ((Future)futures.get(i)).get();
+    } catch (ExecutionException e) {
+      throw Exceptions.toThrowUnchecked(e.getCause());
+    } catch (InterruptedException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
+  }
+
+  /**
+   * <p>An unmodifiable copy of the immutable edge list with the element
+   * appended. Used by the graphs that replace the edge lists of a node
+   * instead of modifying them.</p>
+   */
+  static List listWith(List list, Object element) {
+    List result = new ArrayList(list.size() + 1);
+    result.addAll(list);
+    result.add(element);
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * <p>An unmodifiable copy of the immutable edge list without the first
+   * occurrence of the element.</p>
+   */
+  static List listWithout(List list, Object element) {
+    List result = new ArrayList(list);
+    result.remove(element);
+    return result.isEmpty() ? Algs.EMPTY_LIST : Collections.unmodifiableList(result);
+  }
+
   private static Graph unsafeRestricted(Graph graph, final List nodes) {
     return graph instanceof AugmentedGraph
       ? (Graph)new AugmentedGraphDecorator((AugmentedGraph)graph) {
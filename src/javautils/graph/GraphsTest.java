@@ -2,6 +2,10 @@ package javautils.graph;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javautils.collections.Algs;
 import javautils.fun.ObjectToBoolean;
 import javautils.fun.ObjectToObject;
@@ -33,6 +37,31 @@ public class GraphsTest extends TestCase implements TestGraphConstants {
                  Graphs.asString(CLOTHING_GRAPH));
   }
 
+  /**
+   * <p>Tests that the {@link Graphs#compressed}-method returns a graph
+   * with the same structure as the {@link
+   * TestGraphConstants#ABCDEFGHIJ_GRAPH}-graph, whose edge lists are
+   * kept.</p>
+   */
+  public void testCompressedOnABCDEFGHIJ() {
+    CsrGraph compressed = Graphs.compressed(ABCDEFGHIJ_GRAPH);
+    assertTrue(Graphs.invariant(compressed));
+    assertEquals(Graphs.asString(ABCDEFGHIJ_GRAPH), Graphs.asString(compressed));
+    assertEquals(Graphs.stronglyConnectedComponents(ABCDEFGHIJ_GRAPH).toString(),
+                 Graphs.stronglyConnectedComponents(compressed).toString());
+    assertEquals(10, compressed.nodeCount());
+    assertEquals(15, compressed.edgeCount());
+
+    for (int e=0; e<compressed.edgeCount(); ++e) {
+      Object edge = compressed.edge(e);
+      assertEquals(e, compressed.indexOfEdge(edge));
+      assertEquals(compressed.indexOf(compressed.sourceOf(edge)), compressed.sourceIndexOf(e));
+      assertEquals(compressed.indexOf(compressed.targetOf(edge)), compressed.targetIndexOf(e));
+    }
+    for (int i=0; i<compressed.nodeCount(); ++i)
+      assertSame(compressed.edgesFrom(i), compressed.edgesFrom(compressed.node(i)));
+  }
+
   /**
    * <p>Tests that the {@link Graphs#transposed}-method returns a graph
    * with specified properties on the {@link
@@ -101,13 +130,42 @@ public class GraphsTest extends TestCase implements TestGraphConstants {
                              }}));
   }
 
+  /**
+   * <p>Tests that the parallel {@link Graphs#connectedComponents}-method
+   * returns the same components as the sequential one on random
+   * graphs.</p>
+   */
+  public void testParallelConnectedComponents() {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int round=0; round<4; ++round) {
+        Graph graph = Graphs.randomGraph(2000, 400 + 400 * round);
+        assertEquals(nodeSets(Graphs.connectedComponents(graph)),
+                     nodeSets(Graphs.connectedComponents(graph, executor, 4)));
+      }
+      assertEquals(nodeSets(Graphs.connectedComponents(CLOTHING_GRAPH)),
+                   nodeSets(Graphs.connectedComponents(CLOTHING_GRAPH, executor, 3)));
+      assertEquals("[[a, b, e], [c, d], [f, g], [h]]",
+                   Graphs.stronglyConnectedComponents(ABCDEFGH_GRAPH, executor).toString());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static Set nodeSets(Collection components) {
+    Set result = new HashSet();
+    for (Iterator it = components.iterator(); it.hasNext();)
+      result.add(Graphs.nodeSet((Graph)it.next()));
+    return result;
+  }
+
   /**
    * <p>Tests that the {@link Graphs#stronglyConnectedComponents}-method
    * returns the correct result on the {@link
    * TestGraphConstants#ABCDEFGH_GRAPH}-graph.</p>
    */
   public void testStronglyConnectedComponentsOnABCDEFGH() {
-    assertEquals("[[a, e, b], [c, d], [f, g], [h]]",
+    assertEquals("[[a, b, e], [c, d], [f, g], [h]]",
                  Graphs.stronglyConnectedComponents(ABCDEFGH_GRAPH).toString());
   }
 
@@ -117,7 +175,7 @@ public class GraphsTest extends TestCase implements TestGraphConstants {
    * TestGraphConstants#ABCDEFGHIJ_GRAPH}-graph.</p>
    */
   public void testStronglyConnectedComponentsOnABCDEFGHIJ() {
-    assertEquals("[[g], [h, i, j], [a, c, b, f], [d], [e]]",
+    assertEquals("[[g], [h, j, i], [a, b, c, f], [d], [e]]",
                  Graphs.stronglyConnectedComponents(ABCDEFGHIJ_GRAPH).toString());
   }
 
@@ -144,7 +202,7 @@ public class GraphsTest extends TestCase implements TestGraphConstants {
     assertEquals("belt: jacket[1];\n" +
                  "jacket;\n" +
                  "pants: shoes[2] belt[3] jacket[4];\n" +
-                 "shirt: tie[5] jacket[6] belt[7];\n" +
+                 "shirt: tie[5] belt[6] jacket[7];\n" +
                  "shoes;\n" +
                  "socks: shoes[8];\n" +
                  "tie: jacket[9];\n" +
@@ -162,9 +220,9 @@ public class GraphsTest extends TestCase implements TestGraphConstants {
   public void testTransitiveIrreflexiveClosureOnUVWXYZ() {
     assertEquals("u: v[1] y[2] x[3];\n" +
                  "v: y[4] x[5];\n" +
-                 "w: y[6] x[7] v[8] z[9];\n" +
+                 "w: z[6] v[7] y[8] x[9];\n" +
                  "x: v[10] y[11];\n" +
-                 "y: x[12] v[13];\n" +
+                 "y: v[12] x[13];\n" +
                  "z;\n",
                  Graphs.asString(Graphs.transitiveIrreflexiveClosure(UVWXYZ_GRAPH)));
   }
@@ -0,0 +1,490 @@
+package javautils.graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import javautils.Exceptions;
+import javautils.graph.adt.AugmentedGraph;
+import javautils.graph.adt.Graph;
+import javautils.graph.adt.IndexedGraph;
+
+/**
+ * <p>A read-only graph stored in a file in compressed sparse row form and
+ * accessed through a memory mapped buffer. {@link #open Opening} a graph
+ * file only maps the file and checks its header: nothing is read or
+ * converted until it is accessed, and the pages of the file are shared by
+ * all processes that map it. A graph file is {@link #write written} from
+ * any graph.</p>
+ *
+ * <p>The file consists of a header of {@link #HEADER_INTS six}
+ * <code>int</code>s followed by the sections below. All numbers are big
+ * endian <code>int</code>s.</p>
+ *
+ * <ul>
+ *   <li>The header: the magic number, the format version, the flags, the
+ *       number of nodes <code>N</code>, the number of edges
+ *       <code>E</code>, and the length of the node name bytes.</li>
+ *   <li><code>N+1</code> offsets and <code>E</code> targets of the edges
+ *       from each node, as in {@link CsrGraph}.</li>
+ *   <li>If {@link #FLAG_EDGE_IDS} is set, the <code>E</code> {@link
+ *       CsrGraph#edgeIdOf(int) identifiers} of the edges.</li>
+ *   <li><code>N+1</code> offsets and <code>E</code> edge indices of the
+ *       edges to each node.</li>
+ *   <li><code>N+1</code> offsets of the name of each node in the name
+ *       bytes and the <code>N</code> node indices sorted by name.</li>
+ *   <li>The UTF-8 encoded names of the nodes.</li>
+ * </ul>
+ *
+ * <p>The nodes of a mapped graph are the names of the nodes of the
+ * written graph, that is, {@link String#valueOf(Object)} of each node,
+ * which must be distinct. A name is decoded from the file each time it
+ * is requested. {@link #indexOf indexOf} is a binary search over the
+ * sorted names. Edges are {@link CsrGraph.Edge} handles created on
+ * demand.</p>
+ *
+ * <p>Unlike {@link CsrGraph}, a mapped graph keeps no objects per node on
+ * the heap, so {@link #edgesFrom(int) edgesFrom} and {@link
+ * #edgesTo(int) edgesTo} create a small list view on each call, and
+ * each <code>get</code> creates a handle. Code that visits many edges
+ * should loop from {@link #edgesBegin edgesBegin} to {@link #edgesEnd
+ * edgesEnd} and use {@link #targetIndexOf targetIndexOf} instead, which
+ * allocates nothing, or copy the graph into a {@link CsrGraph} with
+ * {@link CsrGraph#from CsrGraph.from}.</p>
+ *
+ * <p>A graph file must be smaller than 2GB. The file is unmapped when the
+ * graph is garbage collected.</p>
+ */
+public final class MappedGraph implements IndexedGraph, AugmentedGraph {
+
+  /**
+   * <p>The first <code>int</code> of a graph file.</p>
+   */
+  public static final int MAGIC = 0x4A475246;
+
+  /**
+   * <p>The version of the file format.</p>
+   */
+  public static final int VERSION = 1;
+
+  /**
+   * <p>The flag that tells that the file contains edge identifiers.</p>
+   */
+  public static final int FLAG_EDGE_IDS = 1;
+
+  /**
+   * <p>The number of <code>int</code>s in the header.</p>
+   */
+  public static final int HEADER_INTS = 6;
+
+  /**
+   * <p>Writes the graph to the file in the format read by {@link #open
+   * open}. The nodes and edges are written in the order of {@link
+   * CsrGraph#from}. The identifiers of the edges are written if the graph
+   * is a {@link CsrGraph} with identifiers other than the edge
+   * indices.</p>
+   *
+   * @throws IllegalArgumentException if two nodes have the same name.
+   */
+  public static void write(Graph graph, File file) {
+    CsrGraph csr = CsrGraph.from(graph);
+    int n = csr.nodeCount();
+    int m = csr.edgeCount();
+
+    byte[][] names = new byte[n][];
+    int nameByteCount = 0;
+    for (int i=0; i<n; ++i) {
+      names[i] = encode(String.valueOf(csr.node(i)));
+      nameByteCount += names[i].length;
+    }
+    int[] sortedNames = sortedByName(names);
+
+    boolean hasEdgeIds = false;
+    for (int e=0; e<m && !hasEdgeIds; ++e)
+      hasEdgeIds = e != csr.edgeIdOf(e);
+
+    int[] inOffsets = new int[n + 1];
+    for (int e=0; e<m; ++e)
+      ++inOffsets[csr.targetIndexOf(e) + 1];
+    for (int i=0; i<n; ++i)
+      inOffsets[i + 1] += inOffsets[i];
+    int[] inEdges = new int[m];
+    int[] next = new int[n];
+    System.arraycopy(inOffsets, 0, next, 0, n);
+    for (int e=0; e<m; ++e)
+      inEdges[next[csr.targetIndexOf(e)]++] = e;
+
+    try {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+      try {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(hasEdgeIds ? FLAG_EDGE_IDS : 0);
+        out.writeInt(n);
+        out.writeInt(m);
+        out.writeInt(nameByteCount);
+
+        for (int i=0; i<n; ++i)
+          out.writeInt(csr.edgesBegin(i));
+        out.writeInt(m);
+        for (int e=0; e<m; ++e)
+          out.writeInt(csr.targetIndexOf(e));
+        if (hasEdgeIds)
+          for (int e=0; e<m; ++e)
+            out.writeInt(csr.edgeIdOf(e));
+
+        for (int i=0; i<=n; ++i)
+          out.writeInt(inOffsets[i]);
+        for (int e=0; e<m; ++e)
+          out.writeInt(inEdges[e]);
+
+        int offset = 0;
+        for (int i=0; i<n; ++i) {
+          out.writeInt(offset);
+          offset += names[i].length;
+        }
+        out.writeInt(offset);
+        for (int i=0; i<n; ++i)
+          out.writeInt(sortedNames[i]);
+        for (int i=0; i<n; ++i)
+          out.write(names[i]);
+      } finally {
+        out.close();
+      }
+    } catch (IOException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
+  }
+
+  /**
+   * <p>Maps the graph file read-only.</p>
+   *
+   * @throws IllegalArgumentException if the file is not a graph file of
+   *         this version.
+   */
+  public static MappedGraph open(File file) {
+    try {
+      RandomAccessFile in = new RandomAccessFile(file, "r");
+      try {
+        return new MappedGraph(file, in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length()));
+      } finally {
+        in.close();
+      }
+    } catch (IOException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
+  }
+
+  public List nodes() {
+    return nodeList;
+  }
+
+  public List edgesFrom(Object node) {
+    return edgesFrom(checkedIndexOf(node));
+  }
+
+  /**
+   * <p>List of all edges from the node with the specified index. A new
+   * view is created on each call.</p>
+   */
+  public List edgesFrom(final int node) {
+    final int begin = edgesBegin(node);
+    final int size = edgesEnd(node) - begin;
+
+    return new AbstractList() {
+        public Object get(int i) {
+          if (i < 0 || size <= i)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+          return new CsrGraph.Edge(node, begin + i);
+        }
+
+        public int size() {
+          return size;
+        }
+      };
+  }
+
+  public List edgesTo(Object node) {
+    return edgesTo(checkedIndexOf(node));
+  }
+
+  /**
+   * <p>List of all edges to the node with the specified index. Getting an
+   * edge takes <code>O(log N)</code> time, because its source is found by
+   * {@link #sourceIndexOf}.</p>
+   */
+  public List edgesTo(int node) {
+    final int begin = intAt(inOffsets, node);
+    final int size = intAt(inOffsets, node + 1) - begin;
+
+    return new AbstractList() {
+        public Object get(int i) {
+          if (i < 0 || size <= i)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+          return edge(intAt(inEdges, begin + i));
+        }
+
+        public int size() {
+          return size;
+        }
+      };
+  }
+
+  public Object sourceOf(Object edge) {
+    return node(((CsrGraph.Edge)edge).source);
+  }
+
+  public Object targetOf(Object edge) {
+    return node(targetIndexOf(((CsrGraph.Edge)edge).index));
+  }
+
+  public boolean isNode(Object obj) {
+    return -1 != indexOf(obj);
+  }
+
+  public int nodeCount() {
+    return nodeCount;
+  }
+
+  public int edgeCount() {
+    return edgeCount;
+  }
+
+  public Object node(int index) {
+    int begin = intAt(nameOffsets, index);
+    byte[] bytes = new byte[intAt(nameOffsets, index + 1) - begin];
+    for (int i=0; i<bytes.length; ++i)
+      bytes[i] = buffer.get(names + begin + i);
+    return decode(bytes);
+  }
+
+  /**
+   * <p>The index of the node or <code>-1</code> if the object is not a
+   * node of this graph.</p>
+   */
+  public int indexOf(Object node) {
+    if (!(node instanceof String))
+      return -1;
+
+    byte[] key = encode((String)node);
+    int lo = 0;
+    int hi = nodeCount - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      int index = intAt(sortedNames, mid);
+      int order = compareName(index, key);
+      if (order < 0)
+        lo = mid + 1;
+      else if (0 < order)
+        hi = mid - 1;
+      else
+        return index;
+    }
+    return -1;
+  }
+
+  public int edgesBegin(int node) {
+    return intAt(offsets, node);
+  }
+
+  public int edgesEnd(int node) {
+    return intAt(offsets, node + 1);
+  }
+
+  /**
+   * <p>The edge with the specified index.</p>
+   */
+  public Object edge(int edge) {
+    return new CsrGraph.Edge(sourceIndexOf(edge), edge);
+  }
+
+  public Object edge(int source, int edge) {
+    assert edgesBegin(source) <= edge && edge < edgesEnd(source);
+    return new CsrGraph.Edge(source, edge);
+  }
+
+  /**
+   * <p>The index of the edge.</p>
+   */
+  public int indexOfEdge(Object edge) {
+    return ((CsrGraph.Edge)edge).index;
+  }
+
+  /**
+   * <p>The index of the source node of the specified edge. This takes
+   * <code>O(log N)</code> time, because source nodes are not stored.</p>
+   */
+  public int sourceIndexOf(int edge) {
+    assert 0 <= edge && edge < edgeCount;
+
+    int lo = 0;
+    int hi = nodeCount - 1;
+    while (lo < hi) {
+      int mid = (lo + hi + 1) >>> 1;
+      if (intAt(offsets, mid) <= edge)
+        lo = mid;
+      else
+        hi = mid - 1;
+    }
+    return lo;
+  }
+
+  public int targetIndexOf(int edge) {
+    return intAt(targets, edge);
+  }
+
+  /**
+   * <p>The identifier of the specified edge.</p>
+   */
+  public int edgeIdOf(int edge) {
+    return -1 != edgeIds ? intAt(edgeIds, edge) : edge;
+  }
+
+  /**
+   * <p>The identifier of the edge.</p>
+   */
+  public int edgeIdOf(Object edge) {
+    return edgeIdOf(indexOfEdge(edge));
+  }
+
+  private MappedGraph(File file, ByteBuffer buffer) {
+    if (buffer.capacity() < 4 * HEADER_INTS || MAGIC != buffer.getInt(0) || VERSION != buffer.getInt(4))
+      throw new IllegalArgumentException("File '" + file + "' is not a graph file of version " + VERSION + ".");
+
+    int flags = buffer.getInt(8);
+    this.buffer = buffer;
+    this.nodeCount = buffer.getInt(12);
+    this.edgeCount = buffer.getInt(16);
+
+    int position = 4 * HEADER_INTS;
+    offsets = position;
+    position += 4 * (nodeCount + 1);
+    targets = position;
+    position += 4 * edgeCount;
+    if (0 != (flags & FLAG_EDGE_IDS)) {
+      edgeIds = position;
+      position += 4 * edgeCount;
+    } else {
+      edgeIds = -1;
+    }
+    inOffsets = position;
+    position += 4 * (nodeCount + 1);
+    inEdges = position;
+    position += 4 * edgeCount;
+    nameOffsets = position;
+    position += 4 * (nodeCount + 1);
+    sortedNames = position;
+    position += 4 * nodeCount;
+    names = position;
+    position += buffer.getInt(20);
+
+    if (position != buffer.capacity())
+      throw new IllegalArgumentException("File '" + file + "' is truncated or has trailing bytes.");
+
+    nodeList = new AbstractList() {
+        public Object get(int i) {
+          if (i < 0 || nodeCount <= i)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + nodeCount);
+          return node(i);
+        }
+
+        public int size() {
+          return nodeCount;
+        }
+      };
+  }
+
+  private int intAt(int section, int index) {
+    return buffer.getInt(section + 4 * index);
+  }
+
+  private int checkedIndexOf(Object node) {
+    int index = indexOf(node);
+    assert -1 != index : "Object '" + node + "' is not a node of the graph.";
+    return index;
+  }
+
+  /**
+   * <p>Compares the name of the node with the key as unsigned bytes.</p>
+   */
+  private int compareName(int node, byte[] key) {
+    int begin = names + intAt(nameOffsets, node);
+    int length = intAt(nameOffsets, node + 1) - intAt(nameOffsets, node);
+    for (int i=0, n=Math.min(length, key.length); i<n; ++i) {
+      int order = (buffer.get(begin + i) & 0xFF) - (key[i] & 0xFF);
+      if (0 != order)
+        return order;
+    }
+    return length - key.length;
+  }
+
+  private static String decode(byte[] bytes) {
+    try {
+      return new String(bytes, "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
+  }
+
+  private static byte[] encode(String name) {
+    try {
+      return name.getBytes("UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
+  }
+
+  /**
+   * <p>The node indices sorted by the names as unsigned bytes.</p>
+   *
+   * @throws IllegalArgumentException if two names are equal.
+   */
+  private static int[] sortedByName(final byte[][] names) {
+    Integer[] order = new Integer[names.length];
+    for (int i=0; i<names.length; ++i)
+      order[i] = new Integer(i);
+
+    Comparator byName = new Comparator() {
+        public int compare(Object lhs, Object rhs) {
+          byte[] l = names[((Integer)lhs).intValue()];
+          byte[] r = names[((Integer)rhs).intValue()];
+          for (int i=0, n=Math.min(l.length, r.length); i<n; ++i)
+            if (l[i] != r[i])
+              return (l[i] & 0xFF) - (r[i] & 0xFF);
+          return l.length - r.length;
+        }};
+    Arrays.sort(order, byName);
+
+    int[] result = new int[names.length];
+    for (int i=0; i<names.length; ++i) {
+      if (0 < i && 0 == byName.compare(order[i - 1], order[i]))
+        throw new IllegalArgumentException("Two nodes are named '" + decode(names[order[i].intValue()]) + "'.");
+      result[i] = order[i].intValue();
+    }
+    return result;
+  }
+
+  private final ByteBuffer buffer;
+  private final int nodeCount;
+  private final int edgeCount;
+  private final List nodeList;
+
+  // The byte positions of the sections of the file.
+  private final int offsets;
+  private final int targets;
+  private final int edgeIds;
+  private final int inOffsets;
+  private final int inEdges;
+  private final int nameOffsets;
+  private final int sortedNames;
+  private final int names;
+}
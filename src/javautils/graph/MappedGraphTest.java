@@ -0,0 +1,87 @@
+package javautils.graph;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+import javautils.graph.adt.Graph;
+import javautils.graph.testing.TestGraphConstants;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link MappedGraph}.</p>
+ */
+public class MappedGraphTest extends TestCase implements TestGraphConstants {
+
+  /**
+   * <p>Tests that graphs written to a file and mapped back have the same
+   * nodes, edges from and to each node, and edge identifiers.</p>
+   */
+  public void testWriteAndOpen() throws Exception {
+    assertSameGraph(CsrGraph.from(CLOTHING_GRAPH), writeAndOpen(CLOTHING_GRAPH));
+    Graph random = Graphs.randomGraph(300, 900);
+    assertSameGraph(CsrGraph.from(random), writeAndOpen(random));
+    assertSameGraph(CsrGraph.from(PersistentGraph.EMPTY), writeAndOpen(PersistentGraph.EMPTY));
+
+    CsrGraph condensation = StronglyConnectedComponents.of(ABCDEFGH_GRAPH).condensation();
+    MappedGraph mapped = writeAndOpen(condensation);
+    for (int e=0; e<condensation.edgeCount(); ++e)
+      assertEquals(condensation.edgeIdOf(e), mapped.edgeIdOf(e));
+    assertEquals("0", mapped.node(0));
+    assertEquals(-1, mapped.indexOf(new Integer(0)));
+    assertFalse(mapped.isNode("x"));
+  }
+
+  /**
+   * <p>Tests that a file that is not a graph file is rejected.</p>
+   */
+  public void testNotAGraphFile() throws Exception {
+    File file = File.createTempFile("MappedGraphTest", ".graph");
+    file.deleteOnExit();
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24});
+    out.close();
+
+    try {
+      MappedGraph.open(file);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // Expected.
+    }
+  }
+
+  private static MappedGraph writeAndOpen(Graph graph) throws Exception {
+    File file = File.createTempFile("MappedGraphTest", ".graph");
+    file.deleteOnExit();
+    MappedGraph.write(graph, file);
+    return MappedGraph.open(file);
+  }
+
+  private static void assertSameGraph(CsrGraph expected, MappedGraph actual) {
+    assertEquals(expected.nodeCount(), actual.nodeCount());
+    assertEquals(expected.edgeCount(), actual.edgeCount());
+
+    for (int i=0; i<expected.nodeCount(); ++i) {
+      String node = String.valueOf(expected.node(i));
+      assertEquals(node, actual.nodes().get(i));
+      assertEquals(i, actual.indexOf(node));
+      assertEquals(expected.edgesBegin(i), actual.edgesBegin(i));
+      assertEquals(expected.edgesEnd(i), actual.edgesEnd(i));
+
+      List edges = actual.edgesFrom(node);
+      for (int j=0; j<edges.size(); ++j) {
+        assertEquals(node, actual.sourceOf(edges.get(j)));
+        assertEquals(String.valueOf(expected.targetOf(expected.edgesFrom(i).get(j))), actual.targetOf(edges.get(j)));
+      }
+
+      List in = actual.edgesTo(node);
+      for (int j=0; j<in.size(); ++j)
+        assertEquals(node, actual.targetOf(in.get(j)));
+    }
+
+    int count = 0;
+    for (int i=0; i<actual.nodeCount(); ++i)
+      count += actual.edgesTo(i).size();
+    assertEquals(expected.edgeCount(), count);
+  }
+}
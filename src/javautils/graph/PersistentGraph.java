@@ -0,0 +1,260 @@
+package javautils.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javautils.ImmutablePair;
+import javautils.collections.Algs;
+import javautils.graph.adt.AugmentedGraph;
+import javautils.graph.adt.Graph;
+import javautils.maps.PersistentHashMap;
+
+/**
+ * <p>An immutable graph whose versions share structure. Methods such as
+ * {@link #withEdge withEdge} and {@link #withoutEdge withoutEdge} do not
+ * modify the graph, but return a new version of it. Unlike {@link
+ * Graphs#restrictedToNodes} and similar methods, which copy the whole
+ * graph, a new version shares all but a few nodes of its underlying
+ * {@link PersistentHashMap hash tries} with the previous version, so
+ * keeping many versions of a large graph is cheap.</p>
+ *
+ * <p>The graph maps each node to its lists of outgoing and incoming edges
+ * and each edge to its source and target. Adding or removing an edge takes
+ * <code>O(log N + D)</code> time and space, where <code>D</code> is the
+ * degree of the ends of the edge, because the edge lists of the ends are
+ * replaced. Removing a node also removes its edges.</p>
+ *
+ * <p>The order of {@link #nodes} is unspecified. The edges from and to a
+ * node are in the order they were added. Edge objects must be distinct
+ * within a graph.</p>
+ */
+public final class PersistentGraph implements AugmentedGraph {
+
+  /**
+   * <p>The graph with no nodes.</p>
+   */
+  public static final PersistentGraph EMPTY =
+    new PersistentGraph(PersistentHashMap.EMPTY, PersistentHashMap.EMPTY, Algs.EMPTY_LIST);
+
+  /**
+   * <p>A persistent graph with the nodes and edges of the given graph.
+   * The edge lists of all nodes are collected first and each node is
+   * then inserted once, so this takes <code>O((N + E) log N)</code>
+   * time.</p>
+   */
+  public static PersistentGraph from(Graph graph) {
+    if (graph instanceof PersistentGraph)
+      return (PersistentGraph)graph;
+
+    List nodes = graph.nodes();
+    Map outLists = new HashMap();
+    Map inLists = new HashMap();
+    PersistentHashMap ends = PersistentHashMap.EMPTY;
+
+    for (int i=0, n=nodes.size(); i<n; ++i) {
+      outLists.put(nodes.get(i), new ArrayList());
+      inLists.put(nodes.get(i), new ArrayList());
+    }
+    for (int i=0, n=nodes.size(); i<n; ++i) {
+      Object source = nodes.get(i);
+      List edges = graph.edgesFrom(source);
+      for (int j=0, m=edges.size(); j<m; ++j) {
+        Object edge = edges.get(j);
+        Object target = graph.targetOf(edge);
+        ImmutablePair existing = (ImmutablePair)ends.get(edge);
+        if (null != existing) {
+          assert existing.first.equals(source) && existing.second.equals(target)
+            : "Edge '" + edge + "' is in the graph with different ends.";
+          continue;
+        }
+
+        ends = ends.with(edge, new ImmutablePair(source, target));
+        ((List)outLists.get(source)).add(edge);
+        if (!inLists.containsKey(target)) {
+          outLists.put(target, new ArrayList());
+          inLists.put(target, new ArrayList());
+        }
+        ((List)inLists.get(target)).add(edge);
+      }
+    }
+
+    PersistentHashMap adjacencies = PersistentHashMap.EMPTY;
+    for (Iterator it = outLists.entrySet().iterator(); it.hasNext();) {
+      Map.Entry entry = (Map.Entry)it.next();
+      adjacencies = adjacencies.with(entry.getKey(),
+                                     new Adjacency(unmodifiable((List)entry.getValue()),
+                                                   unmodifiable((List)inLists.get(entry.getKey()))));
+    }
+    return new PersistentGraph(adjacencies, ends, null);
+  }
+
+  /**
+   * <p>A version of this graph with the node. Returns this graph if the
+   * node is already in it.</p>
+   */
+  public PersistentGraph withNode(Object node) {
+    if (nodes.containsKey(node))
+      return this;
+    return new PersistentGraph(nodes.with(node, Adjacency.EMPTY), ends, null);
+  }
+
+  /**
+   * <p>A version of this graph without the node and the edges from and to
+   * it. Returns this graph if the node is not in it.</p>
+   */
+  public PersistentGraph withoutNode(Object node) {
+    Adjacency adjacency = (Adjacency)nodes.get(node);
+    if (null == adjacency)
+      return this;
+
+    PersistentGraph result = this;
+    for (int i=0; i<adjacency.out.size(); ++i)
+      result = result.withoutEdge(adjacency.out.get(i));
+    for (int i=0; i<adjacency.in.size(); ++i)
+      result = result.withoutEdge(adjacency.in.get(i));
+    return new PersistentGraph(result.nodes.without(node), result.ends, null);
+  }
+
+  /**
+   * <p>A version of this graph with the edge from the source node to the
+   * target node. The nodes are added if they are not in the graph.
+   * Returns this graph if the edge is already in it.</p>
+   */
+  public PersistentGraph withEdge(Object edge, Object source, Object target) {
+    ImmutablePair existing = (ImmutablePair)ends.get(edge);
+    if (null != existing) {
+      assert existing.first.equals(source) && existing.second.equals(target)
+        : "Edge '" + edge + "' is already in the graph with different ends.";
+      return this;
+    }
+
+    boolean sameNodes = nodes.containsKey(source) && nodes.containsKey(target);
+    PersistentHashMap newNodes = withNode(source).withNode(target).nodes;
+    Adjacency from = (Adjacency)newNodes.get(source);
+    newNodes = newNodes.with(source, new Adjacency(Graphs.listWith(from.out, edge), from.in));
+    Adjacency to = (Adjacency)newNodes.get(target);
+    newNodes = newNodes.with(target, new Adjacency(to.out, Graphs.listWith(to.in, edge)));
+
+    return new PersistentGraph(newNodes, ends.with(edge, new ImmutablePair(source, target)), sameNodes ? nodeList : null);
+  }
+
+  /**
+   * <p>A version of this graph without the edge. Returns this graph if the
+   * edge is not in it.</p>
+   */
+  public PersistentGraph withoutEdge(Object edge) {
+    ImmutablePair pair = (ImmutablePair)ends.get(edge);
+    if (null == pair)
+      return this;
+
+    Adjacency from = (Adjacency)nodes.get(pair.first);
+    PersistentHashMap newNodes = nodes.with(pair.first, new Adjacency(Graphs.listWithout(from.out, edge), from.in));
+    Adjacency to = (Adjacency)newNodes.get(pair.second);
+    newNodes = newNodes.with(pair.second, new Adjacency(to.out, Graphs.listWithout(to.in, edge)));
+
+    return new PersistentGraph(newNodes, ends.without(edge), nodeList);
+  }
+
+  /**
+   * <p>The number of nodes in the graph.</p>
+   */
+  public int nodeCount() {
+    return nodes.size();
+  }
+
+  /**
+   * <p>The number of edges in the graph.</p>
+   */
+  public int edgeCount() {
+    return ends.size();
+  }
+
+  /**
+   * <p>The list of nodes is computed when first requested from a version
+   * and then kept. Versions created by adding or removing edges between
+   * existing nodes share the list of the version they were created from,
+   * if it had been computed.</p>
+   */
+  public List nodes() {
+    List result = nodeList;
+    if (null == result) {
+      result = new ArrayList(nodes.size());
+      Algs.addAll(nodes.keys(), result);
+      nodeList = result = Collections.unmodifiableList(result);
+    }
+    return result;
+  }
+
+  public List edgesFrom(Object node) {
+    return adjacencyOf(node).out;
+  }
+
+  public List edgesTo(Object node) {
+    return adjacencyOf(node).in;
+  }
+
+  /**
+   * <p>True if and only if the object is an edge of this graph.</p>
+   */
+  public boolean isEdge(Object obj) {
+    return ends.containsKey(obj);
+  }
+
+  public boolean isNode(Object obj) {
+    return nodes.containsKey(obj);
+  }
+
+  public Object sourceOf(Object edge) {
+    return endsOf(edge).first;
+  }
+
+  public Object targetOf(Object edge) {
+    return endsOf(edge).second;
+  }
+
+  private PersistentGraph(PersistentHashMap nodes, PersistentHashMap ends, List nodeList) {
+    this.nodes = nodes;
+    this.ends = ends;
+    this.nodeList = nodeList;
+  }
+
+  private Adjacency adjacencyOf(Object node) {
+    Adjacency adjacency = (Adjacency)nodes.get(node);
+    assert null != adjacency : "Object '" + node + "' is not a node of the graph.";
+    return adjacency;
+  }
+
+  private ImmutablePair endsOf(Object edge) {
+    ImmutablePair pair = (ImmutablePair)ends.get(edge);
+    assert null != pair : "Object '" + edge + "' is not an edge of the graph.";
+    return pair;
+  }
+
+  private static List unmodifiable(List list) {
+    return list.isEmpty() ? Algs.EMPTY_LIST : Collections.unmodifiableList(list);
+  }
+
+  /**
+   * <p>The immutable lists of edges from and to a node.</p>
+   */
+  private static final class Adjacency {
+    Adjacency(List out, List in) {
+      this.out = out;
+      this.in = in;
+    }
+
+    static final Adjacency EMPTY = new Adjacency(Algs.EMPTY_LIST, Algs.EMPTY_LIST);
+
+    final List out;
+    final List in;
+  }
+
+  private final PersistentHashMap nodes;
+  private final PersistentHashMap ends;
+
+  // The nodes of this version, computed on demand.
+  private volatile List nodeList;
+}
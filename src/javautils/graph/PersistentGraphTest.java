@@ -0,0 +1,137 @@
+package javautils.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import javautils.graph.adt.Graph;
+import javautils.graph.testing.TestGraphConstants;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link PersistentGraph}.</p>
+ */
+public class PersistentGraphTest extends TestCase implements TestGraphConstants {
+
+  /**
+   * <p>Tests that a graph copied into a persistent graph has the same
+   * nodes and edges.</p>
+   */
+  public void testFrom() {
+    PersistentGraph graph = PersistentGraph.from(CLOTHING_GRAPH);
+    assertSame(graph, PersistentGraph.from(graph));
+    assertEquals(CLOTHING_GRAPH.nodes().size(), graph.nodeCount());
+    assertEquals(new HashSet(CLOTHING_GRAPH.nodes()), new HashSet(graph.nodes()));
+    for (int i=0; i<CLOTHING_GRAPH.nodes().size(); ++i) {
+      Object node = CLOTHING_GRAPH.nodes().get(i);
+      assertEquals(CLOTHING_GRAPH.edgesFrom(node), graph.edgesFrom(node));
+    }
+    assertEquals(Graphs.stronglyConnectedComponents(CLOTHING_GRAPH).size(),
+                 Graphs.stronglyConnectedComponents(graph).size());
+    assertConsistent(graph);
+
+    Graph random = Graphs.randomGraph(50, 200);
+    PersistentGraph copy = PersistentGraph.from(random);
+    assertEquals(asString(random), asString(copy));
+    assertConsistent(copy);
+  }
+
+  /**
+   * <p>Tests that versions that only add or remove edges between existing
+   * nodes share the node list of the version they were created from.</p>
+   */
+  public void testSharesNodeList() {
+    PersistentGraph graph = PersistentGraph.EMPTY.withEdge("ab", "a", "b").withNode("c");
+    List nodes = graph.nodes();
+
+    PersistentGraph added = graph.withEdge("bc", "b", "c");
+    assertSame(nodes, added.nodes());
+    assertSame(nodes, added.withoutEdge("ab").nodes());
+
+    PersistentGraph grown = added.withEdge("cd", "c", "d");
+    assertEquals(4, grown.nodes().size());
+    assertEquals(3, grown.withoutNode("d").nodes().size());
+  }
+
+  /**
+   * <p>Tests that earlier versions are unaffected by random edge and node
+   * changes, and that the edges to each node agree with the edges from
+   * each node.</p>
+   */
+  public void testVersions() {
+    Random random = new Random(24);
+    List versions = new ArrayList();
+    List strings = new ArrayList();
+    PersistentGraph graph = PersistentGraph.EMPTY;
+    List edges = new ArrayList();
+
+    for (int step=0; step<500; ++step) {
+      int choice = random.nextInt(10);
+      if (edges.isEmpty() || choice < 6) {
+        Object edge = "e" + step;
+        graph = graph.withEdge(edge, new Integer(random.nextInt(40)), new Integer(random.nextInt(40)));
+        edges.add(edge);
+      } else if (choice < 9) {
+        graph = graph.withoutEdge(edges.remove(random.nextInt(edges.size())));
+      } else {
+        graph = graph.withoutNode(new Integer(random.nextInt(40)));
+        for (int i=edges.size()-1; 0<=i; --i)
+          if (!graph.isEdge(edges.get(i)))
+            edges.remove(i);
+      }
+      assertEquals(edges.size(), graph.edgeCount());
+      assertConsistent(graph);
+      if (step % 50 == 0) {
+        versions.add(graph);
+        strings.add(asString(graph));
+      }
+    }
+
+    for (int i=0; i<versions.size(); ++i)
+      assertEquals(strings.get(i), asString((Graph)versions.get(i)));
+  }
+
+  /**
+   * <p>Tests that changes that do not change the graph return the same
+   * graph and that self loops are removed with their node.</p>
+   */
+  public void testUnchanged() {
+    PersistentGraph graph = PersistentGraph.EMPTY.withEdge("aa", "a", "a").withEdge("ab", "a", "b");
+    assertSame(graph, graph.withEdge("ab", "a", "b"));
+    assertSame(graph, graph.withNode("b"));
+    assertSame(graph, graph.withoutEdge("ba"));
+    assertSame(graph, graph.withoutNode("c"));
+    assertEquals("[aa, ab]", graph.edgesFrom("a").toString());
+    assertEquals("[aa]", graph.edgesTo("a").toString());
+
+    PersistentGraph removed = graph.withoutNode("a");
+    assertEquals(1, removed.nodeCount());
+    assertEquals(0, removed.edgeCount());
+    assertEquals("[]", removed.edgesTo("b").toString());
+  }
+
+  private static void assertConsistent(PersistentGraph graph) {
+    List nodes = graph.nodes();
+    int count = 0;
+    for (int i=0; i<nodes.size(); ++i) {
+      List from = graph.edgesFrom(nodes.get(i));
+      for (int j=0; j<from.size(); ++j) {
+        assertEquals(nodes.get(i), graph.sourceOf(from.get(j)));
+        assertTrue(graph.edgesTo(graph.targetOf(from.get(j))).contains(from.get(j)));
+      }
+      count += graph.edgesTo(nodes.get(i)).size();
+    }
+    assertEquals(graph.edgeCount(), count);
+  }
+
+  private static String asString(Graph graph) {
+    List nodes = new ArrayList(graph.nodes());
+    Collections.sort(nodes);
+    StringBuffer result = new StringBuffer();
+    for (int i=0; i<nodes.size(); ++i)
+      result.append(nodes.get(i)).append(": ").append(graph.edgesFrom(nodes.get(i))).append('\n');
+    return result.toString();
+  }
+}
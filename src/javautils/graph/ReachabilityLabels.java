@@ -0,0 +1,272 @@
+package javautils.graph;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import javautils.graph.adt.Graph;
+import javautils.graph.adt.ReachabilityIndex;
+import javautils.maps.ObjectToIntMap;
+
+/**
+ * <p>A reachability index of 2-hop labels computed by pruned landmark
+ * labelling [<a
+ * href="{@docRoot}/overview-summary.html#[Yano2013]">Yano2013</a>].</p>
+ *
+ * <p>The index is built on the {@link StronglyConnectedComponents#condensation
+ * condensation} of the graph. Each component <code>c</code> has an out
+ * label, a set of hub components reachable from <code>c</code>, and an in
+ * label, a set of hub components that reach <code>c</code>. A component
+ * reaches another if and only if the out label of the former and the in
+ * label of the latter share a hub. Labels are sorted arrays of hub ranks,
+ * so a query is a merge of two short arrays.</p>
+ *
+ * <p>Hubs are processed in decreasing order of the product of their in
+ * and out degrees. A breadth-first search forwards and one backwards from
+ * each hub add the hub to the labels of the components it visits, but do
+ * not continue from components whose reachability from or to the hub is
+ * already answered by the labels of the earlier hubs. On typical graphs
+ * this keeps the labels small.</p>
+ *
+ * <p>Edges that do not create a cycle can be {@link #addEdge added} to
+ * the index without rebuilding it. The index is {@link Serializable} if
+ * the nodes are, so it can be saved and loaded with object streams.
+ * Queries may be executed concurrently, but not concurrently with {@link
+ * #addEdge addEdge}.</p>
+ */
+public final class ReachabilityLabels implements ReachabilityIndex, Serializable {
+
+  /**
+   * <p>The reachability labels of the graph.</p>
+   */
+  public static ReachabilityLabels of(Graph graph) {
+    return new ReachabilityLabels(graph);
+  }
+
+  public boolean reaches(Object source, Object target) {
+    return reaches(componentOf(source), componentOf(target));
+  }
+
+  /**
+   * <p>Adds an edge from the source node to the target node to the index,
+   * updating the labels of the components that become reachable through
+   * the edge. The edge must not create a new cycle: if the source and
+   * target are in different components, the target must not reach the
+   * source.</p>
+   *
+   * @throws IllegalArgumentException if the edge would create a cycle.
+   */
+  public void addEdge(Object source, Object target) {
+    int from = componentOf(source);
+    int to = componentOf(target);
+
+    if (from == to)
+      return;
+    if (reaches(to, from))
+      throw new IllegalArgumentException("The edge from '" + source + "' to '" + target + "' would create a cycle.");
+
+    insert(successors, successorCounts, from, to);
+    insert(predecessors, predecessorCounts, to, from);
+    if (reaches(from, to))
+      return;
+
+    int[] queue = new int[componentCount];
+    int[] hubs = copy(inLabels[from], inCounts[from]);
+    for (int i=0; i<hubs.length; ++i)
+      search(hubs[i], to, false, queue);
+
+    hubs = copy(outLabels[to], outCounts[to]);
+    for (int i=0; i<hubs.length; ++i)
+      search(hubs[i], from, true, queue);
+  }
+
+  /**
+   * <p>The total number of hubs in all labels.</p>
+   */
+  public long labelSize() {
+    long size = 0;
+    for (int c=0; c<componentCount; ++c)
+      size += inCounts[c] + outCounts[c];
+    return size;
+  }
+
+  private ReachabilityLabels(Graph graph) {
+    StronglyConnectedComponents components = StronglyConnectedComponents.of(graph);
+    CsrGraph condensation = components.condensation();
+    List nodes = graph.nodes();
+
+    componentCount = components.count();
+    nodeToComponentMap = new ObjectToIntMap(nodes.size());
+    for (int i=0, n=nodes.size(); i<n; ++i)
+      nodeToComponentMap.put(nodes.get(i), components.componentOf(nodes.get(i)));
+
+    successors = new int[componentCount][];
+    predecessors = new int[componentCount][];
+    successorCounts = new int[componentCount];
+    predecessorCounts = new int[componentCount];
+    outLabels = new int[componentCount][];
+    inLabels = new int[componentCount][];
+    outCounts = new int[componentCount];
+    inCounts = new int[componentCount];
+    hubToComponent = new int[componentCount];
+
+    for (int c=0; c<componentCount; ++c)
+      successors[c] = predecessors[c] = outLabels[c] = inLabels[c] = EMPTY;
+    for (int c=0; c<componentCount; ++c) {
+      for (int edge=condensation.edgesBegin(c), end=condensation.edgesEnd(c); edge<end; ++edge) {
+        insert(successors, successorCounts, c, condensation.targetIndexOf(edge));
+        insert(predecessors, predecessorCounts, condensation.targetIndexOf(edge), c);
+      }
+    }
+
+    Integer[] order = new Integer[componentCount];
+    for (int c=0; c<componentCount; ++c)
+      order[c] = new Integer(c);
+    Arrays.sort(order, new Comparator() {
+        public int compare(Object lhs, Object rhs) {
+          long l = degreeProduct(((Integer)lhs).intValue());
+          long r = degreeProduct(((Integer)rhs).intValue());
+          return l > r ? -1 : l < r ? 1 : 0;
+        }});
+
+    int[] queue = new int[componentCount];
+    for (int hub=0; hub<componentCount; ++hub) {
+      hubToComponent[hub] = order[hub].intValue();
+      search(hub, hubToComponent[hub], false, queue);
+      search(hub, hubToComponent[hub], true, queue);
+    }
+
+    for (int c=0; c<componentCount; ++c) {
+      inLabels[c] = copy(inLabels[c], inCounts[c]);
+      outLabels[c] = copy(outLabels[c], outCounts[c]);
+    }
+  }
+
+  private int componentOf(Object node) {
+    int c = nodeToComponentMap.getOr(node, -1);
+    assert -1 != c : "Object '" + node + "' is not a node of the graph.";
+    return c;
+  }
+
+  private long degreeProduct(int c) {
+    return (successorCounts[c] + 1L) * (predecessorCounts[c] + 1L);
+  }
+
+  /**
+   * <p>True if and only if the out label of the source and the in label
+   * of the target share a hub.</p>
+   */
+  private boolean reaches(int source, int target) {
+    if (source == target)
+      return true;
+
+    int[] out = outLabels[source];
+    int[] in = inLabels[target];
+    for (int i=0, j=0, m=outCounts[source], n=inCounts[target]; i<m && j<n;) {
+      if (out[i] < in[j])
+        ++i;
+      else if (in[j] < out[i])
+        ++j;
+      else
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * <p>Breadth-first search from the start component that adds the hub
+   * to the in labels of the components reachable from the start or, if
+   * <code>backward</code> is true, to the out labels of the components
+   * that reach the start. The search does not continue from components
+   * whose reachability from or to the hub is already answered.</p>
+   */
+  private void search(int hub, int start, boolean backward, int[] queue) {
+    int hubComponent = hubToComponent[hub];
+    int[][] edges = backward ? predecessors : successors;
+    int[] edgeCounts = backward ? predecessorCounts : successorCounts;
+    int size = 0;
+
+    if (null == visited)
+      visited = new int[componentCount];
+    if (0 == ++stamp) {
+      Arrays.fill(visited, 0);
+      stamp = 1;
+    }
+    visited[start] = stamp;
+    queue[size++] = start;
+
+    for (int i=0; i<size; ++i) {
+      int c = queue[i];
+      if (c != hubComponent && (backward ? reaches(c, hubComponent) : reaches(hubComponent, c)))
+        continue;
+
+      if (backward)
+        insert(outLabels, outCounts, c, hub);
+      else
+        insert(inLabels, inCounts, c, hub);
+
+      for (int j=0; j<edgeCounts[c]; ++j) {
+        int next = edges[c][j];
+        if (stamp != visited[next]) {
+          visited[next] = stamp;
+          queue[size++] = next;
+        }
+      }
+    }
+  }
+
+  /**
+   * <p>Inserts the value into the sorted set of the row unless it is
+   * already there.</p>
+   */
+  private static void insert(int[][] rows, int[] counts, int row, int value) {
+    int[] array = rows[row];
+    int count = counts[row];
+    int i = 0;
+    for (int hi=count; i < hi;) {
+      int mid = (i + hi) >>> 1;
+      if (array[mid] < value)
+        i = mid + 1;
+      else
+        hi = mid;
+    }
+    if (i < count && array[i] == value)
+      return;
+
+    if (count == array.length) {
+      int[] grown = new int[Math.max(4, 2 * count)];
+      System.arraycopy(array, 0, grown, 0, i);
+      System.arraycopy(array, i, grown, i + 1, count - i);
+      rows[row] = array = grown;
+    } else {
+      System.arraycopy(array, i, array, i + 1, count - i);
+    }
+    array[i] = value;
+    counts[row] = count + 1;
+  }
+
+  private static int[] copy(int[] array, int length) {
+    int[] result = new int[length];
+    System.arraycopy(array, 0, result, 0, length);
+    return result;
+  }
+
+  private static final long serialVersionUID = 1L;
+  private static final int[] EMPTY = new int[0];
+
+  private final int componentCount;
+  private final ObjectToIntMap nodeToComponentMap;
+  private final int[][] successors;
+  private final int[][] predecessors;
+  private final int[] successorCounts;
+  private final int[] predecessorCounts;
+  private final int[][] outLabels;
+  private final int[][] inLabels;
+  private final int[] outCounts;
+  private final int[] inCounts;
+  private final int[] hubToComponent;
+
+  // Marks the components visited by the current search.
+  private transient int[] visited;
+  private transient int stamp;
+}
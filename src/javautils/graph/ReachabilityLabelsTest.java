@@ -0,0 +1,107 @@
+package javautils.graph;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import javautils.graph.adt.Graph;
+import javautils.graph.adt.ReachabilityIndex;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link ReachabilityLabels}.</p>
+ */
+public class ReachabilityLabelsTest extends TestCase {
+
+  /**
+   * <p>Tests the labels against searches on random cyclic graphs.</p>
+   */
+  public void testAgainstSearch() {
+    for (int round=0; round<4; ++round) {
+      Graph graph = Graphs.randomGraph(200, 100 + 100 * round);
+      assertSameReachability(graph, ReachabilityLabels.of(graph));
+    }
+  }
+
+  /**
+   * <p>Tests that adding the edges of a random DAG to the labels of a
+   * subgraph gives the reachability of the whole DAG, and that an edge
+   * closing a cycle is rejected.</p>
+   */
+  public void testAddEdges() {
+    Random random = new Random(22);
+    int n = 150;
+    int[][] edges = new int[400][];
+    for (int e=0; e<edges.length; ++e) {
+      int a = random.nextInt(n);
+      int b = random.nextInt(n);
+      edges[e] = new int[]{Math.min(a, b), Math.max(a, b)};
+    }
+
+    ReachabilityLabels labels = ReachabilityLabels.of(dag(n, edges, edges.length / 4));
+    for (int e=edges.length/4; e<edges.length; ++e)
+      labels.addEdge(new Integer(edges[e][0]), new Integer(edges[e][1]));
+    assertSameReachability(dag(n, edges, edges.length), labels);
+
+    Object source = new Integer(edges[0][0]);
+    Object target = new Integer(edges[0][1]);
+    if (!source.equals(target)) {
+      try {
+        labels.addEdge(target, source);
+        fail();
+      } catch (IllegalArgumentException e) {
+        // Expected.
+      }
+    }
+  }
+
+  /**
+   * <p>Tests that labels read back from an object stream answer the same
+   * queries.</p>
+   */
+  public void testSerialization() throws Exception {
+    Graph graph = Graphs.randomGraph(100, 150);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(ReachabilityLabels.of(graph));
+    out.close();
+
+    ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    assertSameReachability(graph, (ReachabilityLabels)in.readObject());
+  }
+
+  private static void assertSameReachability(Graph graph, ReachabilityIndex index) {
+    List nodes = graph.nodes();
+    for (int i=0; i<nodes.size(); ++i) {
+      Set reachable = Graphs.nodesReachableFrom(graph, nodes.get(i));
+      for (int j=0; j<nodes.size(); ++j)
+        assertEquals(reachable.contains(nodes.get(j)), index.reaches(nodes.get(i), nodes.get(j)));
+    }
+  }
+
+  /**
+   * <p>A graph of the nodes <code>0..n-1</code> with the first
+   * <code>count</code> of the edges.</p>
+   */
+  private static Graph dag(int n, int[][] edges, int count) {
+    Object[] nodes = new Object[n];
+    int[] offsets = new int[n + 1];
+    int[] targets = new int[count];
+
+    for (int i=0; i<n; ++i)
+      nodes[i] = new Integer(i);
+    for (int e=0; e<count; ++e)
+      ++offsets[edges[e][0] + 1];
+    for (int i=0; i<n; ++i)
+      offsets[i + 1] += offsets[i];
+    int[] next = new int[n];
+    System.arraycopy(offsets, 0, next, 0, n);
+    for (int e=0; e<count; ++e)
+      targets[next[edges[e][0]]++] = edges[e][1];
+    return new CsrGraph(nodes, offsets, targets);
+  }
+}
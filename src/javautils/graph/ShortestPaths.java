@@ -0,0 +1,291 @@
+package javautils.graph;
+
+import java.util.LinkedList;
+import java.util.List;
+import javautils.dispensers.BinaryHeap;
+import javautils.dispensers.PriorityDispenser;
+import javautils.fun.Function;
+import javautils.fun.ObjectToDouble;
+import javautils.graph.adt.AugmentedGraph;
+import javautils.graph.adt.Graph;
+import javautils.maps.ObjectToIntMap;
+
+/**
+ * <p>Shortest paths from a source node in a graph with non-negative edge
+ * weights, computed using Dijkstra's algorithm or A*.</p>
+ *
+ * <p>Edge weights are given by a function from edges to
+ * <code>double</code>s, for example an {@link ObjectToDouble}. Nodes are
+ * numbered in the order in which the search discovers them, and the
+ * distances and shortest path tree are kept in arrays indexed by those
+ * numbers, so only the discovered part of the graph takes space.</p>
+ *
+ * <p>A search towards a target stops as soon as the target is settled.
+ * In that case, only the distances of the settled nodes are final, and
+ * {@link #isSettled isSettled} tells which nodes they are.</p>
+ */
+public final class ShortestPaths {
+
+  /**
+   * <p>Shortest paths from the source to all reachable nodes.</p>
+   */
+  public static ShortestPaths dijkstra(Graph graph, Object source, Function edgeWeight) {
+    return dijkstra(graph, source, null, edgeWeight);
+  }
+
+  /**
+   * <p>Shortest paths from the source, stopping once the target has been
+   * settled. If the target is <code>null</code>, all reachable nodes are
+   * settled.</p>
+   */
+  public static ShortestPaths dijkstra(Graph graph, Object source, Object target, Function edgeWeight) {
+    ShortestPaths result = new ShortestPaths(graph, false, ObjectToDouble.from(edgeWeight), null);
+    result.start(source);
+    result.settleUntil(target);
+    return result;
+  }
+
+  /**
+   * <p>Shortest paths from the source, stopping once the target has been
+   * settled, using A* with the given heuristic.</p>
+   *
+   * <p>The heuristic estimates the distance from a node to the target. It
+   * must be consistent: it must never exceed the weight of an edge plus
+   * the estimate at the target of the edge, and it must be
+   * <code>0</code> at the target. A consistent heuristic never
+   * overestimates, so the result is exact, and a tighter heuristic
+   * settles fewer nodes.</p>
+   */
+  public static ShortestPaths aStar(Graph graph, Object source, Object target, Function edgeWeight, Function heuristic) {
+    assert null != target;
+
+    ShortestPaths result =
+      new ShortestPaths(graph, false, ObjectToDouble.from(edgeWeight), ObjectToDouble.from(heuristic));
+    result.start(source);
+    result.settleUntil(target);
+    return result;
+  }
+
+  /**
+   * <p>A shortest path from the source to the target as a list of edges,
+   * or <code>null</code> if the target is not reachable from the
+   * source.</p>
+   *
+   * <p>The path is computed by bidirectional Dijkstra: a forward search
+   * from the source and a backward search from the target, over the
+   * {@link Graphs#augmented augmented} view of the graph, alternately
+   * settle nodes until the sum of the least tentative distances of the
+   * searches is at least the length of the shortest path found so far.
+   * This typically settles far fewer nodes than a single search.</p>
+   */
+  public static List bidirectional(Graph graph, Object source, Object target, Function edgeWeight) {
+    if (source.equals(target))
+      return new LinkedList();
+
+    AugmentedGraph augmented = Graphs.augmented(graph);
+    ObjectToDouble weight = ObjectToDouble.from(edgeWeight);
+    ShortestPaths forward = new ShortestPaths(augmented, false, weight, null);
+    ShortestPaths backward = new ShortestPaths(augmented, true, weight, null);
+
+    forward.start(source);
+    backward.start(target);
+    forward.other = backward;
+    backward.other = forward;
+
+    while (forward.notDone() && backward.notDone() &&
+           forward.leastTentative() + backward.leastTentative() < forward.bestMeeting) {
+      ShortestPaths next = forward.heap.size() <= backward.heap.size() ? forward : backward;
+      next.settleNext();
+      forward.bestMeeting = backward.bestMeeting = Math.min(forward.bestMeeting, backward.bestMeeting);
+    }
+
+    Object meetingEdge =
+      null != forward.meetingEdge && forward.bestMeeting == forward.meetingLength
+      ? forward.meetingEdge
+      : backward.meetingEdge;
+    if (null == meetingEdge)
+      return null;
+
+    LinkedList path = (LinkedList)forward.pathTo(augmented.sourceOf(meetingEdge));
+    path.addLast(meetingEdge);
+    for (Object node = augmented.targetOf(meetingEdge); !node.equals(target);) {
+      Object edge = backward.predecessorEdges[backward.nodeToIndexMap.get(node)];
+      path.addLast(edge);
+      node = augmented.targetOf(edge);
+    }
+    return path;
+  }
+
+  /**
+   * <p>The source node.</p>
+   */
+  public Object source() {
+    return nodes[0];
+  }
+
+  /**
+   * <p>The length of the shortest known path from the source to the node,
+   * or {@link Double#POSITIVE_INFINITY} if no path is known. The length
+   * is final if the node {@link #isSettled is settled}.</p>
+   */
+  public double distanceTo(Object node) {
+    int i = nodeToIndexMap.getOr(node, -1);
+    return -1 == i ? Double.POSITIVE_INFINITY : distances[i];
+  }
+
+  /**
+   * <p>True if and only if the shortest path to the node is known.</p>
+   */
+  public boolean isSettled(Object node) {
+    int i = nodeToIndexMap.getOr(node, -1);
+    return -1 != i && !handles[i].isQueued();
+  }
+
+  /**
+   * <p>The edges of the shortest known path from the source to the node,
+   * or <code>null</code> if no path is known.</p>
+   */
+  public List pathTo(Object node) {
+    int i = nodeToIndexMap.getOr(node, -1);
+    if (-1 == i)
+      return null;
+
+    LinkedList path = new LinkedList();
+    for (; 0 != i; i = nodeToIndexMap.get(endOf(predecessorEdges[i], true)))
+      path.addFirst(predecessorEdges[i]);
+    return path;
+  }
+
+  /**
+   * <p>The number of nodes settled by the search.</p>
+   */
+  public int settledCount() {
+    return settled;
+  }
+
+  private ShortestPaths(Graph graph, boolean backward, ObjectToDouble edgeWeight, ObjectToDouble heuristic) {
+    this.graph = graph;
+    this.backward = backward;
+    this.edgeWeight = edgeWeight;
+    this.heuristic = heuristic;
+  }
+
+  /**
+   * <p>Settles nodes until the target has been settled or, if the target
+   * is <code>null</code>, all reachable nodes have been settled.</p>
+   */
+  private void settleUntil(Object target) {
+    while (notDone())
+      if (settleNext().equals(target))
+        return;
+  }
+
+  private void start(Object source) {
+    discover(source, 0.0, null);
+  }
+
+  private boolean notDone() {
+    return heap.notEmpty();
+  }
+
+  private double leastTentative() {
+    return heap.isEmpty() ? Double.POSITIVE_INFINITY : distances[((Integer)heap.peek()).intValue()];
+  }
+
+  /**
+   * <p>Settles the queued node with the least priority, relaxes its
+   * edges and returns the node.</p>
+   */
+  private Object settleNext() {
+    int u = ((Integer)heap.pop()).intValue();
+    Object node = nodes[u];
+    List edges = backward ? ((AugmentedGraph)graph).edgesTo(node) : graph.edgesFrom(node);
+
+    ++settled;
+    for (int e=0, n=edges.size(); e<n; ++e) {
+      Object edge = edges.get(e);
+      double weight = edgeWeight.with(edge);
+      assert 0.0 <= weight;
+
+      double distance = distances[u] + weight;
+      Object next = endOf(edge, false);
+      int v = nodeToIndexMap.getOr(next, -1);
+
+      if (-1 == v) {
+        discover(next, distance, edge);
+      } else if (distance < distances[v] && handles[v].isQueued()) {
+        distances[v] = distance;
+        predecessorEdges[v] = edge;
+        heap.decreaseKey(handles[v]);
+      }
+
+      if (null != other) {
+        int w = other.nodeToIndexMap.getOr(next, -1);
+        if (-1 != w && distance + other.distances[w] < bestMeeting) {
+          bestMeeting = meetingLength = distance + other.distances[w];
+          meetingEdge = edge;
+        }
+      }
+    }
+    return node;
+  }
+
+  /**
+   * <p>The node at the far end of the edge in the direction of the search
+   * or, if <code>near</code> is true, at the near end.</p>
+   */
+  private Object endOf(Object edge, boolean near) {
+    return backward != near ? graph.sourceOf(edge) : graph.targetOf(edge);
+  }
+
+  private void discover(Object node, double distance, Object edge) {
+    if (count == nodes.length) {
+      int capacity = 2 * count;
+      nodes = (Object[])grow(nodes, new Object[capacity]);
+      predecessorEdges = (Object[])grow(predecessorEdges, new Object[capacity]);
+      handles = (PriorityDispenser.Handle[])grow(handles, new PriorityDispenser.Handle[capacity]);
+      distances = (double[])grow(distances, new double[capacity]);
+      estimates = (double[])grow(estimates, new double[capacity]);
+    }
+
+    int i = count++;
+    nodeToIndexMap.put(node, i);
+    nodes[i] = node;
+    distances[i] = distance;
+    estimates[i] = null == heuristic ? 0.0 : heuristic.with(node);
+    predecessorEdges[i] = edge;
+    handles[i] = heap.insert(new Integer(i));
+  }
+
+  private Object grow(Object from, Object to) {
+    System.arraycopy(from, 0, to, 0, count);
+    return to;
+  }
+
+  private final Graph graph;
+  private final boolean backward;
+  private final ObjectToDouble edgeWeight;
+  private final ObjectToDouble heuristic;
+
+  private final ObjectToIntMap nodeToIndexMap = new ObjectToIntMap();
+  private Object[] nodes = new Object[16];
+  private Object[] predecessorEdges = new Object[16];
+  private PriorityDispenser.Handle[] handles = new PriorityDispenser.Handle[16];
+  private double[] distances = new double[16];
+  private double[] estimates = new double[16];
+  private int count = 0;
+  private int settled = 0;
+
+  private final PriorityDispenser heap =
+    new BinaryHeap(new ObjectToDouble() {
+        public double with(Object index) {
+          int i = ((Integer)index).intValue();
+          return distances[i] + estimates[i];
+        }});
+
+  // State of a bidirectional search.
+  private ShortestPaths other;
+  private double bestMeeting = Double.POSITIVE_INFINITY;
+  private double meetingLength = Double.POSITIVE_INFINITY;
+  private Object meetingEdge;
+}
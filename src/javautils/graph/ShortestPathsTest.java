@@ -0,0 +1,116 @@
+package javautils.graph;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import javautils.fun.ObjectToDouble;
+import javautils.graph.adt.Graph;
+import javautils.maps.ObjectToDoubleMap;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link ShortestPaths}.</p>
+ */
+public class ShortestPathsTest extends TestCase {
+
+  private static final int NODES = 300;
+
+  /**
+   * <p>Tests Dijkstra, bidirectional Dijkstra and A* against the
+   * Bellman-Ford algorithm on random graphs with random weights.</p>
+   */
+  public void testAgainstBellmanFord() {
+    Random random = new Random(99);
+
+    for (int round=0; round<5; ++round) {
+      Graph graph = Graphs.randomGraph(NODES, 4 * NODES);
+      final ObjectToDoubleMap weights = new ObjectToDoubleMap();
+      for (Iterator edges = Graphs.edges(graph); edges.hasNext();)
+        weights.put(edges.next(), random.nextInt(100));
+      ObjectToDouble weight = new ObjectToDouble() {
+          public double with(Object edge) {
+            return weights.get(edge);
+          }};
+
+      Object source = graph.nodes().get(random.nextInt(NODES));
+      final Object target = graph.nodes().get(random.nextInt(NODES));
+      double[] expected = bellmanFord(graph, source, weights, false);
+      final double[] toTarget = bellmanFord(graph, target, weights, true);
+
+      ShortestPaths all = ShortestPaths.dijkstra(graph, source, weight);
+      for (int i=0; i<NODES; ++i) {
+        Object node = graph.nodes().get(i);
+        assertEquals(expected[i], all.distanceTo(node), 0.0);
+        if (all.isSettled(node))
+          assertEquals(expected[i], length(all.pathTo(node), weights), 0.0);
+      }
+
+      int t = ((Integer)target).intValue();
+      int notFarther = 0;
+      for (int i=0; i<NODES; ++i)
+        if (expected[i] <= expected[t])
+          ++notFarther;
+
+      ShortestPaths toward = ShortestPaths.dijkstra(graph, source, target, weight);
+      assertEquals(expected[t], toward.distanceTo(target), 0.0);
+      assertTrue(toward.settledCount() <= notFarther);
+
+      ShortestPaths aStar =
+        ShortestPaths.aStar(graph, source, target, weight,
+                            new ObjectToDouble() {
+                              public double with(Object node) {
+                                double exact = toTarget[((Integer)node).intValue()];
+                                return Double.isInfinite(exact) ? 0.0 : exact / 2;
+                              }});
+      assertEquals(expected[t], aStar.distanceTo(target), 0.0);
+      assertTrue(aStar.settledCount() <= notFarther);
+
+      List path = ShortestPaths.bidirectional(graph, source, target, weight);
+      if (Double.isInfinite(expected[t])) {
+        assertNull(path);
+      } else {
+        assertEquals(expected[t], length(path, weights), 0.0);
+        Object node = source;
+        for (int i=0; i<path.size(); ++i) {
+          assertEquals(node, graph.sourceOf(path.get(i)));
+          node = graph.targetOf(path.get(i));
+        }
+        assertEquals(target, node);
+      }
+    }
+  }
+
+  private static double length(List path, ObjectToDoubleMap weights) {
+    double result = 0.0;
+    for (int i=0; i<path.size(); ++i)
+      result += weights.get(path.get(i));
+    return result;
+  }
+
+  /**
+   * <p>Distances from the source, or to the source if
+   * <code>transposed</code>, indexed by the integer nodes of a random
+   * graph.</p>
+   */
+  private static double[] bellmanFord(Graph graph, Object source, ObjectToDoubleMap weights, boolean transposed) {
+    double[] distances = new double[NODES];
+    Arrays.fill(distances, Double.POSITIVE_INFINITY);
+    distances[((Integer)source).intValue()] = 0.0;
+
+    for (boolean changed = true; changed;) {
+      changed = false;
+      for (Iterator edges = Graphs.edges(graph); edges.hasNext();) {
+        Object edge = edges.next();
+        int from = ((Integer)(transposed ? graph.targetOf(edge) : graph.sourceOf(edge))).intValue();
+        int to = ((Integer)(transposed ? graph.sourceOf(edge) : graph.targetOf(edge))).intValue();
+        if (distances[from] + weights.get(edge) < distances[to]) {
+          distances[to] = distances[from] + weights.get(edge);
+          changed = true;
+        }
+      }
+    }
+    return distances;
+  }
+}
@@ -0,0 +1,604 @@
+package javautils.graph;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javautils.Exceptions;
+import javautils.graph.adt.Graph;
+import javautils.graph.adt.IndexedGraph;
+
+/**
+ * <p>The strongly connected components of a directed graph, computed in
+ * a single pass by Tarjan's algorithm [<a
+ * href="{@docRoot}/overview-summary.html#[Tarjan1972]">Tarjan1972</a>].</p>
+ *
+ * <p>The search is iterative, so it does not overflow the call stack on
+ * deep graphs, and unlike the two pass algorithm of Kosaraju it does not
+ * need the transposed graph. All state is kept in <code>int</code>-arrays
+ * indexed by the node indices of an {@link IndexedGraph}.</p>
+ *
+ * <p>Components are numbered <code>0..count()-1</code> in topological
+ * order of the {@link #condensation condensation}: every edge between two
+ * components goes from a lower numbered component to a higher numbered
+ * one. The nodes of each component are listed in the order in which the
+ * search discovered them.</p>
+ *
+ * <p>The components can also be computed in parallel by the
+ * forward-backward algorithm [<a
+ * href="{@docRoot}/overview-summary.html#[Fleischer2000]">Fleischer2000</a>],
+ * see {@link #of(Graph, ExecutorService)}.</p>
+ */
+public final class StronglyConnectedComponents {
+
+  /**
+   * <p>The strongly connected components of the graph. A graph that is
+   * not an {@link IndexedGraph} is {@link Graphs#compressed
+   * compressed} first.</p>
+   */
+  public static StronglyConnectedComponents of(Graph graph) {
+    return new StronglyConnectedComponents(graph instanceof IndexedGraph
+                                           ? (IndexedGraph)graph
+                                           : Graphs.compressed(graph));
+  }
+
+  /**
+   * <p>The strongly connected components of the graph computed in
+   * parallel by tasks executed by the executor.</p>
+   *
+   * <p>The nodes of a subgraph are first trimmed: nodes without incoming
+   * or outgoing edges within the subgraph are components by themselves.
+   * Then the nodes reachable forwards and backwards from a pivot node are
+   * searched. Their intersection is the component of the pivot, and the
+   * forward only, backward only and remaining nodes form three subgraphs
+   * that share no components and are processed independently. Subgraphs
+   * of at least {@link #SPAWN_THRESHOLD} nodes are submitted as new tasks
+   * to the executor. Tasks never wait for each other, so any executor can
+   * be used. A subgraph whose task is rejected by the executor is
+   * processed by the task that created it, or by the calling thread.</p>
+   *
+   * <p>The components are numbered in topological order like with the
+   * sequential algorithm, but the nodes of each component are in index
+   * order.</p>
+   */
+  public static StronglyConnectedComponents of(Graph graph, ExecutorService executor) {
+    IndexedGraph indexed = graph instanceof IndexedGraph ? (IndexedGraph)graph : Graphs.compressed(graph);
+    ForwardBackward search = new ForwardBackward(indexed, executor);
+    return new StronglyConnectedComponents(indexed, search.run(), search.labelCount());
+  }
+
+  /**
+   * <p>Subgraphs with fewer nodes are processed by the task that created
+   * them in {@link #of(Graph, ExecutorService)}.</p>
+   */
+  public static final int SPAWN_THRESHOLD = 1024;
+
+  /**
+   * <p>The number of components.</p>
+   */
+  public int count() {
+    return offsets.length - 1;
+  }
+
+  /**
+   * <p>The number of the component of the node.</p>
+   */
+  public int componentOf(Object node) {
+    int i = graph.indexOf(node);
+    assert 0 <= i : "Object '" + node + "' is not a node of the graph.";
+    return componentOf[i];
+  }
+
+  /**
+   * <p>The number of the component of the node with the specified
+   * index.</p>
+   */
+  public int componentOf(int node) {
+    return componentOf[node];
+  }
+
+  /**
+   * <p>An unmodifiable list of the nodes of the component.</p>
+   */
+  public List nodesOf(final int component) {
+    final int begin = offsets[component];
+    final int size = offsets[component + 1] - begin;
+
+    return new AbstractList() {
+        public Object get(int i) {
+          if (i < 0 || size <= i)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+          return graph.node(members[begin + i]);
+        }
+
+        public int size() {
+          return size;
+        }
+      };
+  }
+
+  /**
+   * <p>The indexed graph whose components these are. It is the original
+   * graph or its compressed copy.</p>
+   */
+  IndexedGraph indexedGraph() {
+    return graph;
+  }
+
+  /**
+   * <p>An unmodifiable list of the {@link #nodesOf node lists} of all
+   * components in order.</p>
+   */
+  public List asList() {
+    return new AbstractList() {
+        public Object get(int component) {
+          if (component < 0 || count() <= component)
+            throw new IndexOutOfBoundsException("Index: " + component + ", Size: " + count());
+          return nodesOf(component);
+        }
+
+        public int size() {
+          return count();
+        }
+      };
+  }
+
+  /**
+   * <p>The condensation of the graph: the acyclic graph whose nodes are
+   * the component numbers as {@link Integer}s and that has one edge from
+   * component <code>c</code> to component <code>d</code> if and only if
+   * the graph has an edge from a node of <code>c</code> to a node of
+   * <code>d</code> and <code>c != d</code>. The {@link CsrGraph#edgeIdOf
+   * identifier} of each edge of the condensation is the index of one such
+   * edge of the graph.</p>
+   */
+  public CsrGraph condensation() {
+    int count = count();
+    Object[] nodes = new Object[count];
+    int[] condensedOffsets = new int[count + 1];
+    int[] targets = new int[16];
+    int[] edgeIds = new int[16];
+    int[] lastSource = new int[count];
+    int edgeCount = 0;
+
+    for (int c=0; c<count; ++c)
+      lastSource[c] = -1;
+
+    for (int c=0; c<count; ++c) {
+      nodes[c] = new Integer(c);
+      for (int i=offsets[c]; i<offsets[c + 1]; ++i) {
+        int node = members[i];
+        for (int edge=graph.edgesBegin(node), end=graph.edgesEnd(node); edge<end; ++edge) {
+          int d = componentOf[graph.targetIndexOf(edge)];
+          if (d == c || lastSource[d] == c)
+            continue;
+
+          assert c < d;
+          lastSource[d] = c;
+          if (edgeCount == targets.length) {
+            targets = grow(targets);
+            edgeIds = grow(edgeIds);
+          }
+          targets[edgeCount] = d;
+          edgeIds[edgeCount++] = edge;
+        }
+      }
+      condensedOffsets[c + 1] = edgeCount;
+    }
+
+    return new CsrGraph(nodes, condensedOffsets, trim(targets, edgeCount), trim(edgeIds, edgeCount));
+  }
+
+  private StronglyConnectedComponents(IndexedGraph graph) {
+    this.graph = graph;
+
+    int n = graph.nodeCount();
+    int[] index = new int[n];
+    int[] low = new int[n];
+    int[] stack = new int[n];
+    int[] callNodes = new int[n];
+    int[] callEdges = new int[n];
+    int[] blockBegins = new int[n + 1];
+    int stackSize = 0;
+    int callDepth = 0;
+    int discovered = 0;
+    int finished = 0;
+
+    componentOf = new int[n];
+    members = new int[n];
+    for (int node=0; node<n; ++node) {
+      index[node] = -1;
+      componentOf[node] = -1;
+    }
+
+    // Components are finished in reverse topological order, so their
+    // nodes are stored into the members array from the end towards the
+    // beginning.
+    int membersBegin = n;
+
+    for (int root=0; root<n; ++root) {
+      if (-1 != index[root])
+        continue;
+
+      index[root] = low[root] = discovered++;
+      stack[stackSize++] = root;
+      callNodes[callDepth] = root;
+      callEdges[callDepth++] = graph.edgesBegin(root);
+
+      while (0 < callDepth) {
+        int node = callNodes[callDepth - 1];
+        int edge = callEdges[callDepth - 1];
+
+        if (edge < graph.edgesEnd(node)) {
+          callEdges[callDepth - 1] = edge + 1;
+          int target = graph.targetIndexOf(edge);
+
+          if (-1 == index[target]) {
+            index[target] = low[target] = discovered++;
+            stack[stackSize++] = target;
+            callNodes[callDepth] = target;
+            callEdges[callDepth++] = graph.edgesBegin(target);
+          } else if (-1 == componentOf[target] && index[target] < low[node]) {
+            low[node] = index[target];
+          }
+          continue;
+        }
+
+        --callDepth;
+        if (low[node] == index[node]) {
+          int top = stackSize;
+          do {
+            componentOf[stack[--stackSize]] = finished;
+          } while (stack[stackSize] != node);
+
+          membersBegin -= top - stackSize;
+          System.arraycopy(stack, stackSize, members, membersBegin, top - stackSize);
+          blockBegins[finished++] = membersBegin;
+        }
+        if (0 < callDepth) {
+          int parent = callNodes[callDepth - 1];
+          if (low[node] < low[parent])
+            low[parent] = low[node];
+        }
+      }
+    }
+
+    offsets = new int[finished + 1];
+    for (int k=0; k<finished; ++k)
+      offsets[finished - 1 - k] = blockBegins[k];
+    offsets[finished] = n;
+    for (int node=0; node<n; ++node)
+      componentOf[node] = finished - 1 - componentOf[node];
+  }
+
+  /**
+   * <p>Components given by a label for each node. The components are
+   * numbered in topological order by Kahn's algorithm on the
+   * labels.</p>
+   */
+  private StronglyConnectedComponents(IndexedGraph graph, int[] labels, int labelCount) {
+    this.graph = graph;
+
+    int n = graph.nodeCount();
+    int[] labelBegins = new int[labelCount + 1];
+    int[] nodesByLabel = new int[n];
+    int[] inDegrees = new int[labelCount];
+    int[] order = new int[labelCount];
+    int[] ranks = new int[labelCount];
+
+    for (int node=0; node<n; ++node) {
+      ++labelBegins[labels[node] + 1];
+      for (int edge=graph.edgesBegin(node), end=graph.edgesEnd(node); edge<end; ++edge)
+        if (labels[graph.targetIndexOf(edge)] != labels[node])
+          ++inDegrees[labels[graph.targetIndexOf(edge)]];
+    }
+    for (int label=0; label<labelCount; ++label)
+      labelBegins[label + 1] += labelBegins[label];
+    int[] next = new int[labelCount];
+    System.arraycopy(labelBegins, 0, next, 0, labelCount);
+    for (int node=0; node<n; ++node)
+      nodesByLabel[next[labels[node]]++] = node;
+
+    int ordered = 0;
+    for (int label=0; label<labelCount; ++label)
+      if (0 == inDegrees[label])
+        order[ordered++] = label;
+    for (int i=0; i<ordered; ++i) {
+      int label = order[i];
+      ranks[label] = i;
+      for (int j=labelBegins[label]; j<labelBegins[label + 1]; ++j) {
+        int node = nodesByLabel[j];
+        for (int edge=graph.edgesBegin(node), end=graph.edgesEnd(node); edge<end; ++edge) {
+          int target = labels[graph.targetIndexOf(edge)];
+          if (target != label && 0 == --inDegrees[target])
+            order[ordered++] = target;
+        }
+      }
+    }
+    assert labelCount == ordered : "The labels are not strongly connected components.";
+
+    componentOf = new int[n];
+    members = new int[n];
+    offsets = new int[labelCount + 1];
+    for (int node=0; node<n; ++node) {
+      componentOf[node] = ranks[labels[node]];
+      ++offsets[componentOf[node] + 1];
+    }
+    for (int c=0; c<labelCount; ++c)
+      offsets[c + 1] += offsets[c];
+    System.arraycopy(offsets, 0, next, 0, labelCount);
+    for (int node=0; node<n; ++node)
+      members[next[componentOf[node]]++] = node;
+  }
+
+  /**
+   * <p>The state of a parallel forward-backward search.</p>
+   *
+   * <p>Each subgraph has a unique id and <code>partitions[node]</code> is
+   * the id of the subgraph of the node, or <code>-1</code> once the
+   * component of the node is known. Only the task that owns a subgraph
+   * writes the entries of its nodes. Tasks read the partition ids of
+   * nodes owned by other tasks without synchronization, but those ids are
+   * never equal to the ids of the reading task, so a stale value does not
+   * matter.</p>
+   */
+  private static final class ForwardBackward {
+    ForwardBackward(IndexedGraph graph, ExecutorService executor) {
+      this.graph = graph;
+      this.executor = executor;
+
+      int n = graph.nodeCount();
+      partitions = new int[n];
+      labels = new int[n];
+      inDegrees = new int[n];
+      outDegrees = new int[n];
+      inBegin = new int[n + 1];
+      inSources = new int[graph.edgeCount()];
+
+      for (int node=0; node<n; ++node)
+        for (int edge=graph.edgesBegin(node), end=graph.edgesEnd(node); edge<end; ++edge)
+          ++inBegin[graph.targetIndexOf(edge) + 1];
+      for (int node=0; node<n; ++node)
+        inBegin[node + 1] += inBegin[node];
+      int[] next = new int[n];
+      System.arraycopy(inBegin, 0, next, 0, n);
+      for (int node=0; node<n; ++node)
+        for (int edge=graph.edgesBegin(node), end=graph.edgesEnd(node); edge<end; ++edge)
+          inSources[next[graph.targetIndexOf(edge)]++] = node;
+    }
+
+    int[] run() {
+      int n = graph.nodeCount();
+      int[] nodes = new int[n];
+      for (int node=0; node<n; ++node)
+        nodes[node] = node;
+
+      if (0 < n) {
+        int partition = nextPartition.getAndIncrement();
+        if (!submit(partition, nodes))
+          solveQuietly(partition, nodes);
+        synchronized (this) {
+          while (0 < pending.get()) {
+            try {
+              wait();
+            } catch (InterruptedException e) {
+              throw Exceptions.toThrowUnchecked(e);
+            }
+          }
+        }
+      }
+      if (null != failure)
+        throw Exceptions.toThrowUnchecked(failure);
+      return labels;
+    }
+
+    int labelCount() {
+      return nextLabel.get();
+    }
+
+    /**
+     * <p>Submits the subgraph as a new task. Returns false if the executor
+     * rejects the task, in which case the caller must solve the subgraph
+     * itself.</p>
+     */
+    private boolean submit(final int partition, final int[] nodes) {
+      pending.incrementAndGet();
+      try {
+        executor.execute(new Runnable() {
+            public void run() {
+              try {
+                solveQuietly(partition, nodes);
+              } finally {
+                finished();
+              }
+            }});
+        return true;
+      } catch (RejectedExecutionException e) {
+        finished();
+        return false;
+      }
+    }
+
+    private void solveQuietly(int partition, int[] nodes) {
+      try {
+        solve(partition, nodes);
+      } catch (Throwable t) {
+        failure = t;
+      }
+    }
+
+    private void finished() {
+      if (0 == pending.decrementAndGet())
+        synchronized (this) {
+          notifyAll();
+        }
+    }
+
+    private void solve(int partition, int[] nodes) {
+      List todo = new ArrayList();
+      todo.add(new Object[]{new Integer(partition), nodes});
+
+      while (!todo.isEmpty() && null == failure) {
+        Object[] subgraph = (Object[])todo.remove(todo.size() - 1);
+        int p = ((Integer)subgraph[0]).intValue();
+        int[] members = (int[])subgraph[1];
+
+        int pivot = trim(p, members);
+        if (-1 == pivot)
+          continue;
+
+        int fw = nextPartition.getAndIncrement();
+        int bw = nextPartition.getAndIncrement();
+        int[] queue = new int[members.length];
+        int size = 0;
+
+        partitions[pivot] = fw;
+        queue[size++] = pivot;
+        for (int i=0; i<size; ++i)
+          for (int edge=graph.edgesBegin(queue[i]), end=graph.edgesEnd(queue[i]); edge<end; ++edge) {
+            int target = graph.targetIndexOf(edge);
+            if (p == partitions[target]) {
+              partitions[target] = fw;
+              queue[size++] = target;
+            }
+          }
+
+        int label = nextLabel.getAndIncrement();
+        size = 0;
+        partitions[pivot] = -1;
+        labels[pivot] = label;
+        queue[size++] = pivot;
+        for (int i=0; i<size; ++i)
+          for (int j=inBegin[queue[i]], end=inBegin[queue[i] + 1]; j<end; ++j) {
+            int source = inSources[j];
+            if (fw == partitions[source]) {
+              partitions[source] = -1;
+              labels[source] = label;
+              queue[size++] = source;
+            } else if (p == partitions[source]) {
+              partitions[source] = bw;
+              queue[size++] = source;
+            }
+          }
+
+        split(todo, members, fw);
+        split(todo, members, bw);
+        split(todo, members, p);
+      }
+    }
+
+    /**
+     * <p>Adds the nodes of the subgraph with the given id to the list of
+     * subgraphs to process or submits them as a new task. A subgraph
+     * whose task is rejected by the executor is processed by the current
+     * task.</p>
+     */
+    private void split(List todo, int[] members, int p) {
+      int size = 0;
+      for (int i=0; i<members.length; ++i)
+        if (p == partitions[members[i]])
+          ++size;
+      if (0 == size)
+        return;
+
+      int[] nodes = new int[size];
+      size = 0;
+      for (int i=0; i<members.length; ++i)
+        if (p == partitions[members[i]])
+          nodes[size++] = members[i];
+
+      if (size < SPAWN_THRESHOLD || !submit(p, nodes))
+        todo.add(new Object[]{new Integer(p), nodes});
+    }
+
+    /**
+     * <p>Repeatedly removes the nodes of the subgraph that have no
+     * incoming or outgoing edges within the subgraph, making each a
+     * component of its own. Returns a remaining node of the subgraph or
+     * <code>-1</code>.</p>
+     */
+    private int trim(int p, int[] members) {
+      int[] queue = new int[members.length];
+      int size = 0;
+
+      for (int i=0; i<members.length; ++i) {
+        int node = members[i];
+        inDegrees[node] = outDegrees[node] = 0;
+        for (int edge=graph.edgesBegin(node), end=graph.edgesEnd(node); edge<end; ++edge)
+          if (p == partitions[graph.targetIndexOf(edge)])
+            ++outDegrees[node];
+        for (int j=inBegin[node], end=inBegin[node + 1]; j<end; ++j)
+          if (p == partitions[inSources[j]])
+            ++inDegrees[node];
+      }
+      for (int i=0; i<members.length; ++i) {
+        int node = members[i];
+        if (0 == inDegrees[node] || 0 == outDegrees[node]) {
+          partitions[node] = TRIMMED;
+          queue[size++] = node;
+        }
+      }
+
+      for (int i=0; i<size; ++i) {
+        int node = queue[i];
+        partitions[node] = -1;
+        labels[node] = nextLabel.getAndIncrement();
+
+        for (int edge=graph.edgesBegin(node), end=graph.edgesEnd(node); edge<end; ++edge) {
+          int target = graph.targetIndexOf(edge);
+          if (p == partitions[target] && 0 == --inDegrees[target]) {
+            partitions[target] = TRIMMED;
+            queue[size++] = target;
+          }
+        }
+        for (int j=inBegin[node], end=inBegin[node + 1]; j<end; ++j) {
+          int source = inSources[j];
+          if (p == partitions[source] && 0 == --outDegrees[source]) {
+            partitions[source] = TRIMMED;
+            queue[size++] = source;
+          }
+        }
+      }
+
+      for (int i=0; i<members.length; ++i)
+        if (p == partitions[members[i]])
+          return members[i];
+      return -1;
+    }
+
+    // Marks nodes that have been queued for trimming.
+    private static final int TRIMMED = -2;
+
+    private final IndexedGraph graph;
+    private final ExecutorService executor;
+    private final int[] partitions;
+    private final int[] labels;
+    private final int[] inDegrees;
+    private final int[] outDegrees;
+    private final int[] inBegin;
+    private final int[] inSources;
+    private final AtomicInteger nextPartition = new AtomicInteger();
+    private final AtomicInteger nextLabel = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile Throwable failure;
+  }
+
+  private static int[] grow(int[] array) {
+    int[] result = new int[2 * array.length];
+    System.arraycopy(array, 0, result, 0, array.length);
+    return result;
+  }
+
+  private static int[] trim(int[] array, int length) {
+    int[] result = new int[length];
+    System.arraycopy(array, 0, result, 0, length);
+    return result;
+  }
+
+  private final IndexedGraph graph;
+  private final int[] componentOf;
+  private final int[] members;
+  private final int[] offsets;
+}
@@ -0,0 +1,187 @@
+package javautils.graph;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javautils.graph.adt.Graph;
+import javautils.graph.testing.TestGraphConstants;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link StronglyConnectedComponents}.</p>
+ */
+public class StronglyConnectedComponentsTest extends TestCase implements TestGraphConstants {
+
+  /**
+   * <p>Tests the condensation of the {@link
+   * TestGraphConstants#ABCDEFGHIJ_GRAPH ABCDEFGHIJ_GRAPH}.</p>
+   */
+  public void testCondensationOnABCDEFGHIJ() {
+    StronglyConnectedComponents sccs = StronglyConnectedComponents.of(ABCDEFGHIJ_GRAPH);
+    CsrGraph condensation = sccs.condensation();
+
+    assertEquals(5, sccs.count());
+    assertEquals("0: 2[1] 1[2];\n" +
+                 "1: 2[3];\n" +
+                 "2: 3[4] 4[5];\n" +
+                 "3: 4[6];\n" +
+                 "4;\n",
+                 Graphs.asString(condensation));
+
+    CsrGraph compressed = Graphs.compressed(ABCDEFGHIJ_GRAPH);
+    for (int e=0; e<condensation.edgeCount(); ++e) {
+      int edge = condensation.edgeIdOf(e);
+      assertEquals(condensation.sourceIndexOf(e), sccs.componentOf(compressed.sourceIndexOf(edge)));
+      assertEquals(condensation.targetIndexOf(e), sccs.componentOf(compressed.targetIndexOf(edge)));
+    }
+  }
+
+  /**
+   * <p>Tests on random graphs that two nodes are in the same component if
+   * and only if they are reachable from each other, and that the
+   * components are in topological order.</p>
+   */
+  public void testAgainstReachability() {
+    for (int round=0; round<5; ++round) {
+      Graph graph = Graphs.randomGraph(60, 60 + 15 * round);
+      StronglyConnectedComponents sccs = StronglyConnectedComponents.of(graph);
+      List nodes = graph.nodes();
+
+      int total = 0;
+      for (int c=0; c<sccs.count(); ++c) {
+        List component = sccs.nodesOf(c);
+        total += component.size();
+        for (int i=0; i<component.size(); ++i)
+          assertEquals(c, sccs.componentOf(component.get(i)));
+      }
+      assertEquals(nodes.size(), total);
+
+      Set[] reachable = new Set[nodes.size()];
+      for (int i=0; i<nodes.size(); ++i)
+        reachable[i] = Graphs.nodesReachableFrom(graph, nodes.get(i));
+
+      for (int i=0; i<nodes.size(); ++i)
+        for (int j=0; j<nodes.size(); ++j) {
+          int ci = sccs.componentOf(nodes.get(i));
+          int cj = sccs.componentOf(nodes.get(j));
+          boolean forward = reachable[i].contains(nodes.get(j));
+          assertEquals(forward && reachable[j].contains(nodes.get(i)), ci == cj);
+          if (forward)
+            assertTrue(ci <= cj);
+        }
+    }
+  }
+
+  /**
+   * <p>Tests that the parallel forward-backward algorithm finds the same
+   * components as Tarjan's algorithm, on graphs large enough to spawn
+   * tasks, and that the components are in topological order.</p>
+   */
+  public void testParallelAgainstTarjan() {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int round=0; round<4; ++round) {
+        int n = 5 * StronglyConnectedComponents.SPAWN_THRESHOLD;
+        CsrGraph graph = Graphs.compressed(Graphs.randomGraph(n, n / 2 + round * n / 2));
+        StronglyConnectedComponents expected = StronglyConnectedComponents.of(graph);
+        StronglyConnectedComponents actual = StronglyConnectedComponents.of(graph, executor);
+
+        assertEquals(expected.count(), actual.count());
+        int[] expectedToActual = new int[expected.count()];
+        for (int c=0; c<expected.count(); ++c)
+          expectedToActual[c] = -1;
+        for (int node=0; node<n; ++node) {
+          int c = expected.componentOf(node);
+          if (-1 == expectedToActual[c])
+            expectedToActual[c] = actual.componentOf(node);
+          assertEquals(expectedToActual[c], actual.componentOf(node));
+        }
+        for (int c=0; c<expected.count(); ++c)
+          assertEquals(expected.nodesOf(c).size(), actual.nodesOf(expectedToActual[c]).size());
+
+        for (int node=0; node<n; ++node)
+          for (int edge=graph.edgesBegin(node); edge<graph.edgesEnd(node); ++edge)
+            assertTrue(actual.componentOf(node) <= actual.componentOf(graph.targetIndexOf(edge)));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * <p>Tests that the parallel algorithm completes with the right
+   * components when the executor rejects some or all tasks, on a chain of
+   * three cycles that are each large enough to spawn a task.</p>
+   */
+  public void testParallelWithRejectingExecutor() throws Exception {
+    int size = 2000;
+    int n = 3 * size;
+    Object[] nodes = new Object[n];
+    int[] offsets = new int[n + 1];
+    int[] targets = new int[n + 2];
+    int e = 0;
+    for (int i=0; i<n; ++i) {
+      nodes[i] = new Integer(i);
+      targets[e++] = i % size == size - 1 ? i - size + 1 : i + 1;
+      if (i % size == 0 && i + size < n)
+        targets[e++] = i + size;
+      offsets[i + 1] = e;
+    }
+    CsrGraph graph = new CsrGraph(nodes, offsets, targets);
+
+    ExecutorService saturated =
+      new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue(), new ThreadPoolExecutor.AbortPolicy());
+    ExecutorService shutDown = Executors.newSingleThreadExecutor();
+    shutDown.shutdown();
+    try {
+      assertChainOfCycles(graph, saturated, size);
+      assertChainOfCycles(graph, shutDown, size);
+    } finally {
+      saturated.shutdown();
+    }
+  }
+
+  private static void assertChainOfCycles(final CsrGraph graph, final ExecutorService executor, int size)
+    throws Exception {
+    final StronglyConnectedComponents[] result = {null};
+    Thread thread = new Thread() {
+        public void run() {
+          result[0] = StronglyConnectedComponents.of(graph, executor);
+        }};
+    thread.setDaemon(true);
+    thread.start();
+    thread.join(30000);
+    assertFalse(thread.isAlive());
+
+    StronglyConnectedComponents sccs = result[0];
+    assertEquals(3, sccs.count());
+    for (int node=0; node<graph.nodeCount(); ++node)
+      assertEquals(node / size, sccs.componentOf(node));
+  }
+
+  /**
+   * <p>Tests that a long cycle, which would overflow the call stack of a
+   * recursive search, is a single component.</p>
+   */
+  public void testLongCycle() {
+    int n = 200000;
+    Object[] nodes = new Object[n];
+    int[] offsets = new int[n + 1];
+    int[] targets = new int[n];
+    for (int i=0; i<n; ++i) {
+      nodes[i] = new Integer(i);
+      offsets[i + 1] = i + 1;
+      targets[i] = (i + 1) % n;
+    }
+
+    StronglyConnectedComponents sccs = StronglyConnectedComponents.of(new CsrGraph(nodes, offsets, targets));
+    assertEquals(1, sccs.count());
+    assertEquals(n, sccs.nodesOf(0).size());
+    assertEquals(0, sccs.condensation().edgeCount());
+  }
+}
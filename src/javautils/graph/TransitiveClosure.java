@@ -0,0 +1,205 @@
+package javautils.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javautils.ImmutablePair;
+import javautils.graph.adt.Graph;
+import javautils.graph.adt.IndexedGraph;
+import javautils.graph.adt.ReachabilityIndex;
+
+/**
+ * <p>The transitive closure of a graph as a matrix of bits.</p>
+ *
+ * <p>The strongly connected components of the graph are computed first,
+ * because all nodes of a component reach the same nodes. The set of
+ * components reachable from each component is then a bitset, which is
+ * the union of the component itself and the bitsets of its successors in
+ * the {@link StronglyConnectedComponents#condensation condensation}. The
+ * bitsets are computed in reverse topological order, 64 components at a
+ * time per machine word. As components are numbered in topological
+ * order, a component only reaches components with a greater or equal
+ * number, so the bitset of component <code>c</code> only stores the
+ * words from the one containing bit <code>c</code> onwards.</p>
+ *
+ * <p>The closure takes roughly <code>C*C/16</code> bytes for
+ * <code>C</code> components, and answers {@link #reaches reaches} in
+ * constant time.</p>
+ */
+public final class TransitiveClosure implements ReachabilityIndex {
+
+  /**
+   * <p>The transitive closure of the graph.</p>
+   */
+  public static TransitiveClosure of(Graph graph) {
+    TransitiveClosure result = new TransitiveClosure(graph);
+    for (int c=result.rows.length-1; 0<=c; --c)
+      result.propagate(c);
+    return result;
+  }
+
+  /**
+   * <p>The transitive closure of the graph computed in parallel. The
+   * components are grouped by their height in the condensation, that is
+   * the number of edges on a longest path to a sink. The bitsets of all
+   * components of the same height only depend on lower components, so
+   * each height is split into at most <code>parallelism</code> tasks
+   * executed by the executor.</p>
+   */
+  public static TransitiveClosure of(Graph graph, ExecutorService executor, int parallelism) {
+    assert 0 < parallelism;
+
+    final TransitiveClosure result = new TransitiveClosure(graph);
+    CsrGraph condensation = result.condensation;
+    int count = condensation.nodeCount();
+
+    int[] heights = new int[count];
+    int maxHeight = -1;
+    for (int c=count-1; 0<=c; --c) {
+      for (int edge=condensation.edgesBegin(c), end=condensation.edgesEnd(c); edge<end; ++edge)
+        heights[c] = Math.max(heights[c], heights[condensation.targetIndexOf(edge)] + 1);
+      maxHeight = Math.max(maxHeight, heights[c]);
+    }
+
+    int[] begins = new int[maxHeight + 2];
+    final int[] byHeight = new int[count];
+    for (int c=0; c<count; ++c)
+      ++begins[heights[c] + 1];
+    for (int h=0; h<=maxHeight; ++h)
+      begins[h + 1] += begins[h];
+    int[] next = new int[maxHeight + 1];
+    System.arraycopy(begins, 0, next, 0, maxHeight + 1);
+    for (int c=0; c<count; ++c)
+      byHeight[next[heights[c]]++] = c;
+
+    for (int h=0; h<=maxHeight; ++h) {
+      List tasks = new ArrayList();
+      int chunk = (begins[h + 1] - begins[h] + parallelism - 1) / parallelism;
+
+      for (int begin=begins[h]; begin<begins[h + 1]; begin+=chunk) {
+        final int from = begin;
+        final int to = Math.min(begins[h + 1], begin + chunk);
+        tasks.add(new Callable() {
+            public Object call() {
+              for (int i=from; i<to; ++i)
+                result.propagate(byHeight[i]);
+              return null;
+            }});
+      }
+      Graphs.invokeAll(executor, tasks);
+    }
+    return result;
+  }
+
+  public boolean reaches(Object source, Object target) {
+    return reachesComponent(components.componentOf(source), components.componentOf(target));
+  }
+
+  /**
+   * <p>The strongly connected components of the graph.</p>
+   */
+  public StronglyConnectedComponents components() {
+    return components;
+  }
+
+  /**
+   * <p>The transitive, irreflexive closure as a graph with the same nodes
+   * as the original graph. The edges are {@link ImmutablePair}s of the
+   * source and target nodes. There is an edge from <code>a</code> to
+   * <code>b</code> if and only if <code>a != b</code> and <code>a</code>
+   * {@link #reaches reaches} <code>b</code>. The edges from a node are
+   * created from the bitsets on the first call of {@link Graph#edgesFrom
+   * edgesFrom} for the node and kept by the closure, so that later calls,
+   * also on other views returned by this method, take constant time.
+   * Enumerating all edges thus keeps the whole closure in memory as
+   * lists.</p>
+   */
+  public Graph asGraph() {
+    return new GraphDecorator(graph) {
+        public List edgesFrom(Object node) {
+          int index = indexed.indexOf(node);
+          assert 0 <= index : "Object '" + node + "' is not a node of the graph.";
+          List result = (List)edgeLists.get(index);
+
+          if (null == result) {
+            result = Collections.unmodifiableList(closureEdgesFrom(node, components.componentOf(index)));
+            edgeLists.compareAndSet(index, null, result);
+          }
+          return result;
+        }
+
+        public Object sourceOf(Object edge) {
+          return ((ImmutablePair)edge).first;
+        }
+
+        public Object targetOf(Object edge) {
+          return ((ImmutablePair)edge).second;
+        }
+      };
+  }
+
+  private TransitiveClosure(Graph graph) {
+    this.graph = graph;
+    this.components = StronglyConnectedComponents.of(graph);
+    this.indexed = components.indexedGraph();
+    this.condensation = components.condensation();
+    this.rows = new long[components.count()][];
+    this.edgeLists = new AtomicReferenceArray(indexed.nodeCount());
+  }
+
+  /**
+   * <p>The edges from the node of the component to the other nodes it
+   * reaches.</p>
+   */
+  private List closureEdgesFrom(Object node, int c) {
+    long[] row = rows[c];
+    int first = c & ~63;
+    ArrayList result = new ArrayList();
+
+    for (int i=0; i<row.length; ++i)
+      for (long word = row[i]; 0 != word; word &= word - 1) {
+        List targets = components.nodesOf(first + 64 * i + Long.numberOfTrailingZeros(word));
+        for (int j=0, n=targets.size(); j<n; ++j)
+          if (!node.equals(targets.get(j)))
+            result.add(new ImmutablePair(node, targets.get(j)));
+      }
+    result.trimToSize();
+    return result;
+  }
+
+  private boolean reachesComponent(int source, int target) {
+    if (target < source)
+      return false;
+    long word = rows[source][(target >>> 6) - (source >>> 6)];
+    return 0 != (word & (1L << (target & 63)));
+  }
+
+  /**
+   * <p>Computes the bitset of the component from the bitsets of its
+   * successors, which must have been computed.</p>
+   */
+  private void propagate(int c) {
+    int last = (rows.length - 1) >>> 6;
+    long[] row = new long[last - (c >>> 6) + 1];
+    row[0] = 1L << (c & 63);
+
+    for (int edge=condensation.edgesBegin(c), end=condensation.edgesEnd(c); edge<end; ++edge) {
+      int d = condensation.targetIndexOf(edge);
+      long[] successor = rows[d];
+      int shift = (d >>> 6) - (c >>> 6);
+      for (int i=0; i<successor.length; ++i)
+        row[i + shift] |= successor[i];
+    }
+    rows[c] = row;
+  }
+
+  private final Graph graph;
+  private final StronglyConnectedComponents components;
+  private final IndexedGraph indexed;
+  private final CsrGraph condensation;
+  private final long[][] rows;
+  private final AtomicReferenceArray edgeLists;
+}
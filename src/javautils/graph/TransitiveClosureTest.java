@@ -0,0 +1,57 @@
+package javautils.graph;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javautils.graph.adt.Graph;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link TransitiveClosure}.</p>
+ */
+public class TransitiveClosureTest extends TestCase {
+
+  /**
+   * <p>Tests the sequential and parallel closures against searches from
+   * each node on random graphs with more than 64 components, and that
+   * the edge lists of the closure graph are kept.</p>
+   */
+  public void testAgainstSearch() {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int round=0; round<4; ++round) {
+        Graph graph = Graphs.randomGraph(300, 150 + 150 * round);
+        TransitiveClosure sequential = TransitiveClosure.of(graph);
+        TransitiveClosure parallel = TransitiveClosure.of(graph, executor, 4);
+        Graph closure = sequential.asGraph();
+        List nodes = graph.nodes();
+
+        for (int i=0; i<nodes.size(); ++i) {
+          Object source = nodes.get(i);
+          Set reachable = Graphs.nodesReachableFrom(graph, source);
+
+          for (int j=0; j<nodes.size(); ++j) {
+            Object target = nodes.get(j);
+            assertEquals(reachable.contains(target), sequential.reaches(source, target));
+            assertEquals(reachable.contains(target), parallel.reaches(source, target));
+          }
+          reachable.remove(source);
+          List edges = closure.edgesFrom(source);
+          Set targets = new HashSet();
+          for (int e=0; e<edges.size(); ++e) {
+            assertEquals(source, closure.sourceOf(edges.get(e)));
+            targets.add(closure.targetOf(edges.get(e)));
+          }
+          assertEquals(reachable.size(), edges.size());
+          assertEquals(reachable, targets);
+          assertSame(edges, sequential.asGraph().edgesFrom(source));
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
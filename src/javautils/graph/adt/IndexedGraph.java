@@ -0,0 +1,64 @@
+package javautils.graph.adt;
+
+/**
+ * <p>A graph whose nodes and edges have dense <code>int</code>-indices.
+ * Nodes are indexed <code>0..nodeCount()-1</code> and edges are indexed
+ * <code>0..edgeCount()-1</code>, so that the edges from each node have
+ * consecutive indices. Graph algorithms can then keep their per node
+ * state in arrays rather than in hash maps.</p>
+ *
+ * <p>The edges with indices <code>edgesBegin(i)..edgesEnd(i)-1</code>
+ * must be the edges returned by {@link #edgesFrom edgesFrom(node(i))} in
+ * the same order.</p>
+ */
+public interface IndexedGraph extends Graph {
+
+  /**
+   * <p>The number of nodes.</p>
+   */
+  int nodeCount();
+
+  /**
+   * <p>The number of edges.</p>
+   */
+  int edgeCount();
+
+  /**
+   * <p>The node with the specified index.</p>
+   */
+  Object node(int index);
+
+  /**
+   * <p>The index of the node or <code>-1</code> if the object is not a
+   * node of this graph.</p>
+   */
+  int indexOf(Object node);
+
+  /**
+   * <p>The index of the first edge from the specified node.</p>
+   */
+  int edgesBegin(int node);
+
+  /**
+   * <p>The index just past the last edge from the specified node.</p>
+   */
+  int edgesEnd(int node);
+
+  /**
+   * <p>The edge with the specified index from the specified source node.
+   * The source is passed in, because an indexed graph does not
+   * necessarily store the sources of edges.</p>
+   */
+  Object edge(int source, int edge);
+
+  /**
+   * <p>The index of the source node of the specified edge. This method
+   * may be slower than {@link #targetIndexOf}.</p>
+   */
+  int sourceIndexOf(int edge);
+
+  /**
+   * <p>The index of the target node of the specified edge.</p>
+   */
+  int targetIndexOf(int edge);
+}
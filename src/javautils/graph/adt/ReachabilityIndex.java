@@ -0,0 +1,14 @@
+package javautils.graph.adt;
+
+/**
+ * <p>An index that answers reachability queries on a graph without
+ * searching the graph.</p>
+ */
+public interface ReachabilityIndex {
+
+  /**
+   * <p>True if and only if there is a path of zero or more edges from the
+   * source node to the target node. Every node reaches itself.</p>
+   */
+  boolean reaches(Object source, Object target);
+}
@@ -3,7 +3,9 @@ package javautils.graph.templates;
 import java.util.Collection;
 import java.util.Iterator;
 import javautils.graph.adt.Graph;
+import javautils.graph.adt.IndexedGraph;
 import javautils.collections.Algs;
+import javautils.dispensers.IntQueue;
 import javautils.dispensers.Queue;
 import javautils.holders.IntHolder;
 
@@ -127,8 +129,62 @@ public abstract class BfsTemplate {
   /**
    * <p>Performs breadth-first search on the given graph, examines root
    * nodes in the given sequence, and calls the event point methods.</p>
+   *
+   * <p>If the graph is an {@link IndexedGraph}, the search keeps its state
+   * in <code>int</code>-arrays indexed by node rather than in a hash map.
+   * The event point methods are called in the same order in both
+   * cases.</p>
    */
   public final void search(Graph graph, Iterator roots) {
+    if (graph instanceof IndexedGraph)
+      search((IndexedGraph)graph, roots);
+    else
+      searchTimed(graph, roots);
+  }
+
+  private void search(final IndexedGraph graph, Iterator roots) {
+    // An event node discovers the node and an event ~node examines the
+    // edges from the node and finishes it.
+    new IndexedSearchTemplate(graph, roots, new IntQueue()) {
+      protected void prepareNode(int node) {
+        initNode(graph.node(node));
+      }
+
+      protected void beginRoot(int node) {
+        time[node] = Integer.MIN_VALUE;
+        discoverRoot(graph.node(node));
+      }
+
+      protected void endRoot(int node) {
+        finishRoot(graph.node(node));
+      }
+
+      protected void handleEvent(int event) {
+        if (0 <= event) {
+          time[event] = 1;
+          discoverNode(graph.node(event));
+          eventDispenser.push(~event);
+        } else {
+          int node = ~event;
+          for (int edge=graph.edgesBegin(node), end=graph.edgesEnd(node); edge<end; ++edge) {
+            int target = graph.targetIndexOf(edge);
+
+            if (0 == time[target]) {
+              time[target] = Integer.MIN_VALUE;
+              treeEdge(graph.edge(node, edge));
+              eventDispenser.push(target);
+            } else {
+              nonTreeEdge(graph.edge(node, edge));
+            }
+          }
+          time[node] = -1;
+          finishNode(graph.node(node));
+        }
+      }
+    }.search();
+  }
+
+  private void searchTimed(Graph graph, Iterator roots) {
     new TimedSearchTemplate(graph, roots, new Queue()) {
       protected void prepareNode(Object node) {
         initNode(node);
@@ -1,5 +1,6 @@
 package javautils.graph.templates;
 
+import javautils.graph.Graphs;
 import javautils.graph.adt.Graph;
 import javautils.graph.testing.TestGraphConstants;
 import javautils.maps.ObjectToIntMap;
@@ -67,6 +68,15 @@ public class BfsTemplateTest extends TestCase implements TestGraphConstants {
     assertEquals(RSTUVWXY_GRAPH_BFS, bfsTranscript(RSTUVWXY_GRAPH));
   }
 
+  /**
+   * <p>Tests that the {@link BfsTemplate}-method gives the same
+   * transcript on the compressed {@link TestGraphConstants#RSTUVWXY_GRAPH}
+   * as on the original graph.</p>
+   */
+  public void testBfsOnCompressedRSTUVWXY() {
+    assertEquals(RSTUVWXY_GRAPH_BFS, bfsTranscript(Graphs.compressed(RSTUVWXY_GRAPH)));
+  }
+
   public static final String CLOTHING_GRAPH_BFS =
     "initNode(belt)\n" +
     "initNode(jacket)\n" +
@@ -3,7 +3,9 @@ package javautils.graph.templates;
 import java.util.Collection;
 import java.util.Iterator;
 import javautils.graph.adt.Graph;
+import javautils.graph.adt.IndexedGraph;
 import javautils.collections.Algs;
+import javautils.dispensers.IntStack;
 import javautils.dispensers.Stack;
 import javautils.holders.IntHolder;
 
@@ -116,8 +118,75 @@ public abstract class DfsTemplate {
   /**
    * <p>Performs depth-first search on the graph, examines root nodes in
    * the given sequence, and calls the event point methods.</p>
+   *
+   * <p>If the graph is an {@link IndexedGraph}, the search keeps its state
+   * in <code>int</code>-arrays indexed by node rather than in a hash map.
+   * The event point methods are called in the same order in both
+   * cases.</p>
    */
   public final void search(Graph graph, Iterator rootNodes) {
+    if (graph instanceof IndexedGraph)
+      search((IndexedGraph)graph, rootNodes);
+    else
+      searchTimed(graph, rootNodes);
+  }
+
+  private void search(final IndexedGraph graph, Iterator rootNodes) {
+    new IndexedSearchTemplate(graph, rootNodes, new IntStack()) {
+      int counter = 0;
+      final int[] nextEdge = new int[graph.nodeCount()];
+
+      protected void prepareNode(int node) {
+        initNode(graph.node(node));
+      }
+
+      protected void beginRoot(int node) {
+        time[node] = Integer.MIN_VALUE;
+        discoverRoot(graph.node(node));
+      }
+
+      protected void endRoot(int node) {
+        finishRoot(graph.node(node));
+      }
+
+      protected void handleEvent(int node) {
+        if (Integer.MIN_VALUE == time[node]) {
+          time[node] = ++counter;
+          discoverNode(graph.node(node));
+          nextEdge[node] = graph.edgesBegin(node);
+          eventDispenser.push(node);
+        } else if (nextEdge[node] < graph.edgesEnd(node)) {
+          int edge = nextEdge[node]++;
+          eventDispenser.push(node);
+          handleEdge(node, edge);
+        } else {
+          time[node] = - ++counter;
+          finishNode(graph.node(node));
+        }
+      }
+
+      private void handleEdge(int source, int edge) {
+        int target = graph.targetIndexOf(edge);
+        int targetTime = time[target];
+
+        if (0 == targetTime) {
+          time[target] = Integer.MIN_VALUE;
+          treeEdge(graph.edge(source, edge));
+          eventDispenser.push(target);
+        } else if (Integer.MIN_VALUE == targetTime) {
+          forwardEdge(graph.edge(source, edge));
+        } else if (0 < targetTime) {
+          backEdge(graph.edge(source, edge));
+        } else if (-targetTime < time[source]) {
+          crossEdge(graph.edge(source, edge));
+        } else {
+          forwardEdge(graph.edge(source, edge));
+        }
+      }
+    }.search();
+  }
+
+  private void searchTimed(Graph graph, Iterator rootNodes) {
     new TimedSearchTemplate(graph, rootNodes, new Stack()) {
       int counter = 0;
 
@@ -1,5 +1,6 @@
 package javautils.graph.templates;
 
+import javautils.graph.Graphs;
 import javautils.graph.adt.Graph;
 import javautils.graph.testing.TestGraphConstants;
 import junit.framework.TestCase;
@@ -50,6 +51,15 @@ public class DfsTemplateTest extends TestCase implements TestGraphConstants {
     assertEquals(UVWXYZ_GRAPH_DFS, dfsTranscript(UVWXYZ_GRAPH));
   }
 
+  /**
+   * <p>Tests that the {@link DfsTemplate}-method gives the expected
+   * transcript on a compressed version of the {@link
+   * TestGraphConstants#UVWXYZ_GRAPH}-graph.</p>
+   */
+  public void testDfsOnCompressedUVWXYZ() {
+    assertEquals(UVWXYZ_GRAPH_DFS, dfsTranscript(Graphs.compressed(UVWXYZ_GRAPH)));
+  }
+
   public static final String STUVWXYZ_GRAPH_DFS =
     "initNode(s)\n" +
     "initNode(t)\n" +
@@ -102,6 +112,15 @@ public class DfsTemplateTest extends TestCase implements TestGraphConstants {
     assertEquals(STUVWXYZ_GRAPH_DFS, dfsTranscript(STUVWXYZ_GRAPH));
   }
 
+  /**
+   * <p>Tests that the {@link DfsTemplate}-method gives the expected
+   * transcript on a compressed version of the {@link
+   * TestGraphConstants#STUVWXYZ_GRAPH}-graph.</p>
+   */
+  public void testDfsOnCompressedSTUVWXYZ() {
+    assertEquals(STUVWXYZ_GRAPH_DFS, dfsTranscript(Graphs.compressed(STUVWXYZ_GRAPH)));
+  }
+
   /**
    * <p>Generates a transcript of the events generated by the {@link
    * DfsTemplate}-method on the given graph.</p>
@@ -0,0 +1,119 @@
+package javautils.graph.templates;
+
+import java.util.Iterator;
+import javautils.dispensers.IntDispenser;
+import javautils.graph.adt.IndexedGraph;
+
+/**
+ * <p>An abstract Template Method [<a
+ * href="{@docRoot}/overview-summary.html#[Gamma1995]">Gamma1995</a>] for
+ * searching indexed graphs in a timed fashion. This is the counterpart
+ * of {@link TimedSearchTemplate} for {@link IndexedGraph}s: the time of
+ * each node is kept in an <code>int</code>-array and events are
+ * <code>int</code>-values drawn from an {@link IntDispenser}. The meaning
+ * of an event is defined by the derived class.</p>
+ */
+public abstract class IndexedSearchTemplate {
+
+  /**
+   * <p>A new indexed search template.</p>
+   */
+  protected IndexedSearchTemplate(IndexedGraph graph,
+                                  Iterator roots,
+                                  IntDispenser eventDispenser) {
+    assert 0 != graph.nodeCount();
+    assert roots.hasNext();
+    assert eventDispenser.isEmpty();
+    this.graph = graph;
+    this.roots = roots;
+    this.eventDispenser = eventDispenser;
+    this.time = new int[graph.nodeCount()];
+  }
+
+  /**
+   * <p>Called once for each node before the search.</p>
+   */
+  protected void prepareNode(int node) {}
+
+  /**
+   * <p>Called once for each root drawn from the root sequence that has
+   * not already been done.</p>
+   */
+  protected void beginRoot(int node) {}
+
+  /**
+   * <p>Called once for root that was begun after the search has finished
+   * handling all events generated from the root.</p>
+   */
+  protected void endRoot(int node) {}
+
+  /**
+   * <p>Called once for each root that was begun, with the index of the
+   * root as the event, and once for each event drawn from the event
+   * dispenser.</p>
+   */
+  protected abstract void handleEvent(int event);
+
+  /**
+   * <p>Performs the search calling the event point methods.</p>
+   */
+  public final void search() {
+    prepareSearch();
+    handleRoots();
+  }
+
+  private void prepareSearch() {
+    for (int node=0; node<time.length; ++node)
+      prepareNode(node);
+  }
+
+  private void handleRoots() {
+    while (roots.hasNext())
+      handleRoot(roots.next());
+  }
+
+  private void handleRoot(Object rootNode) {
+    int root = graph.indexOf(rootNode);
+    assert 0 <= root : "Object '" + rootNode + "' is not a node of the graph.";
+
+    if (notDone(root)) {
+      beginRoot(root);
+      handleEvent(root);
+      handleEvents();
+      endRoot(root);
+    }
+  }
+
+  private void handleEvents() {
+    while (eventDispenser.notEmpty())
+      handleEvent(eventDispenser.pop());
+  }
+
+  /**
+   * <p>True if and only if the node hasn't already been done or
+   * discovered. By default a node is considered done if its time is not
+   * 0.</p>
+   */
+  protected boolean notDone(int node) {
+    return time[node] == 0;
+  }
+
+  /**
+   * <p>The graph being searched.</p>
+   */
+  protected final IndexedGraph graph;
+
+  /**
+   * <p>The derived class should directly push any events into this event
+   * dispenser. The indexed search template then pops events from this
+   * dispenser and calls {@link #handleEvent handleEvent}.</p>
+   */
+  protected final IntDispenser eventDispenser;
+
+  /**
+   * <p>The time of each node. Initially the time of every node is 0.</p>
+   */
+  protected final int[] time;
+
+  private Iterator roots;
+}
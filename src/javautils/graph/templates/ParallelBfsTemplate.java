@@ -0,0 +1,249 @@
+package javautils.graph.templates;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import javautils.Exceptions;
+import javautils.graph.adt.IndexedGraph;
+
+/**
+ * <p>An abstract Template Method [<a
+ * href="{@docRoot}/overview-summary.html#[Gamma1995]">Gamma1995</a>] for
+ * level-synchronous parallel breadth-first search on {@link
+ * IndexedGraph}s.</p>
+ *
+ * <p>The search expands one level of the search tree at a time. Each
+ * level is split into chunks that are expanded by tasks submitted to an
+ * executor, and the search waits for all tasks of a level before
+ * starting the next level. Unlike {@link BfsTemplate}, the search has no
+ * order within a level, so it only reports the level of each visited
+ * node.</p>
+ *
+ * <p>The search is direction-optimizing [<a
+ * href="{@docRoot}/overview-summary.html#[Beamer2012]">Beamer2012</a>].
+ * A level is expanded top-down, by examining the edges from the nodes in
+ * the frontier, while the frontier is small. When the edges from the
+ * frontier outnumber the edges from the unvisited nodes by a large
+ * factor, the search switches to bottom-up, where each unvisited node
+ * looks for a parent in the frontier through its incoming edges and
+ * stops at the first one found. This pays off on graphs with a small
+ * diameter, where a few levels contain most of the nodes. The incoming
+ * edges are computed from the graph the first time the search switches
+ * to bottom-up.</p>
+ *
+ * <p><b>Note</b>: {@link #visitNode visitNode} is called concurrently
+ * from the threads of the executor and must be thread-safe.</p>
+ */
+public abstract class ParallelBfsTemplate {
+
+  /**
+   * <p>A new parallel search template that splits each level into at
+   * most <code>parallelism</code> tasks executed by the executor.</p>
+   */
+  protected ParallelBfsTemplate(ExecutorService executor, int parallelism) {
+    assert 0 < parallelism;
+    this.executor = executor;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * <p>Called exactly once for each node reachable from the roots, with
+   * the number of edges on a shortest path from a root to the node. All
+   * nodes of a level are visited before any node of the next level. This
+   * method may be called concurrently from several threads.</p>
+   */
+  protected void visitNode(int node, int level) {}
+
+  /**
+   * <p>Performs parallel breadth-first search from the given roots and
+   * returns the level of each node indexed by node, or <code>-1</code>
+   * for nodes that are not reachable from the roots.</p>
+   */
+  public final int[] search(IndexedGraph graph, Iterator roots) {
+    int n = graph.nodeCount();
+    AtomicIntegerArray levels = new AtomicIntegerArray(n);
+    int[] frontier = new int[n];
+    int frontierSize = 0;
+
+    for (int node=0; node<n; ++node)
+      levels.set(node, -1);
+
+    while (roots.hasNext()) {
+      Object rootNode = roots.next();
+      int root = graph.indexOf(rootNode);
+      assert 0 <= root : "Object '" + rootNode + "' is not a node of the graph.";
+
+      if (-1 == levels.get(root)) {
+        levels.set(root, 0);
+        visitNode(root, 0);
+        frontier[frontierSize++] = root;
+      }
+    }
+
+    Search search = new Search(graph, levels);
+    long unexploredEdges = graph.edgeCount();
+    boolean bottomUp = false;
+
+    for (int level=0; 0 < frontierSize; ++level) {
+      long frontierEdges = 0;
+      for (int i=0; i<frontierSize; ++i)
+        frontierEdges += graph.edgesEnd(frontier[i]) - graph.edgesBegin(frontier[i]);
+      unexploredEdges -= frontierEdges;
+
+      if (!bottomUp && unexploredEdges < frontierEdges * ALPHA)
+        bottomUp = true;
+      else if (bottomUp && frontierSize * BETA < n)
+        bottomUp = false;
+
+      int[][] next = bottomUp
+        ? search.bottomUp(level, n)
+        : search.topDown(level, frontier, frontierSize);
+
+      frontierSize = 0;
+      for (int i=0; i<next.length; ++i) {
+        System.arraycopy(next[i], 1, frontier, frontierSize, next[i][0]);
+        frontierSize += next[i][0];
+      }
+    }
+
+    int[] result = new int[n];
+    for (int node=0; node<n; ++node)
+      result[node] = levels.get(node);
+    return result;
+  }
+
+  /**
+   * <p>The state of one search. The chunks of a level return the nodes
+   * of the next level that they visited as arrays whose first element is
+   * the number of nodes.</p>
+   */
+  private final class Search {
+    Search(IndexedGraph graph, AtomicIntegerArray levels) {
+      this.graph = graph;
+      this.levels = levels;
+    }
+
+    int[][] topDown(final int level, final int[] frontier, int frontierSize) {
+      List tasks = new ArrayList();
+      int chunk = (frontierSize + parallelism - 1) / parallelism;
+
+      for (int begin=0; begin<frontierSize; begin+=chunk) {
+        final int from = begin;
+        final int to = Math.min(frontierSize, begin + chunk);
+        tasks.add(new Callable() {
+            public Object call() {
+              int[] visited = new int[16];
+              int count = 0;
+
+              for (int i=from; i<to; ++i) {
+                int node = frontier[i];
+                for (int edge=graph.edgesBegin(node), end=graph.edgesEnd(node); edge<end; ++edge) {
+                  int target = graph.targetIndexOf(edge);
+                  if (-1 == levels.get(target) && levels.compareAndSet(target, -1, level + 1)) {
+                    visitNode(target, level + 1);
+                    visited = add(visited, ++count, target);
+                  }
+                }
+              }
+              visited[0] = count;
+              return visited;
+            }});
+      }
+      return invokeAll(tasks);
+    }
+
+    int[][] bottomUp(final int level, int n) {
+      if (null == inBegin)
+        computeIncomingEdges();
+
+      List tasks = new ArrayList();
+      int chunk = (n + parallelism - 1) / parallelism;
+
+      for (int begin=0; begin<n; begin+=chunk) {
+        final int from = begin;
+        final int to = Math.min(n, begin + chunk);
+        tasks.add(new Callable() {
+            public Object call() {
+              int[] visited = new int[16];
+              int count = 0;
+
+              // Only this task writes the levels of the nodes in its
+              // range, and the nodes of the frontier are not written.
+              for (int node=from; node<to; ++node) {
+                if (-1 != levels.get(node))
+                  continue;
+                for (int i=inBegin[node], end=inBegin[node + 1]; i<end; ++i) {
+                  if (level == levels.get(inSources[i])) {
+                    levels.set(node, level + 1);
+                    visitNode(node, level + 1);
+                    visited = add(visited, ++count, node);
+                    break;
+                  }
+                }
+              }
+              visited[0] = count;
+              return visited;
+            }});
+      }
+      return invokeAll(tasks);
+    }
+
+    private void computeIncomingEdges() {
+      int n = graph.nodeCount();
+      inBegin = new int[n + 1];
+      inSources = new int[graph.edgeCount()];
+
+      for (int edge=0; edge<inSources.length; ++edge)
+        ++inBegin[graph.targetIndexOf(edge) + 1];
+      for (int node=0; node<n; ++node)
+        inBegin[node + 1] += inBegin[node];
+
+      int[] next = new int[n];
+      System.arraycopy(inBegin, 0, next, 0, n);
+      for (int edge=0; edge<inSources.length; ++edge)
+        inSources[next[graph.targetIndexOf(edge)]++] = graph.sourceIndexOf(edge);
+    }
+
+    private int[][] invokeAll(List tasks) {
+      try {
+        List futures = executor.invokeAll(tasks);
+        int[][] result = new int[futures.size()][];
+        for (int i=0; i<result.length; ++i)
+          result[i] = (int[])((Future)futures.get(i)).get();
+        return result;
+      } catch (ExecutionException e) {
+        throw Exceptions.toThrowUnchecked(e.getCause());
+      } catch (InterruptedException e) {
+        throw Exceptions.toThrowUnchecked(e);
+      }
+    }
+
+    private final IndexedGraph graph;
+    private final AtomicIntegerArray levels;
+    private int[] inBegin;
+    private int[] inSources;
+  }
+
+  private static int[] add(int[] array, int index, int value) {
+    if (index == array.length) {
+      int[] grown = new int[2 * array.length];
+      System.arraycopy(array, 0, grown, 0, array.length);
+      array = grown;
+    }
+    array[index] = value;
+    return array;
+  }
+
+  // The thresholds for switching between top-down and bottom-up
+  // expansion suggested in [Beamer2012].
+  private static final int ALPHA = 14;
+  private static final int BETA = 24;
+
+  private final ExecutorService executor;
+  private final int parallelism;
+}
@@ -0,0 +1,96 @@
+package javautils.graph.templates;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import javautils.dispensers.IntQueue;
+import javautils.graph.CsrGraph;
+import javautils.graph.Graphs;
+import javautils.graph.testing.TestGraphConstants;
+import javautils.maps.ObjectToIntMap;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link ParallelBfsTemplate}.</p>
+ */
+public class ParallelBfsTemplateTest extends TestCase implements TestGraphConstants {
+
+  /**
+   * <p>Tests that the levels computed in parallel, on a dense graph that
+   * makes the search switch to bottom-up and back, and on a sparse graph
+   * that stays top-down, equal those of a sequential search and that each
+   * reachable node is visited exactly once with its level.</p>
+   */
+  public void testAgainstSequentialSearch() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      assertSameLevels(Graphs.compressed(Graphs.randomGraph(5000, 50000)), executor);
+      assertSameLevels(Graphs.compressed(Graphs.randomGraph(5000, 6000)), executor);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * <p>Tests that {@link Graphs#hopDistances} and the parallel {@link
+   * Graphs#nodesReachableFrom} agree with the sequential reachability on
+   * the {@link TestGraphConstants#ABCDEFGHIJ_GRAPH
+   * ABCDEFGHIJ_GRAPH}.</p>
+   */
+  public void testGraphsOnABCDEFGHIJ() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      ObjectToIntMap hops =
+        Graphs.hopDistances(ABCDEFGHIJ_GRAPH,
+                            Arrays.asList(new Object[]{"g"}), executor, 2);
+      assertEquals(0, hops.get("g"));
+      assertEquals(1, hops.get("h"));
+      assertEquals(2, hops.get("c"));
+      assertEquals(4, hops.get("b"));
+      assertEquals(Graphs.nodesReachableFrom(ABCDEFGHIJ_GRAPH, "g"),
+                   Graphs.nodesReachableFrom(ABCDEFGHIJ_GRAPH, Arrays.asList(new Object[]{"g"}), executor, 2));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static void assertSameLevels(CsrGraph graph, ExecutorService executor) {
+    int n = graph.nodeCount();
+    final AtomicIntegerArray visits = new AtomicIntegerArray(n);
+    final AtomicIntegerArray visitedLevels = new AtomicIntegerArray(n);
+
+    int[] levels =
+      new ParallelBfsTemplate(executor, 8) {
+        protected void visitNode(int node, int level) {
+          visits.incrementAndGet(node);
+          visitedLevels.set(node, level);
+        }
+      }.search(graph, Arrays.asList(new Object[]{graph.node(0), graph.node(1)}).iterator());
+
+    int[] expected = new int[n];
+    Arrays.fill(expected, -1);
+    IntQueue queue = new IntQueue();
+    expected[0] = expected[1] = 0;
+    queue.push(0);
+    queue.push(1);
+    while (queue.notEmpty()) {
+      int node = queue.pop();
+      for (int edge=graph.edgesBegin(node); edge<graph.edgesEnd(node); ++edge) {
+        int target = graph.targetIndexOf(edge);
+        if (-1 == expected[target]) {
+          expected[target] = expected[node] + 1;
+          queue.push(target);
+        }
+      }
+    }
+
+    for (int node=0; node<n; ++node) {
+      assertEquals(expected[node], levels[node]);
+      assertEquals(-1 == expected[node] ? 0 : 1, visits.get(node));
+      if (-1 != expected[node])
+        assertEquals(expected[node], visitedLevels.get(node));
+    }
+  }
+}
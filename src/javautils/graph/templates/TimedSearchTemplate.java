@@ -1,10 +1,11 @@
 package javautils.graph.templates;
 
 import javautils.graph.adt.Graph;
-import javautils.maps.ObjectToIntMap;
 import javautils.dispensers.Dispenser;
 import javautils.holders.IntHolder;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 /**
  * <p>An abstract Template Method [<a
@@ -105,7 +106,7 @@ public abstract class TimedSearchTemplate {
     IntHolder time = timeOf(event);
 
     if (null != time) {
-      handleNode(event, timeOf(event));
+      handleNode(event, time);
     } else {
       Object target = graph.targetOf(event);
       handleEdge(event, target, timeOf(target));
@@ -127,7 +128,7 @@ public abstract class TimedSearchTemplate {
    * <p>The time associated with the node.</p>
    */
   protected final IntHolder timeOf(Object node) {
-    return nodeToTimeMap.holder(node);
+    return (IntHolder)nodeToTimeMap.get(node);
   }
 
   /**
@@ -143,5 +144,5 @@ public abstract class TimedSearchTemplate {
   protected final Dispenser eventDispenser;
 
   private Iterator roots;
-  private ObjectToIntMap nodeToTimeMap = new ObjectToIntMap();
+  private Map nodeToTimeMap = new HashMap();
 }
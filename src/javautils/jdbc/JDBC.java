@@ -1,15 +1,29 @@
 package javautils.jdbc;
 
-import java.lang.reflect.Method;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
-import java.util.Map;
-import javautils.Classes;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
 import javautils.Exceptions;
 import javautils.collections.Algs;
 import javautils.fun.Function;
+import javautils.fun.ObjectToObject;
+import javautils.fun.ObjectToObjectToObject;
+import javautils.fun.ObjectToObjectToVoid;
+import javautils.fun.VoidToObject;
 import javautils.fun.VoidToVoid;
 
 /**
@@ -17,6 +31,161 @@ import javautils.fun.VoidToVoid;
  */
 public class JDBC extends Algs {
 
+  /**
+   * <p>Executes a prepared statement once for each row in batches, as a
+   * transaction. Returns the number of rows.</p>
+   *
+   * <p>For each row, the binder is called with the prepared statement and
+   * the row, <code>binder.with(stmt, row)</code>, and should set the
+   * parameters of the statement. The rows are then sent to the database
+   * in batches of <code>batchSize</code> rows, and the transaction is
+   * committed after every <code>batchesPerCommit</code> batches and at
+   * the end. Otherwise this method works like {@link #executeTransaction
+   * executeTransaction}: if binding or executing a batch fails, the work
+   * since the latest commit is rolled back and the exception is
+   * rethrown.</p>
+   *
+   * <p>For example, the following code inserts players into a table:</p>
+   *
+   * <pre>
+   * {@link javautils.jdbc.JDBC#executeBatches(Connection,String,Collection,Function,int,int) executeBatches}(connection,
+   *                " INSERT INTO players (name, age) VALUES (?, ?) ",
+   *                players,
+   *                <b>new</b> {@link javautils.fun.ObjectToObjectToVoid}() {
+   *                  <b>public void</b> with(Object stmt, Object player) {
+   *                    JDBC.setObjects((PreparedStatement)stmt,
+   *                                    <b>new</b> Object[]{((Player)player).name,
+   *                                                 <b>new</b> Integer(((Player)player).age)});
+   *                  }},
+   *                1000, 10);
+   * </pre>
+   */
+  public static long executeBatches(final Connection connection,
+                                    final String sql,
+                                    final Iterator rows,
+                                    Function binder,
+                                    final int batchSize,
+                                    final int batchesPerCommit) {
+    assert 0 < batchSize && 0 < batchesPerCommit;
+
+    final ObjectToObjectToVoid bind = ObjectToObjectToVoid.from(binder);
+    final long[] rowCount = {0};
+
+    executeTransaction(connection,
+                       new VoidToVoid() {
+                         public void with() {
+                           PreparedStatement stmt = prepareStatement(connection, sql);
+                           try {
+                             int rowsInBatch = 0;
+                             int batchesSinceCommit = 0;
+
+                             while (rows.hasNext()) {
+                               bind.with(stmt, rows.next());
+                               stmt.addBatch();
+                               ++rowCount[0];
+
+                               if (batchSize == ++rowsInBatch) {
+                                 stmt.executeBatch();
+                                 rowsInBatch = 0;
+
+                                 if (batchesPerCommit == ++batchesSinceCommit) {
+                                   connection.commit();
+                                   batchesSinceCommit = 0;
+                                 }
+                               }
+                             }
+
+                             if (0 != rowsInBatch)
+                               stmt.executeBatch();
+                           } catch (SQLException e) {
+                             throw Exceptions.toThrowUnchecked(e);
+                           } finally {
+                             close(stmt);
+                           }
+                         }});
+
+    return rowCount[0];
+  }
+
+  public static long executeBatches(Connection connection, String sql, Collection rows, Function binder, int batchSize, int batchesPerCommit) {
+    return executeBatches(connection, sql, rows.iterator(), binder, batchSize, batchesPerCommit);
+  }
+
+  /**
+   * <p>Like {@link #executeBatches(Connection,String,Iterator,Function,int,int)
+   * executeBatches}, but computes the parameters of the rows on a
+   * separate thread while the batches are executed. Returns the number
+   * of rows.</p>
+   *
+   * <p>Instead of a binder, this method takes a function from a row to an
+   * array of parameters, <code>rowToParameters.with(row)</code>, which is
+   * called on a producer thread. The parameters are set using
+   * <code>setObject</code> on the calling thread, because statements and
+   * connections should not be used by several threads at once. At most
+   * two batches are computed ahead of the batch being executed.</p>
+   *
+   * <p>Pipelining pays off when producing the rows, for example reading
+   * and parsing them from a file, takes time comparable to executing the
+   * batches.</p>
+   *
+   * <p>If executing a batch fails, the producer thread is interrupted and
+   * this method waits for it for at most a second. The row iterator and
+   * <code>rowToParameters</code> should respond to interrupts: a
+   * producer that is blocked in them after that is abandoned, and may
+   * still call them, although it does not prevent the VM from
+   * exiting.</p>
+   */
+  public static long executeBatchesPipelined(final Connection connection,
+                                             final String sql,
+                                             Iterator rows,
+                                             Function rowToParameters,
+                                             final int batchSize,
+                                             final int batchesPerCommit) {
+    assert 0 < batchSize && 0 < batchesPerCommit;
+
+    final BatchProducer producer =
+      new BatchProducer(rows, ObjectToObject.from(rowToParameters), batchSize);
+    final long[] rowCount = {0};
+
+    producer.start();
+    try {
+      executeTransaction(connection,
+                         new VoidToVoid() {
+                           public void with() {
+                             PreparedStatement stmt = prepareStatement(connection, sql);
+                             try {
+                               int batchesSinceCommit = 0;
+
+                               for (Object[][] batch; null != (batch = producer.take());) {
+                                 for (int i=0; i<batch.length; ++i) {
+                                   setObjects(stmt, batch[i]);
+                                   stmt.addBatch();
+                                 }
+                                 stmt.executeBatch();
+                                 rowCount[0] += batch.length;
+
+                                 if (batchesPerCommit == ++batchesSinceCommit) {
+                                   connection.commit();
+                                   batchesSinceCommit = 0;
+                                 }
+                               }
+                             } catch (SQLException e) {
+                               throw Exceptions.toThrowUnchecked(e);
+                             } finally {
+                               close(stmt);
+                             }
+                           }});
+    } finally {
+      producer.cancel();
+    }
+
+    return rowCount[0];
+  }
+
+  public static long executeBatchesPipelined(Connection connection, String sql, Collection rows, Function rowToParameters, int batchSize, int batchesPerCommit) {
+    return executeBatchesPipelined(connection, sql, rows.iterator(), rowToParameters, batchSize, batchesPerCommit);
+  }
+
   /**
    * <p>Performs a transaction. The intention of this method is to
    * simplify the implementation of transactions.</p>
@@ -98,31 +267,140 @@ public class JDBC extends Algs {
    * </pre>
    */
   public static Object fold(Object accumulator, ResultSet rs, Function fun) {
-    Method method = fun.getMethod();
-    Object self = fun.getSelf();
-
-    Class[] parameterTypes = method.getParameterTypes();
-
-    Method[] getMethods = getMethods(parameterTypes);
-    Object[] actuals = new Object[parameterTypes.length];
-
-    Integer[][] indice = indice(parameterTypes.length - 1);
+    RowReader reader = RowReader.forParameters(fun.getMethod(), 1);
+    Object[] actuals = new Object[1 + reader.columnCount()];
 
     actuals[0] = accumulator;
 
     try {
       while (rs.next()) {
-        for (int i=1; i<actuals.length; ++i)
-          actuals[i] = getMethods[i].invoke(rs, indice[i]);
-
-        actuals[0] = method.invoke(self, actuals);
+        reader.read(rs, actuals, 1);
+        actuals[0] = fun.invoke(actuals);
       }
-    } catch (Exception e) {
+    } catch (SQLException e) {
       throw Exceptions.toThrowUnchecked(e);
     }
     return actuals[0];
   }
 
+  /**
+   * <p>Folds a query over key ranges in parallel and combines the results
+   * of the ranges.</p>
+   *
+   * <p>The query must take two parameters, the lower and upper bound of a
+   * range of keys, and should select a half-open range, such as
+   * <code>id &gt;= ? AND id &lt; ?</code>, so that each row belongs to
+   * exactly one range. The <code>n+1</code> bounds define <code>n</code>
+   * partitions, and partition <code>i</code> is queried with the bounds
+   * <code>bounds[i]</code> and <code>bounds[i+1]</code>.</p>
+   *
+   * <p>Each partition is folded like by {@link #fold fold}, starting from
+   * a new accumulator given by <code>newAccumulator</code>. The results
+   * of the partitions are then combined using <code>combine.with(result,
+   * partial)</code>. If <code>ordered</code> is true, the results are
+   * combined in the order of the partitions after all partitions have
+   * been folded. Otherwise each result is combined as soon as its
+   * partition is done, in an unspecified order and grouping, which
+   * requires <code>combine</code> to be associative and commutative.</p>
+   *
+   * <p>The partitions are folded by at most <code>maxConnections</code>
+   * threads, each of which gets its own connection from the data source
+   * and prepares the query once. The fold and combine functions may be
+   * called from several threads at the same time, but never with the
+   * same accumulator. If folding a partition fails, the remaining
+   * partitions are skipped and the first failure is rethrown.</p>
+   *
+   * <p>Each call creates and shuts down a thread pool of its own. Code
+   * that folds partitions often should pass a shared executor to {@link
+   * #foldPartitions(DataSource, ExecutorService, int, String, Object[],
+   * VoidToObject, Function, Function, boolean) foldPartitions}
+   * instead.</p>
+   *
+   * <p>For example, the following code sums the ages of players using
+   * four connections:</p>
+   *
+   * <pre>
+   * Integer total = (Integer)
+   *   {@link javautils.jdbc.JDBC#foldPartitions foldPartitions}(dataSource, 4,
+   *                  " SELECT age FROM players WHERE id &gt;= ? AND id &lt; ? ",
+   *                  <b>new</b> Object[]{<b>new</b> Integer(0), <b>new</b> Integer(250000),
+   *                               <b>new</b> Integer(500000), <b>new</b> Integer(750000),
+   *                               <b>new</b> Integer(1000000)},
+   *                  <b>new</b> {@link javautils.fun.VoidToObject}() {
+   *                    <b>public</b> Object with() {
+   *                      <b>return new</b> Integer(0);
+   *                    }},
+   *                  <b>new</b> {@link javautils.fun.Function}() {
+   *                    <b>public</b> Integer with(Integer sum, <b>int</b> age) {
+   *                      <b>return new</b> Integer(sum.intValue() + age);
+   *                    }},
+   *                  <b>new</b> {@link javautils.fun.Function}() {
+   *                    <b>public</b> Integer with(Integer sum, Integer partial) {
+   *                      <b>return new</b> Integer(sum.intValue() + partial.intValue());
+   *                    }},
+   *                  <b>false</b>);
+   * </pre>
+   */
+  public static Object foldPartitions(DataSource dataSource,
+                                      int maxConnections,
+                                      String sql,
+                                      Object[] bounds,
+                                      VoidToObject newAccumulator,
+                                      Function fun,
+                                      Function combine,
+                                      boolean ordered) {
+    assert 0 < maxConnections && 2 <= bounds.length;
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxConnections, bounds.length - 1));
+    try {
+      return foldPartitions(dataSource, executor, maxConnections, sql, bounds, newAccumulator, fun, combine, ordered);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * <p>Folds a query over key ranges like {@link #foldPartitions(DataSource,
+   * int, String, Object[], VoidToObject, Function, Function, boolean)
+   * foldPartitions}, but runs the at most <code>maxConnections</code>
+   * worker tasks on the given executor, which is not shut down. The
+   * executor should have at least <code>maxConnections</code> threads
+   * for all connections to be used at the same time.</p>
+   */
+  public static Object foldPartitions(DataSource dataSource,
+                                      ExecutorService executor,
+                                      int maxConnections,
+                                      String sql,
+                                      Object[] bounds,
+                                      VoidToObject newAccumulator,
+                                      Function fun,
+                                      Function combine,
+                                      boolean ordered) {
+    assert 0 < maxConnections && 2 <= bounds.length;
+
+    PartitionedFold fold =
+      new PartitionedFold(dataSource, sql, bounds, newAccumulator, fun, ObjectToObjectToObject.from(combine), ordered);
+    List workerTasks = Collections.nCopies(Math.min(maxConnections, bounds.length - 1), fold);
+
+    try {
+      List futures = executor.invokeAll(workerTasks);
+      Throwable failure = null;
+      for (int i=0; i<futures.size(); ++i) {
+        try {
+          ((Future)futures.get(i)).get();
+        } catch (ExecutionException e) {
+          if (null == failure)
+            failure = e.getCause();
+        }
+      }
+      if (null != failure)
+        throw Exceptions.toThrowUnchecked(failure);
+    } catch (InterruptedException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
+    return fold.result();
+  }
+
   /**
    * <p>Executes a procedure for each row of the result set.</p>
    *
@@ -155,28 +433,308 @@ public class JDBC extends Algs {
    * </pre>
    */
   public static void forEach(ResultSet rs, Function proc) {
-    Method method = proc.getMethod();
-    Object self = proc.getSelf();
+    RowReader reader = RowReader.forParameters(proc.getMethod(), 0);
+    Object[] actuals = new Object[reader.columnCount()];
+
+    try {
+      while (rs.next()) {
+        reader.read(rs, actuals, 0);
+        proc.invoke(actuals);
+      }
+    } catch (SQLException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
+  }
+
+  /**
+   * <p>A lazy iterator over the rows returned by a query. The rows are
+   * mapped to elements by a function like in {@link #forEach forEach}, so
+   * the iterator composes with {@link Algs#map(Iterator,Function)
+   * map}, {@link Algs#filter(Iterator,Function) filter}, {@link
+   * Algs#take take}, etc. without loading the whole result set into
+   * memory.</p>
+   *
+   * <p>The statement is prepared with the given parameters and its fetch
+   * size is set to <code>fetchSize</code>, which is a hint to the driver
+   * on how many rows to transfer at a time. Some drivers only stream rows
+   * inside a transaction. The statement is closed when the iterator has
+   * been exhausted or fails. To stop early, close the returned {@link
+   * RowIterator}.</p>
+   *
+   * <pre>
+   * Iterator names =
+   *   {@link javautils.jdbc.JDBC#iterator(Connection,String,Object[],int,Function) iterator}(connection,
+   *            " SELECT name FROM players WHERE age &gt; ? ",
+   *            <b>new</b> Object[]{<b>new</b> Integer(30)},
+   *            1000,
+   *            <b>new</b> {@link javautils.fun.Function}() {
+   *              <b>public</b> Object with(<b>String</b> name) {
+   *                <b>return</b> name.toUpperCase();
+   *              }});
+   * </pre>
+   */
+  public static RowIterator iterator(Connection connection, String sql, Object[] parameters, int fetchSize, Function mapper) {
+    assert 0 <= fetchSize;
 
-    Class[] parameterTypes = method.getParameterTypes();
+    PreparedStatement stmt = prepareStatement(connection, sql);
+    try {
+      setObjects(stmt, parameters);
+      stmt.setFetchSize(fetchSize);
+      return new RowIterator(stmt, stmt.executeQuery(), mapper);
+    } catch (Throwable t) {
+      closeQuietly(stmt);
+      throw Exceptions.toThrowUnchecked(t);
+    }
+  }
 
-    Method[] getMethods = getMethods(parameterTypes);
-    Object[] actuals = new Object[parameterTypes.length];
+  /**
+   * <p>A lazy iterator over the rows of a query that is executed one page
+   * at a time using keyset pagination.</p>
+   *
+   * <p>The query must take the key of the last row of the previous page
+   * as its only parameter, return the rows after that key in key order,
+   * and be cheap to evaluate from any key, typically using an index. For
+   * example:</p>
+   *
+   * <pre>
+   * " SELECT id, name FROM players WHERE id &gt; ? ORDER BY id "
+   * </pre>
+   *
+   * <p>The first page is queried with <code>firstKey</code>. Each page is
+   * limited to <code>pageSize</code> rows using {@link
+   * java.sql.Statement#setMaxRows setMaxRows}, and the key for the next
+   * page is computed from the last element of the page by
+   * <code>keyOf</code>. Unlike <code>OFFSET</code> based paging, the
+   * database never scans the rows of the previous pages again and
+   * concurrent inserts do not shift the page boundaries.</p>
+   *
+   * <p>A single prepared statement is reused for all pages and closed
+   * when the last page has been read or the iteration fails. To stop
+   * early, close the returned {@link KeysetIterator}.</p>
+   */
+  public static KeysetIterator keysetIterator(Connection connection,
+                                        String sql,
+                                        Object firstKey,
+                                        int pageSize,
+                                        Function mapper,
+                                        Function keyOf) {
+    assert 0 < pageSize;
 
-    Integer[][] indice = indice(parameterTypes.length);
+    PreparedStatement stmt = prepareStatement(connection, sql);
+    try {
+      stmt.setMaxRows(pageSize);
+      stmt.setFetchSize(pageSize);
+    } catch (Throwable t) {
+      closeQuietly(stmt);
+      throw Exceptions.toThrowUnchecked(t);
+    }
+    return new KeysetIterator(stmt, firstKey, pageSize, mapper, ObjectToObject.from(keyOf));
+  }
 
+  /**
+   * <p>Sets the parameters <code>1..parameters.length</code> of the
+   * statement using <code>setObject</code>.</p>
+   */
+  public static void setObjects(PreparedStatement stmt, Object[] parameters) {
     try {
-      while (rs.next()) {
-        for (int i=0; i<actuals.length; ++i)
-          actuals[i] = getMethods[i].invoke(rs, indice[1 + i]);
+      for (int i=0; i<parameters.length; ++i)
+        stmt.setObject(i + 1, parameters[i]);
+    } catch (SQLException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
+  }
+
+  /**
+   * <p>Computes batches of parameter arrays on a separate thread for
+   * {@link #executeBatchesPipelined executeBatchesPipelined}.</p>
+   */
+  private static final class BatchProducer extends Thread {
+    BatchProducer(Iterator rows, ObjectToObject rowToParameters, int batchSize) {
+      super("JDBC.executeBatchesPipelined");
+      setDaemon(true);
+      this.rows = rows;
+      this.rowToParameters = rowToParameters;
+      this.batchSize = batchSize;
+    }
+
+    public void run() {
+      try {
+        while (rows.hasNext()) {
+          Object[][] batch = new Object[batchSize][];
+          int n = 0;
+          while (n < batchSize && rows.hasNext())
+            batch[n++] = (Object[])rowToParameters.with(rows.next());
 
-        method.invoke(self, actuals);
+          if (n < batchSize) {
+            Object[][] lastBatch = new Object[n][];
+            System.arraycopy(batch, 0, lastBatch, 0, n);
+            batch = lastBatch;
+          }
+          batches.put(batch);
+        }
+      } catch (InterruptedException e) {
+        return;
+      } catch (Throwable t) {
+        failure = t;
       }
-    } catch (Exception e) {
+
+      try {
+        batches.put(END);
+      } catch (InterruptedException e) {
+      }
+    }
+
+    /**
+     * <p>The next batch or <code>null</code> if there are no more
+     * batches. Rethrows any exception thrown while producing the
+     * batches.</p>
+     */
+    Object[][] take() {
+      try {
+        Object[][] batch = (Object[][])batches.take();
+        if (END != batch)
+          return batch;
+        if (null != failure)
+          throw Exceptions.toThrowUnchecked(failure);
+        return null;
+      } catch (InterruptedException e) {
+        throw Exceptions.toThrowUnchecked(e);
+      }
+    }
+
+    /**
+     * <p>Stops producing batches and waits at most {@link
+     * #CANCEL_TIMEOUT_MILLIS} for the thread to finish. After that the
+     * thread, which is a daemon, is abandoned.</p>
+     */
+    void cancel() {
+      interrupt();
+      try {
+        // Clearing the queue unblocks the thread if it is blocked in put,
+        // even if it ignored the interrupt. A thread that is blocked in
+        // the row iterator or in rowToParameters can not be unblocked.
+        long deadline = System.currentTimeMillis() + CANCEL_TIMEOUT_MILLIS;
+        for (long left; isAlive() && 0 < (left = deadline - System.currentTimeMillis());) {
+          batches.clear();
+          join(Math.min(left, 100));
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private static final long CANCEL_TIMEOUT_MILLIS = 1000;
+    private static final Object[][] END = new Object[0][];
+
+    private final Iterator rows;
+    private final ObjectToObject rowToParameters;
+    private final int batchSize;
+    private final BlockingQueue batches = new ArrayBlockingQueue(2);
+    private volatile Throwable failure;
+  }
+
+  /**
+   * <p>A worker of {@link #foldPartitions foldPartitions}. Each thread
+   * calling this shared callable folds partitions until there are none
+   * left or some partition has failed.</p>
+   */
+  private static final class PartitionedFold implements Callable {
+    PartitionedFold(DataSource dataSource,
+                    String sql,
+                    Object[] bounds,
+                    VoidToObject newAccumulator,
+                    Function fun,
+                    ObjectToObjectToObject combine,
+                    boolean ordered) {
+      this.dataSource = dataSource;
+      this.sql = sql;
+      this.bounds = bounds;
+      this.newAccumulator = newAccumulator;
+      this.fun = fun;
+      this.combine = combine;
+      this.partials = ordered ? new Object[bounds.length - 1] : null;
+    }
+
+    public Object call() throws Exception {
+      try {
+        Connection connection = dataSource.getConnection();
+        try {
+          PreparedStatement stmt = connection.prepareStatement(sql);
+          try {
+            for (int i; !failed && (i = nextPartition.getAndIncrement()) < bounds.length - 1;) {
+              stmt.setObject(1, bounds[i]);
+              stmt.setObject(2, bounds[i + 1]);
+              ResultSet rs = stmt.executeQuery();
+              try {
+                done(i, fold(newAccumulator.with(), rs, fun));
+              } finally {
+                rs.close();
+              }
+            }
+          } finally {
+            stmt.close();
+          }
+        } finally {
+          connection.close();
+        }
+      } catch (Exception e) {
+        failed = true;
+        throw e;
+      }
+      return null;
+    }
+
+    /**
+     * <p>The combined result of all partitions.</p>
+     */
+    synchronized Object result() {
+      if (null == partials)
+        return result;
+
+      Object total = partials[0];
+      for (int i=1; i<partials.length; ++i)
+        total = combine.with(total, partials[i]);
+      return total;
+    }
+
+    private synchronized void done(int partition, Object partial) {
+      if (null != partials) {
+        partials[partition] = partial;
+      } else {
+        result = 0 == combined ? partial : combine.with(result, partial);
+        ++combined;
+      }
+    }
+
+    private final DataSource dataSource;
+    private final String sql;
+    private final Object[] bounds;
+    private final VoidToObject newAccumulator;
+    private final Function fun;
+    private final ObjectToObjectToObject combine;
+    private final Object[] partials;
+    private final AtomicInteger nextPartition = new AtomicInteger();
+    private volatile boolean failed;
+    private Object result;
+    private int combined;
+  }
+
+  private static void close(PreparedStatement stmt) {
+    try {
+      stmt.close();
+    } catch (SQLException e) {
       throw Exceptions.toThrowUnchecked(e);
     }
   }
 
+  private static void closeQuietly(PreparedStatement stmt) {
+    try {
+      stmt.close();
+    } catch (SQLException e) {
+      // The original failure is more interesting.
+    }
+  }
+
   private static void commit(Connection connection) {
     try {
       connection.commit();
@@ -193,6 +751,14 @@ public class JDBC extends Algs {
     }
   }
 
+  private static PreparedStatement prepareStatement(Connection connection, String sql) {
+    try {
+      return connection.prepareStatement(sql);
+    } catch (SQLException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
+  }
+
   private static void rollback(Connection connection) {
     try {
       connection.rollback();
@@ -208,39 +774,4 @@ public class JDBC extends Algs {
       throw Exceptions.toThrowUnchecked(e);
     }
   }
-
-  private static Method[] getMethods(Class[] types) {
-    Method[] result = new Method[types.length];
-    for (int i=0; i<types.length; ++i)
-      result[i] = (Method)TYPE_TO_GET_METHOD_MAP.get(TYPE_TO_GET_METHOD_MAP.containsKey(types[i])
-                                                     ? types[i]
-                                                     : Object.class);
-    return result;
-  }
-
-  private static final Map TYPE_TO_GET_METHOD_MAP = new HashMap();
-
-  static {
-    forEach(ResultSet.class.getMethods(),
-            new Function() {
-              public void with(Method m) {
-                if (m.getName().startsWith("get") &&
-                    1 == m.getParameterTypes().length &&
-                    int.class.equals(m.getParameterTypes()[0]))
-                  TYPE_TO_GET_METHOD_MAP.put(m.getReturnType(), m);
-              }});
-  }
-
-  // TBD: Optimize using double checked locking?
-  private static synchronized Integer[][] indice(int max) {
-    if (indiceCache.length <= max) {
-      indiceCache = new Integer[max + 1][];
-
-      for (int i=0; i<=max; ++i)
-        indiceCache[i] = new Integer[]{new Integer(i)};
-    }
-    return indiceCache;
-  }
-
-  private static Integer[][] indiceCache = new Integer[][]{};
 }
@@ -0,0 +1,496 @@
+package javautils.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javautils.collections.Algs;
+import javautils.fun.Function;
+import javautils.fun.ObjectToObject;
+import javautils.fun.VoidToObject;
+import javax.sql.DataSource;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link JDBC}. The tests use an in-memory {@link ResultSet}
+ * implemented as a dynamic proxy.</p>
+ */
+public class JDBCTest extends TestCase {
+
+  private static final Object[][] PLAYERS = {{"ann", new Integer(31), new Long(7)},
+                                             {"bob", new Integer(27), new Long(11)},
+                                             {"cid", new Integer(45), new Long(13)}};
+
+  /**
+   * <p>Tests that {@link JDBC#executeBatches} executes a batch every
+   * <code>batchSize</code> rows, commits every <code>commitEvery</code>
+   * batches and restores the auto-commit mode.</p>
+   */
+  public void testExecuteBatches() {
+    StringBuffer log = new StringBuffer();
+    assertEquals(5, JDBC.executeBatches(connection(log),
+                                        "INSERT",
+                                        Algs.integersInRange(0, 5),
+                                        new Function() {
+                                          public void with(Object stmt, Object row) {
+                                            JDBC.setObjects((PreparedStatement)stmt, new Object[]{row});
+                                          }},
+                                        2, 2));
+    assertEquals("setAutoCommit(false) prepareStatement(INSERT) " +
+                 "setObject(1, 0) addBatch setObject(1, 1) addBatch executeBatch " +
+                 "setObject(1, 2) addBatch setObject(1, 3) addBatch executeBatch commit " +
+                 "setObject(1, 4) addBatch executeBatch close commit setAutoCommit(true) ",
+                 log.toString());
+  }
+
+  /**
+   * <p>Tests that {@link JDBC#executeBatchesPipelined} sets the
+   * parameters of each row, executes and commits the batches in order,
+   * and restores the auto-commit mode.</p>
+   */
+  public void testExecuteBatchesPipelined() {
+    StringBuffer log = new StringBuffer();
+    assertEquals(3, JDBC.executeBatchesPipelined(connection(log),
+                                                 "INSERT",
+                                                 Algs.integersInRange(0, 3),
+                                                 new ObjectToObject() {
+                                                   public Object with(Object row) {
+                                                     return new Object[]{row, "x"};
+                                                   }},
+                                                 2, 1));
+    assertEquals("setAutoCommit(false) prepareStatement(INSERT) " +
+                 "setObject(1, 0) setObject(2, x) addBatch setObject(1, 1) setObject(2, x) addBatch executeBatch commit " +
+                 "setObject(1, 2) setObject(2, x) addBatch executeBatch commit " +
+                 "close commit setAutoCommit(true) ",
+                 log.toString());
+  }
+
+  /**
+   * <p>Tests that a failure to produce a row is rethrown by {@link
+   * JDBC#executeBatchesPipelined} after the statement has been closed and
+   * the transaction rolled back.</p>
+   */
+  public void testExecuteBatchesRollsBackOnFailure() {
+    StringBuffer log = new StringBuffer();
+    try {
+      JDBC.executeBatchesPipelined(connection(log),
+                                   "INSERT",
+                                   Algs.integersInRange(0, 3),
+                                   new ObjectToObject() {
+                                     public Object with(Object row) {
+                                       if (2 == ((Integer)row).intValue())
+                                         throw new IllegalStateException("bad row");
+                                       return new Object[]{row};
+                                     }},
+                                   1, 10);
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("bad row", e.getMessage());
+    }
+    assertTrue(log.toString().endsWith("close rollback setAutoCommit(true) "));
+  }
+
+  /**
+   * <p>Tests that {@link JDBC#fold} passes each row, read according to
+   * the parameter types of the function, to the function together with
+   * the accumulated result.</p>
+   */
+  public void testFold() {
+    assertEquals("ann31bob27cid45",
+                 JDBC.fold(new StringBuffer(),
+                           resultSet(PLAYERS),
+                           new Function() {
+                             public StringBuffer with(StringBuffer accumulator, String name, int age) {
+                               return accumulator.append(name).append(age);
+                             }}).toString());
+  }
+
+  /**
+   * <p>Tests that {@link JDBC#forEach} calls the function with the
+   * columns of each row converted to its parameter types.</p>
+   */
+  public void testForEach() {
+    final StringBuffer result = new StringBuffer();
+    JDBC.forEach(resultSet(PLAYERS),
+                 new Function() {
+                   public void with(String name, Object age, long score) {
+                     result.append(name + age + ":" + score + ";");
+                   }});
+    assertEquals("ann31:7;bob27:11;cid45:13;", result.toString());
+  }
+
+  /**
+   * <p>Tests that {@link JDBC#iterator} executes the query lazily with
+   * the given parameters and fetch size, and closes the result set after
+   * the last row.</p>
+   */
+  public void testIterator() {
+    StringBuffer log = new StringBuffer();
+    RowIterator players = JDBC.iterator(table(PLAYERS, log),
+                                        "SELECT",
+                                        new Object[]{"a"},
+                                        2,
+                                        new Function() {
+                                          public Object with(String name, int age) {
+                                            return name + age;
+                                          }});
+
+    assertEquals("[ann31, bob27]", Algs.collect(Algs.take(players, 2)).toString());
+    assertEquals("setObject(1, a) setFetchSize(2) executeQuery ", log.toString());
+    assertEquals("[cid45]", Algs.collect(players).toString());
+    assertEquals("setObject(1, a) setFetchSize(2) executeQuery close ", log.toString());
+    assertFalse(players.hasNext());
+  }
+
+  /**
+   * <p>Tests that a {@link RowIterator} closes the result set when
+   * mapping a row fails.</p>
+   */
+  public void testIteratorClosesOnFailure() {
+    StringBuffer log = new StringBuffer();
+    Iterator players = JDBC.iterator(table(PLAYERS, log),
+                                     "SELECT",
+                                     new Object[0],
+                                     0,
+                                     new Function() {
+                                       public Object with(String name) {
+                                         if ("bob".equals(name))
+                                           throw new IllegalStateException(name);
+                                         return name;
+                                       }});
+    assertEquals("ann", players.next());
+    try {
+      players.next();
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("bob", e.getMessage());
+    }
+    assertTrue(log.toString().endsWith("close "));
+  }
+
+  /**
+   * <p>Tests that {@link JDBC#keysetIterator} reads the rows one page at
+   * a time, starting each page after the key of the last row of the
+   * previous page, and closes the statement after a short page.</p>
+   */
+  public void testKeysetIterator() {
+    Object[][] rows = new Object[5][];
+    for (int i=0; i<rows.length; ++i)
+      rows[i] = new Object[]{new Integer(i + 1), "p" + (i + 1)};
+
+    assertKeysetPages("[p1, p2, p3, p4, p5]",
+                      "setMaxRows(2) setFetchSize(2) " +
+                      "setObject(1, 0) executeQuery setObject(1, 2) executeQuery " +
+                      "setObject(1, 4) executeQuery close ",
+                      rows, 2);
+    assertKeysetPages("[p1, p2, p3, p4, p5]",
+                      "setMaxRows(5) setFetchSize(5) " +
+                      "setObject(1, 0) executeQuery setObject(1, 5) executeQuery close ",
+                      rows, 5);
+  }
+
+  /**
+   * <p>Tests that closing a {@link KeysetIterator} that is abandoned early
+   * closes its statement, and that a failing key function closes the
+   * statement, too.</p>
+   */
+  public void testKeysetIteratorClose() {
+    Object[][] rows = new Object[5][];
+    for (int i=0; i<rows.length; ++i)
+      rows[i] = new Object[]{new Integer(i + 1), "p" + (i + 1)};
+    Function mapper = new Function() {
+        public Object with(int id, String name) {
+          return name;
+        }};
+
+    StringBuffer log = new StringBuffer();
+    KeysetIterator names =
+      JDBC.keysetIterator(table(rows, log), "SELECT", new Integer(0), 2, mapper,
+                          new ObjectToObject() {
+                            public Object with(Object name) {
+                              return new Integer(((String)name).substring(1));
+                            }});
+    assertEquals("[p1, p2, p3]", Algs.collect(Algs.take(names, 3)).toString());
+    names.close();
+    names.close();
+    assertTrue(log.toString().endsWith("executeQuery close "));
+    assertFalse(names.hasNext());
+
+    log = new StringBuffer();
+    names = JDBC.keysetIterator(table(rows, log), "SELECT", new Integer(0), 2, mapper,
+                                new ObjectToObject() {
+                                  public Object with(Object name) {
+                                    throw new IllegalStateException((String)name);
+                                  }});
+    assertEquals("p1", names.next());
+    try {
+      names.next();
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("p2", e.getMessage());
+    }
+    assertTrue(log.toString().endsWith("close "));
+    assertFalse(names.hasNext());
+  }
+
+  /**
+   * <p>Tests that {@link JDBC#foldPartitions} folds each key range on a
+   * connection of its own, at most <code>parallelism</code> at a time,
+   * and combines the partial results in order or, when unordered, into
+   * the same result, also on a given executor.</p>
+   */
+  public void testFoldPartitions() {
+    final Object[][] rows = new Object[100][];
+    for (int i=0; i<rows.length; ++i)
+      rows[i] = new Object[]{new Integer(i), new Integer(i)};
+
+    Object[] bounds = new Object[11];
+    for (int i=0; i<bounds.length; ++i)
+      bounds[i] = new Integer(10 * i - 1);
+
+    final int[] connections = {0};
+    DataSource dataSource = (DataSource)
+      Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                             new Class[]{DataSource.class},
+                             new InvocationHandler() {
+                               public Object invoke(Object proxy, Method m, Object[] args) {
+                                 synchronized (connections) {
+                                   ++connections[0];
+                                 }
+                                 return table(rows, new StringBuffer());
+                               }});
+
+    VoidToObject newList = new VoidToObject() {
+        public Object with() {
+          return new ArrayList();
+        }};
+    Function add = new Function() {
+        public List with(List ids, int id) {
+          ids.add(new Integer(id));
+          return ids;
+        }};
+    Function addAll = new Function() {
+        public List with(List ids, List partial) {
+          ids.addAll(partial);
+          return ids;
+        }};
+
+    List ordered = (List)JDBC.foldPartitions(dataSource, 3, "SELECT", bounds, newList, add, addAll, true);
+    assertEquals(Algs.collect(Algs.integersInRange(0, 100)), ordered);
+    assertEquals(3, connections[0]);
+
+    List unordered = (List)JDBC.foldPartitions(dataSource, 20, "SELECT", bounds, newList, add, addAll, false);
+    Collections.sort(unordered);
+    assertEquals(ordered, unordered);
+    assertEquals(3 + 10, connections[0]);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      assertEquals(ordered, JDBC.foldPartitions(dataSource, executor, 2, "SELECT", bounds, newList, add, addAll, true));
+      assertEquals(3 + 10 + 2, connections[0]);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * <p>Tests that a {@link StatementCache} returns the cached statement
+   * for the same SQL, closes the least recently used statement when it
+   * is full, counts hits and misses, and closes all statements when it is
+   * closed.</p>
+   */
+  public void testStatementCache() {
+    StringBuffer log = new StringBuffer();
+    StatementCache cache = new StatementCache(table(PLAYERS, log), 2);
+
+    PreparedStatement a = cache.prepare("A");
+    assertSame(a, cache.prepare("A"));
+    cache.prepare("B");
+    cache.prepare("C");
+    assertEquals("clearParameters close ", log.toString());
+    assertTrue(a != cache.prepare("A"));
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.hits());
+    assertEquals(4, cache.misses());
+
+    cache.close();
+    assertEquals("clearParameters close close close close ", log.toString());
+    assertEquals(0, cache.size());
+  }
+
+  /**
+   * <p>Tests that {@link RowReader#forParameters} returns the same
+   * reader for the same method and offset, and a different reader for a
+   * different offset.</p>
+   */
+  public void testRowReadersAreCached() {
+    Function fun = new Function() {
+        public void with(String name, int age) {
+        }};
+    long misses = RowReader.cacheMisses();
+    RowReader reader = RowReader.forParameters(fun.getMethod(), 0);
+
+    assertSame(reader, RowReader.forParameters(fun.getMethod(), 0));
+    assertEquals(misses + 1, RowReader.cacheMisses());
+    assertTrue(reader != RowReader.forParameters(fun.getMethod(), 1));
+    assertEquals(1, RowReader.forParameters(fun.getMethod(), 1).columnCount());
+  }
+
+  private static void assertKeysetPages(String expectedNames, String expectedLog, Object[][] rows, int pageSize) {
+    StringBuffer log = new StringBuffer();
+    Iterator names = JDBC.keysetIterator(table(rows, log),
+                                         "SELECT",
+                                         new Integer(0),
+                                         pageSize,
+                                         new Function() {
+                                           public Object with(int id, String name) {
+                                             return new Object[]{new Integer(id), name};
+                                           }},
+                                         new ObjectToObject() {
+                                           public Object with(Object row) {
+                                             return ((Object[])row)[0];
+                                           }});
+    List result = new ArrayList();
+    while (names.hasNext())
+      result.add(((Object[])names.next())[1]);
+
+    assertEquals(expectedNames, result.toString());
+    assertEquals(expectedLog, log.toString());
+  }
+
+  /**
+   * <p>A forward only result set over the given rows. The getters convert
+   * numbers to the primitive type of the getter.</p>
+   */
+  public static ResultSet resultSet(final Object[][] rows) {
+    return (ResultSet)
+      Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                             new Class[]{ResultSet.class},
+                             new InvocationHandler() {
+                               int row = -1;
+
+                               public Object invoke(Object proxy, Method m, Object[] args) {
+                                 String name = m.getName();
+
+                                 if ("next".equals(name))
+                                   return Boolean.valueOf(++row < rows.length);
+                                 if ("close".equals(name))
+                                   return null;
+                                 if (name.startsWith("get") && 1 == args.length && args[0] instanceof Integer)
+                                   return convert(rows[row][((Integer)args[0]).intValue() - 1], m.getReturnType());
+                                 throw new UnsupportedOperationException(name);
+                               }});
+  }
+
+  /**
+   * <p>A connection that only supports transactions and prepared
+   * statements, which accept <code>setObject</code> and batch calls. Each
+   * call is appended to the log.</p>
+   */
+  public static Connection connection(final StringBuffer log) {
+    final InvocationHandler statementHandler =
+      new InvocationHandler() {
+        public Object invoke(Object proxy, Method m, Object[] args) {
+          log.append(m.getName());
+          if (null != args)
+            log.append("(" + args[0] + ", " + args[1] + ")");
+          log.append(" ");
+          return "executeBatch".equals(m.getName()) ? new int[0] : null;
+        }};
+
+    return (Connection)
+      Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                             new Class[]{Connection.class},
+                             new InvocationHandler() {
+                               boolean autoCommit = true;
+
+                               public Object invoke(Object proxy, Method m, Object[] args) {
+                                 String name = m.getName();
+
+                                 if ("getAutoCommit".equals(name))
+                                   return Boolean.valueOf(autoCommit);
+                                 if ("setAutoCommit".equals(name))
+                                   autoCommit = ((Boolean)args[0]).booleanValue();
+                                 log.append(name + (null == args ? "" : "(" + args[0] + ")") + " ");
+                                 if ("prepareStatement".equals(name))
+                                   return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                                                                 new Class[]{PreparedStatement.class},
+                                                                 statementHandler);
+                                 return null;
+                               }});
+  }
+
+  /**
+   * <p>A connection whose prepared statements query the given rows. If
+   * the first parameter of a statement has been set, a query returns only
+   * the rows whose first column is greater than the parameter, and if the
+   * second parameter has been set, not greater than the parameter. The
+   * number of rows is limited by <code>setMaxRows</code>. Each call to a
+   * statement is appended to the log.</p>
+   */
+  public static Connection table(final Object[][] rows, final StringBuffer log) {
+    final InvocationHandler statementHandler =
+      new InvocationHandler() {
+        Comparable after;
+        Comparable upTo;
+        int maxRows = Integer.MAX_VALUE;
+
+        public Object invoke(Object proxy, Method m, Object[] args) {
+          String name = m.getName();
+
+          log.append(name);
+          if (null != args)
+            log.append("(" + Algs.collect(Algs.iterator(args)).toString().replaceAll("^\\[|\\]$", "") + ")");
+          log.append(" ");
+
+          if ("setObject".equals(name) && 1 == ((Integer)args[0]).intValue())
+            after = (Comparable)args[1];
+          if ("setObject".equals(name) && 2 == ((Integer)args[0]).intValue())
+            upTo = (Comparable)args[1];
+          if ("setMaxRows".equals(name))
+            maxRows = ((Integer)args[0]).intValue();
+          if ("executeQuery".equals(name)) {
+            List result = new ArrayList();
+            for (int i=0; i<rows.length && result.size() < maxRows; ++i)
+              if ((null == after || 0 < ((Comparable)rows[i][0]).compareTo(after)) &&
+                  (null == upTo || ((Comparable)rows[i][0]).compareTo(upTo) <= 0))
+                result.add(rows[i]);
+            return resultSet((Object[][])result.toArray(new Object[result.size()][]));
+          }
+          return null;
+        }};
+
+    return (Connection)
+      Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                             new Class[]{Connection.class},
+                             new InvocationHandler() {
+                               public Object invoke(Object proxy, Method m, Object[] args) {
+                                 if ("prepareStatement".equals(m.getName()))
+                                   return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                                                                 new Class[]{PreparedStatement.class},
+                                                                 statementHandler);
+                                 if ("close".equals(m.getName()))
+                                   return null;
+                                 throw new UnsupportedOperationException(m.getName());
+                               }});
+  }
+
+  private static Object convert(Object value, Class type) {
+    if (int.class.equals(type))
+      return new Integer(((Number)value).intValue());
+    if (long.class.equals(type))
+      return new Long(((Number)value).longValue());
+    if (double.class.equals(type))
+      return new Double(((Number)value).doubleValue());
+    return value;
+  }
+}
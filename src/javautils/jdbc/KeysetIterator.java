@@ -0,0 +1,111 @@
+package javautils.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+import javautils.Exceptions;
+import javautils.collections.AbstractIterator;
+import javautils.fun.Function;
+import javautils.fun.ObjectToObject;
+
+/**
+ * <p>A lazy iterator over the rows of a query that is executed one page
+ * at a time, see {@link JDBC#keysetIterator JDBC.keysetIterator}.</p>
+ *
+ * <p>The statement is closed as soon as the last page has been read or
+ * reading a page, mapping a row or computing the key of a row fails. An
+ * iterator that is abandoned before that, for example after taking only
+ * the first few elements, should be closed explicitly with {@link #close
+ * close}.</p>
+ */
+public final class KeysetIterator extends AbstractIterator {
+
+  KeysetIterator(PreparedStatement stmt, Object firstKey, int pageSize, Function mapper, ObjectToObject keyOf) {
+    this.stmt = stmt;
+    this.key = firstKey;
+    this.pageSize = pageSize;
+    this.mapper = mapper;
+    this.keyOf = keyOf;
+  }
+
+  public boolean hasNext() {
+    if (closed)
+      return false;
+
+    try {
+      while (null == page || !page.hasNext()) {
+        if (null != page && rowsOnPage < pageSize) {
+          close();
+          return false;
+        }
+
+        stmt.setObject(1, key);
+        page = new RowIterator(stmt.executeQuery(), mapper);
+        rowsOnPage = 0;
+        if (!page.hasNext()) {
+          close();
+          return false;
+        }
+      }
+    } catch (Throwable t) {
+      closeQuietly();
+      throw Exceptions.toThrowUnchecked(t);
+    }
+    return true;
+  }
+
+  public Object next() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+
+    Object element = page.next();
+    if (++rowsOnPage == pageSize) {
+      try {
+        key = keyOf.with(element);
+      } catch (Throwable t) {
+        closeQuietly();
+        throw Exceptions.toThrowUnchecked(t);
+      }
+    }
+    return element;
+  }
+
+  /**
+   * <p>Closes the result set of the current page and the statement.
+   * Calling this method again has no effect.</p>
+   */
+  public void close() {
+    if (closed)
+      return;
+
+    closed = true;
+    try {
+      try {
+        if (null != page)
+          page.close();
+      } finally {
+        page = null;
+        stmt.close();
+      }
+    } catch (SQLException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
+  }
+
+  private void closeQuietly() {
+    try {
+      close();
+    } catch (RuntimeException e) {
+      // The original failure is more interesting.
+    }
+  }
+
+  private final PreparedStatement stmt;
+  private final Function mapper;
+  private final ObjectToObject keyOf;
+  private final int pageSize;
+  private Object key;
+  private RowIterator page;
+  private int rowsOnPage;
+  private boolean closed;
+}
@@ -0,0 +1,111 @@
+package javautils.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.NoSuchElementException;
+import javautils.Exceptions;
+import javautils.collections.AbstractIterator;
+import javautils.fun.Function;
+
+/**
+ * <p>A lazy iterator over the rows of a result set. Each row is read
+ * with a {@link RowReader} and mapped to an element by a function whose
+ * parameters are matched to the columns like in {@link JDBC#forEach
+ * JDBC.forEach}.</p>
+ *
+ * <p>The result set, and the statement if one was given, is closed as
+ * soon as the last row has been read or reading or mapping a row fails.
+ * An iterator that is abandoned before that should be closed explicitly
+ * with {@link #close close}.</p>
+ */
+public final class RowIterator extends AbstractIterator {
+
+  /**
+   * <p>A new iterator over the result set that closes the result set when
+   * done.</p>
+   */
+  public RowIterator(ResultSet rs, Function mapper) {
+    this(null, rs, mapper);
+  }
+
+  /**
+   * <p>A new iterator over the result set that closes both the result set
+   * and the statement when done.</p>
+   */
+  public RowIterator(Statement stmt, ResultSet rs, Function mapper) {
+    this.stmt = stmt;
+    this.rs = rs;
+    this.mapper = mapper;
+    this.reader = RowReader.forParameters(mapper.getMethod(), 0);
+    this.actuals = new Object[reader.columnCount()];
+  }
+
+  public boolean hasNext() {
+    if (!fetched && !closed) {
+      try {
+        if (rs.next()) {
+          reader.read(rs, actuals, 0);
+          next = mapper.invoke(actuals);
+          fetched = true;
+        } else {
+          close();
+        }
+      } catch (Throwable t) {
+        closeQuietly();
+        throw Exceptions.toThrowUnchecked(t);
+      }
+    }
+    return fetched;
+  }
+
+  public Object next() {
+    if (!hasNext())
+      throw new NoSuchElementException();
+
+    Object result = next;
+    next = null;
+    fetched = false;
+    return result;
+  }
+
+  /**
+   * <p>Closes the result set, and the statement if one was given. Calling
+   * this method again has no effect.</p>
+   */
+  public void close() {
+    if (closed)
+      return;
+
+    closed = true;
+    fetched = false;
+    next = null;
+    try {
+      try {
+        rs.close();
+      } finally {
+        if (null != stmt)
+          stmt.close();
+      }
+    } catch (SQLException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
+  }
+
+  private void closeQuietly() {
+    try {
+      close();
+    } catch (RuntimeException e) {
+      // The original failure is more interesting.
+    }
+  }
+
+  private final Statement stmt;
+  private final ResultSet rs;
+  private final Function mapper;
+  private final RowReader reader;
+  private final Object[] actuals;
+  private boolean fetched;
+  private boolean closed;
+  private Object next;
+}
@@ -0,0 +1,198 @@
+package javautils.jdbc;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import javautils.Exceptions;
+import javautils.ImmutablePair;
+import javautils.Objects;
+import javautils.collections.Algs;
+import javautils.collections.LruCache;
+import javautils.fun.Function;
+import javautils.fun.ObjectToObject;
+
+/**
+ * <p>Reads the columns of the current row of a result set into an array
+ * of objects according to a sequence of types. The getter used for each
+ * column is selected once, when the reader is created, so reading a row
+ * calls the typed getters, such as <code>getInt(int i)</code>,
+ * directly.</p>
+ *
+ * <p>If a type is a primitive type, then the getter with the same
+ * primitive type is used. Otherwise either the getter of the specific
+ * non-primitive type, such as <code>getString(int i)</code>, or
+ * <code>getObject(int i)</code> is used.</p>
+ */
+public final class RowReader {
+
+  /**
+   * <p>A new reader of rows whose columns have the given types.</p>
+   */
+  public RowReader(Class[] types) {
+    this.types = (Class[])Algs.copyOf(types);
+    this.codes = new int[types.length];
+    this.otherGetters = new Method[types.length];
+
+    for (int i=0; i<types.length; ++i) {
+      Integer code = (Integer)TYPE_TO_CODE_MAP.get(types[i]);
+
+      if (null != code) {
+        codes[i] = code.intValue();
+      } else if (TYPE_TO_GET_METHOD_MAP.containsKey(types[i])) {
+        codes[i] = OTHER;
+        otherGetters[i] = (Method)TYPE_TO_GET_METHOD_MAP.get(types[i]);
+      } else {
+        codes[i] = OBJECT;
+      }
+    }
+  }
+
+  /**
+   * <p>A reader of rows whose columns have the types of the parameters of
+   * the method starting from the specified parameter.</p>
+   *
+   * <p>Readers are immutable, so the readers of recently used methods are
+   * kept in a bounded cache and shared. The reader depends only on the
+   * parameter types, so a function used with several queries shares one
+   * reader.</p>
+   */
+  public static RowReader forParameters(Method method, int firstParameter) {
+    return (RowReader)CACHE.get(new ImmutablePair(method, firstParameter), NEW_READER);
+  }
+
+  /**
+   * <p>The number of calls to {@link #forParameters forParameters} that
+   * found a cached reader.</p>
+   */
+  public static long cacheHits() {
+    return CACHE.hits();
+  }
+
+  /**
+   * <p>The number of calls to {@link #forParameters forParameters} that
+   * created a new reader.</p>
+   */
+  public static long cacheMisses() {
+    return CACHE.misses();
+  }
+
+  /**
+   * <p>The number of columns read by this reader.</p>
+   */
+  public int columnCount() {
+    return codes.length;
+  }
+
+  /**
+   * <p>The types of the columns read by this reader.</p>
+   */
+  public Class[] types() {
+    return (Class[])Algs.copyOf(types);
+  }
+
+  /**
+   * <p>Reads the columns <code>1..columnCount()</code> of the current row
+   * of the result set to the elements <code>offset..offset +
+   * columnCount() - 1</code> of the array.</p>
+   */
+  public void read(ResultSet rs, Object[] row, int offset) throws SQLException {
+    for (int i=0; i<codes.length; ++i)
+      row[offset + i] = read(rs, i);
+  }
+
+  private Object read(ResultSet rs, int i) throws SQLException {
+    int column = i + 1;
+
+    switch (codes[i]) {
+    case BOOLEAN:     return Objects.asObject(rs.getBoolean(column));
+    case BYTE:        return Objects.asObject(rs.getByte(column));
+    case SHORT:       return Objects.asObject(rs.getShort(column));
+    case INT:         return Objects.asObject(rs.getInt(column));
+    case LONG:        return Objects.asObject(rs.getLong(column));
+    case FLOAT:       return Objects.asObject(rs.getFloat(column));
+    case DOUBLE:      return Objects.asObject(rs.getDouble(column));
+    case STRING:      return rs.getString(column);
+    case BIG_DECIMAL: return rs.getBigDecimal(column);
+    case BYTES:       return rs.getBytes(column);
+    case DATE:        return rs.getDate(column);
+    case TIME:        return rs.getTime(column);
+    case TIMESTAMP:   return rs.getTimestamp(column);
+    case OBJECT:      return rs.getObject(column);
+    default:
+      try {
+        return otherGetters[i].invoke(rs, new Object[]{new Integer(column)});
+      } catch (Exception e) {
+        throw Exceptions.toThrowUnchecked(e);
+      }
+    }
+  }
+
+  private final Class[] types;
+  private final int[] codes;
+  private final Method[] otherGetters;
+
+  private static final int BOOLEAN     = 0;
+  private static final int BYTE        = 1;
+  private static final int SHORT       = 2;
+  private static final int INT         = 3;
+  private static final int LONG        = 4;
+  private static final int FLOAT       = 5;
+  private static final int DOUBLE      = 6;
+  private static final int STRING      = 7;
+  private static final int BIG_DECIMAL = 8;
+  private static final int BYTES       = 9;
+  private static final int DATE        = 10;
+  private static final int TIME        = 11;
+  private static final int TIMESTAMP   = 12;
+  private static final int OBJECT      = 13;
+  private static final int OTHER       = 14;
+
+  private static final Map TYPE_TO_CODE_MAP =
+    Algs.newMap(new Object[][]{{boolean.class,    new Integer(BOOLEAN)},
+                               {byte.class,       new Integer(BYTE)},
+                               {short.class,      new Integer(SHORT)},
+                               {int.class,        new Integer(INT)},
+                               {long.class,       new Integer(LONG)},
+                               {float.class,      new Integer(FLOAT)},
+                               {double.class,     new Integer(DOUBLE)},
+                               {String.class,     new Integer(STRING)},
+                               {BigDecimal.class, new Integer(BIG_DECIMAL)},
+                               {byte[].class,     new Integer(BYTES)},
+                               {Date.class,       new Integer(DATE)},
+                               {Time.class,       new Integer(TIME)},
+                               {Timestamp.class,  new Integer(TIMESTAMP)},
+                               {Object.class,     new Integer(OBJECT)}});
+
+  private static final LruCache CACHE = new LruCache(512);
+
+  private static final Function NEW_READER =
+    new ObjectToObject() {
+      public Object with(Object methodAndFirstParameter) {
+        ImmutablePair key = (ImmutablePair)methodAndFirstParameter;
+        Class[] parameterTypes = ((Method)key.first).getParameterTypes();
+        int firstParameter = ((Integer)key.second).intValue();
+        Class[] types = new Class[parameterTypes.length - firstParameter];
+        System.arraycopy(parameterTypes, firstParameter, types, 0, types.length);
+        return new RowReader(types);
+      }};
+
+  // Getters of less common types, such as Blob, are called reflectively.
+  private static final Map TYPE_TO_GET_METHOD_MAP = new HashMap();
+
+  static {
+    Algs.forEach(ResultSet.class.getMethods(),
+                 new Function() {
+                   public void with(Method m) {
+                     if (m.getName().startsWith("get") &&
+                         1 == m.getParameterTypes().length &&
+                         int.class.equals(m.getParameterTypes()[0]))
+                       TYPE_TO_GET_METHOD_MAP.put(m.getReturnType(), m);
+                   }});
+  }
+}
@@ -0,0 +1,107 @@
+package javautils.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import javautils.Exceptions;
+import javautils.collections.LruCache;
+import javautils.fun.Function;
+
+/**
+ * <p>A bounded cache of the prepared statements of a single connection,
+ * keyed by the SQL text.</p>
+ *
+ * <p>Preparing a statement may require a round trip to the database and
+ * parsing and planning the statement. For small and frequent queries,
+ * this can cost more than executing the statement. The cache keeps the
+ * most recently used statements open and closes statements as they are
+ * evicted.</p>
+ *
+ * <p>Statements returned by the cache must not be closed by the user.
+ * A returned statement, and any result set of it, is only valid until
+ * the next call to {@link #prepare prepare}, which may evict and close
+ * it. Code that uses several statements at the same time, for example
+ * nested queries, should prepare the outer statements itself. Like the
+ * connection, the cached statements should only be used by one thread at
+ * a time.</p>
+ */
+public final class StatementCache {
+
+  /**
+   * <p>A new cache of at most <code>capacity</code> statements of the
+   * connection.</p>
+   */
+  public StatementCache(Connection connection, int capacity) {
+    this.connection = connection;
+    this.statements =
+      new LruCache(capacity,
+                   1,
+                   new Function() {
+                     public void with(String sql, PreparedStatement stmt) {
+                       close(stmt);
+                     }});
+  }
+
+  /**
+   * <p>The cached prepared statement of the SQL text with its parameters
+   * cleared. The statement is prepared and cached on a miss, which may
+   * close the least recently used statement. The statement is valid until
+   * the next call of this method.</p>
+   */
+  public PreparedStatement prepare(String sql) {
+    try {
+      PreparedStatement stmt = (PreparedStatement)statements.get(sql);
+
+      if (null == stmt) {
+        stmt = connection.prepareStatement(sql);
+        statements.put(sql, stmt);
+      } else {
+        stmt.clearParameters();
+      }
+      return stmt;
+    } catch (SQLException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
+  }
+
+  /**
+   * <p>The number of cached statements.</p>
+   */
+  public int size() {
+    return statements.size();
+  }
+
+  /**
+   * <p>The number of calls to {@link #prepare prepare} that found a
+   * cached statement.</p>
+   */
+  public long hits() {
+    return statements.hits();
+  }
+
+  /**
+   * <p>The number of calls to {@link #prepare prepare} that prepared a
+   * new statement.</p>
+   */
+  public long misses() {
+    return statements.misses();
+  }
+
+  /**
+   * <p>Closes all cached statements. The connection is not closed.</p>
+   */
+  public void close() {
+    statements.clear();
+  }
+
+  private static void close(PreparedStatement stmt) {
+    try {
+      stmt.close();
+    } catch (SQLException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
+  }
+
+  private final Connection connection;
+  private final LruCache statements;
+}
@@ -0,0 +1,202 @@
+package javautils.maps;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javautils.fun.IntToIntToInt;
+
+/**
+ * <p>Thread-safe map from objects to int-values for concurrent counting
+ * and aggregation. Each key is associated with an {@link AtomicInteger}-cell
+ * in a {@link ConcurrentHashMap}, so updates of different keys do not
+ * contend with each other and updates of the same key are lock-free
+ * compare-and-set operations. Once a key has a cell, updating it
+ * allocates nothing.</p>
+ *
+ * <p>The updating methods, {@link #addAndGet addAndGet}, {@link
+ * #increment increment}, {@link #merge merge} and {@link #put put}, are
+ * atomic. The bulk operations {@link #snapshot snapshot}, {@link
+ * #snapshotAndReset snapshotAndReset} and {@link #reset reset} visit the
+ * keys one at a time, so they are not atomic with respect to the map as a
+ * whole, but {@link #snapshotAndReset snapshotAndReset} never loses an
+ * update: each update is included in exactly one snapshot. {@link
+ * #remove remove} and {@link #clear clear}, on the other hand, may lose
+ * updates that race with them.</p>
+ */
+public final class ConcurrentObjectToIntMap implements Serializable {
+
+  /**
+   * <p>A new empty map.</p>
+   */
+  public ConcurrentObjectToIntMap() {
+    this(0, 16);
+  }
+
+  /**
+   * <p>A new empty map sized for the given number of keys and tuned for
+   * the given number of concurrently updating threads.</p>
+   */
+  public ConcurrentObjectToIntMap(int expectedSize, int concurrencyLevel) {
+    map = new ConcurrentHashMap(Hashing.capacityFor(expectedSize), 0.75f, concurrencyLevel);
+  }
+
+  /**
+   * <p>Atomically adds the delta to the value associated with the key and
+   * returns the new value. If the key is not associated with a value, it
+   * will be associated with the delta.</p>
+   */
+  public int addAndGet(Object key, int delta) {
+    return cell(key).addAndGet(delta);
+  }
+
+  /**
+   * <p>Atomically adds one to the value associated with the key and
+   * returns the new value.</p>
+   */
+  public int increment(Object key) {
+    return cell(key).incrementAndGet();
+  }
+
+  /**
+   * <p>Atomically replaces the value associated with the key by
+   * <code>fun.with(oldValue, value)</code> and returns the new value. If
+   * the key is not associated with a value, it will be associated with
+   * the given value. The function may be called several times under
+   * contention, so it should be side effect free.</p>
+   */
+  public int merge(Object key, int value, IntToIntToInt fun) {
+    AtomicInteger cell = (AtomicInteger)map.get(key);
+    if (null == cell) {
+      cell = (AtomicInteger)map.putIfAbsent(key, new AtomicInteger(value));
+      if (null == cell)
+        return value;
+    }
+
+    for (;;) {
+      int oldValue = cell.get();
+      int newValue = fun.with(oldValue, value);
+      if (cell.compareAndSet(oldValue, newValue))
+        return newValue;
+    }
+  }
+
+  /**
+   * <p>Associates the key with the specified value.</p>
+   */
+  public void put(Object key, int value) {
+    cell(key).set(value);
+  }
+
+  /**
+   * <p>The value associated with the key - throws an assertion exception
+   * if the key is not associated with a value.</p>
+   */
+  public int get(Object key) {
+    AtomicInteger cell = (AtomicInteger)map.get(key);
+    assert null != cell : "Key '" + key + "' is not associated with a value.";
+    return cell.get();
+  }
+
+  /**
+   * <p>The value associated with the key <i>or</i> the specified
+   * alternative value if the key is not associated with any value.</p>
+   */
+  public int getOr(Object key, int alternative) {
+    AtomicInteger cell = (AtomicInteger)map.get(key);
+    return null != cell ? cell.get() : alternative;
+  }
+
+  /**
+   * <p>True if and only if the key is associated with a value.</p>
+   */
+  public boolean containsKey(Object key) {
+    return map.containsKey(key);
+  }
+
+  /**
+   * <p>Removes the specified key from this map.</p>
+   */
+  public void remove(Object key) {
+    map.remove(key);
+  }
+
+  /**
+   * <p>Removes all mappings from this map.</p>
+   */
+  public void clear() {
+    map.clear();
+  }
+
+  /**
+   * <p>True iff the size of this map is <code>0</code>.</p>
+   */
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  /**
+   * <p>The size of this map.</p>
+   */
+  public int size() {
+    return map.size();
+  }
+
+  /**
+   * <p>A new non-concurrent map with the current values of all keys.</p>
+   */
+  public ObjectToIntMap snapshot() {
+    ObjectToIntMap result = new ObjectToIntMap(map.size());
+    for (Iterator entries = map.entrySet().iterator(); entries.hasNext();) {
+      Map.Entry entry = (Map.Entry)entries.next();
+      result.put(entry.getKey(), ((AtomicInteger)entry.getValue()).get());
+    }
+    return result;
+  }
+
+  /**
+   * <p>A new non-concurrent map with the current values of all keys, each
+   * of which is atomically reset to <code>0</code> as it is read. The
+   * keys remain in this map.</p>
+   */
+  public ObjectToIntMap snapshotAndReset() {
+    ObjectToIntMap result = new ObjectToIntMap(map.size());
+    for (Iterator entries = map.entrySet().iterator(); entries.hasNext();) {
+      Map.Entry entry = (Map.Entry)entries.next();
+      result.put(entry.getKey(), ((AtomicInteger)entry.getValue()).getAndSet(0));
+    }
+    return result;
+  }
+
+  /**
+   * <p>Resets the values of all keys to <code>0</code>. The keys remain
+   * in this map.</p>
+   */
+  public void reset() {
+    for (Iterator cells = map.values().iterator(); cells.hasNext();)
+      ((AtomicInteger)cells.next()).set(0);
+  }
+
+  /**
+   * <p>A textual representation of this map.</p>
+   */
+  public String toString() {
+    return snapshot().toString();
+  }
+
+  private AtomicInteger cell(Object key) {
+    AtomicInteger cell = (AtomicInteger)map.get(key);
+    if (null == cell) {
+      AtomicInteger newCell = new AtomicInteger();
+      cell = (AtomicInteger)map.putIfAbsent(key, newCell);
+      if (null == cell)
+        cell = newCell;
+    }
+    return cell;
+  }
+
+  private static final long serialVersionUID = 1L;
+
+  private final ConcurrentHashMap map;
+}
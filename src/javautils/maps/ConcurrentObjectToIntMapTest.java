@@ -0,0 +1,91 @@
+package javautils.maps;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import javautils.fun.IntToIntToInt;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link ConcurrentObjectToIntMap}.</p>
+ */
+public class ConcurrentObjectToIntMapTest extends TestCase {
+
+  private static final int THREADS = 4;
+  private static final int KEYS = 10;
+  private static final int INCREMENTS = 20000;
+
+  /**
+   * <p>Tests that concurrent increments and additions of the same keys
+   * are not lost.</p>
+   */
+  public void testConcurrentUpdates() throws Exception {
+    final ConcurrentObjectToIntMap map = new ConcurrentObjectToIntMap(KEYS, THREADS);
+    Thread[] threads = new Thread[THREADS];
+
+    for (int t=0; t<THREADS; ++t) {
+      final boolean increment = 0 == t % 2;
+      threads[t] = new Thread() {
+          public void run() {
+            for (int i=0; i<INCREMENTS; ++i)
+              if (increment)
+                map.increment(new Integer(i % KEYS));
+              else
+                map.addAndGet(new Integer(i % KEYS), 2);
+          }};
+      threads[t].start();
+    }
+    for (int t=0; t<THREADS; ++t)
+      threads[t].join();
+
+    ObjectToIntMap snapshot = map.snapshot();
+    assertEquals(KEYS, snapshot.size());
+    for (int k=0; k<KEYS; ++k)
+      assertEquals(3 * (THREADS / 2) * INCREMENTS / KEYS, snapshot.get(new Integer(k)));
+  }
+
+  /**
+   * <p>Tests that {@link ConcurrentObjectToIntMap#merge} associates new
+   * keys with the given value and combines existing values, and that
+   * {@link ConcurrentObjectToIntMap#reset} keeps the keys.</p>
+   */
+  public void testMergeAndReset() {
+    ConcurrentObjectToIntMap map = new ConcurrentObjectToIntMap();
+    IntToIntToInt max = new IntToIntToInt() {
+        public int with(int _0, int _1) {
+          return Math.max(_0, _1);
+        }};
+
+    assertEquals(3, map.merge("a", 3, max));
+    assertEquals(3, map.merge("a", 2, max));
+    assertEquals(7, map.merge("a", 7, max));
+    assertEquals(7, map.get("a"));
+    assertEquals(-1, map.getOr("b", -1));
+
+    map.reset();
+    assertTrue(map.containsKey("a"));
+    assertEquals(0, map.get("a"));
+  }
+
+  /**
+   * <p>Tests that a serialized map is read back with the same
+   * values.</p>
+   */
+  public void testSerialization() throws Exception {
+    ConcurrentObjectToIntMap map = new ConcurrentObjectToIntMap();
+    for (int i=0; i<100; ++i)
+      map.put("k" + i, i);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(map);
+    out.close();
+    ConcurrentObjectToIntMap copy = (ConcurrentObjectToIntMap)
+      new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+    assertEquals(map.size(), copy.size());
+    assertEquals(42, copy.increment("k41"));
+  }
+}
@@ -0,0 +1,73 @@
+package javautils.maps;
+
+import javautils.fun.LongToLongToLong;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link ConcurrentObjectToLongMap}.</p>
+ */
+public class ConcurrentObjectToLongMapTest extends TestCase {
+
+  private static final int THREADS = 4;
+  private static final int KEYS = 10;
+  private static final int INCREMENTS = 20000;
+
+  /**
+   * <p>Tests that concurrent increments and a concurrently draining
+   * {@link ConcurrentObjectToLongMap#snapshotAndReset} neither lose nor
+   * duplicate counts.</p>
+   */
+  public void testConcurrentIncrementsAndSnapshots() throws Exception {
+    final ConcurrentObjectToLongMap map = new ConcurrentObjectToLongMap();
+    Thread[] threads = new Thread[THREADS];
+
+    for (int t=0; t<THREADS; ++t) {
+      threads[t] = new Thread() {
+          public void run() {
+            for (int i=0; i<INCREMENTS; ++i)
+              map.increment(new Integer(i % KEYS));
+          }};
+      threads[t].start();
+    }
+
+    long total = 0;
+    boolean running = true;
+    while (running) {
+      running = false;
+      for (int t=0; t<THREADS; ++t)
+        running |= threads[t].isAlive();
+      total += sum(map.snapshotAndReset());
+    }
+    total += sum(map.snapshotAndReset());
+
+    assertEquals((long)THREADS * INCREMENTS, total);
+    assertEquals(KEYS, map.size());
+    assertEquals(0, sum(map.snapshot()));
+  }
+
+  /**
+   * <p>Tests that {@link ConcurrentObjectToLongMap#merge} associates new
+   * keys with the given value and combines existing values.</p>
+   */
+  public void testMerge() {
+    ConcurrentObjectToLongMap map = new ConcurrentObjectToLongMap();
+    LongToLongToLong max = new LongToLongToLong() {
+        public long with(long _0, long _1) {
+          return Math.max(_0, _1);
+        }};
+
+    assertEquals(3, map.merge("a", 3, max));
+    assertEquals(3, map.merge("a", 2, max));
+    assertEquals(7, map.merge("a", 7, max));
+    assertEquals(7, map.get("a"));
+    assertEquals(-1, map.getOr("b", -1));
+  }
+
+  private static long sum(ObjectToLongMap map) {
+    long result = 0;
+    for (ObjectToLongMap.Cursor cursor = map.cursor(); cursor.next();)
+      result += cursor.value();
+    return result;
+  }
+}
@@ -0,0 +1,63 @@
+package javautils.maps;
+
+/**
+ * <p>Helpers for open addressing hash tables whose capacity is a power of
+ * two.</p>
+ */
+public final class Hashing {
+
+  /**
+   * <p>The maximum load factor of the tables, <code>3/4</code>, expressed
+   * as the maximum number of entries in a table of the given
+   * capacity.</p>
+   */
+  public static int thresholdOf(int capacity) {
+    return capacity - (capacity >>> 2);
+  }
+
+  /**
+   * <p>The smallest power of two capacity that can hold the given number
+   * of entries without exceeding the maximum load factor.</p>
+   */
+  public static int capacityFor(int expectedSize) {
+    assert 0 <= expectedSize;
+
+    int capacity = MIN_CAPACITY;
+    while (thresholdOf(capacity) < expectedSize) {
+      assert capacity < MAX_CAPACITY : "Too many entries: " + expectedSize;
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  /**
+   * <p>Spreads the bits of a hash code so that the low bits, which are
+   * used to index a power of two sized table, depend on all bits of the
+   * hash code. Uses Fibonacci hashing, that is, multiplication by
+   * <code>2^32</code> divided by the golden ratio.</p>
+   */
+  public static int mix(int hashCode) {
+    int x = hashCode * 0x9E3779B9;
+    return x ^ (x >>> 16);
+  }
+
+  /**
+   * <p>Spreads the bits of a <code>long</code>-value like {@link
+   * #mix(int)}.</p>
+   */
+  public static int mix(long value) {
+    return mix((int)(value ^ (value >>> 32)));
+  }
+
+  /**
+   * <p>The smallest capacity used by the tables.</p>
+   */
+  public static final int MIN_CAPACITY = 4;
+
+  /**
+   * <p>The largest capacity used by the tables.</p>
+   */
+  public static final int MAX_CAPACITY = 1 << 30;
+
+  private Hashing() {}
+}
@@ -0,0 +1,363 @@
+package javautils.maps;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import javautils.Exceptions;
+import javautils.collections.Algs;
+
+
+/**
+ * <p>Map from int-keys to double-values. The map is an open addressing
+ * hash table with linear probing: keys are stored in a
+ * <code>int</code>-array and values in a parallel
+ * <code>double</code>-array, so neither keys nor values are boxed.</p>
+ */
+public final class IntToDoubleMap implements Cloneable, Serializable {
+
+  // Warning: This file was generated by the javautils-create-primitive-typed-map
+  // script. It is probably more productive to extend the script rather
+  // than edit this code directly.
+
+  /**
+   * <p>A new empty map.</p>
+   */
+  public IntToDoubleMap() {
+    this(0);
+  }
+
+  /**
+   * <p>A new empty map that can hold the given number of entries without
+   * growing.</p>
+   */
+  public IntToDoubleMap(int expectedSize) {
+    allocate(Hashing.capacityFor(expectedSize));
+  }
+
+  /**
+   * <p>Associates the key with the specified value.</p>
+   */
+  public void put(int key, double value) {
+    if (0 == key) {
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        ++size;
+      }
+      zeroKeyValue = value;
+    } else {
+      int slot = slotOrInsert(key);
+      values[slot] = value;
+    }
+  }
+
+  /**
+   * <p>The value associated with the key - throws an assertion exception
+   * if the key is not associated with a value.</p>
+   */
+  public double get(int key) {
+    if (0 == key) {
+      assert hasZeroKey : "Key '0' is not associated with a value.";
+      return zeroKeyValue;
+    }
+    int slot = probe(key);
+    assert 0 <= slot : "Key '" + key + "' is not associated with a value.";
+    return values[slot];
+  }
+
+  /**
+   * <p>The value associated with the key <i>or</i> the specified
+   * alternative value if the key is not associated with any value.</p>
+   */
+  public double getOr(int key, double alternative) {
+    if (0 == key)
+      return hasZeroKey ? zeroKeyValue : alternative;
+    int slot = probe(key);
+    return 0 <= slot ? values[slot] : alternative;
+  }
+
+  /**
+   * <p>Adds the delta to the value associated with the key and returns
+   * the new value. If the key is not associated with a value, it will be
+   * associated with the delta.</p>
+   */
+  public double add(int key, double delta) {
+    if (0 == key) {
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        ++size;
+      }
+      return zeroKeyValue += delta;
+    }
+    int slot = slotOrInsert(key);
+    return values[slot] += delta;
+  }
+
+  /**
+   * <p>Adds one to the value associated with the key and returns the new
+   * value.</p>
+   */
+  public double increment(int key) {
+    return add(key, 1);
+  }
+
+  /**
+   * <p>True if and only if the key is associated with a value.</p>
+   */
+  public boolean containsKey(int key) {
+    return 0 == key ? hasZeroKey : 0 <= probe(key);
+  }
+
+  /**
+   * <p>Removes the specified key from this map.</p>
+   */
+  public void remove(int key) {
+    if (0 == key) {
+      if (hasZeroKey) {
+        hasZeroKey = false;
+        zeroKeyValue = 0;
+        --size;
+      }
+    } else {
+      int slot = probe(key);
+      if (0 <= slot)
+        removeSlot(slot);
+    }
+  }
+
+  /**
+   * <p>Removes all mappings from this map.</p>
+   */
+  public void clear() {
+    Arrays.fill(keys, 0);
+    Arrays.fill(values, 0);
+    hasZeroKey = false;
+    zeroKeyValue = 0;
+    size = 0;
+  }
+
+  /**
+   * <p>True iff the size of this map is <code>0</code>.</p>
+   */
+  public boolean isEmpty() {
+    return 0 == size;
+  }
+
+  /**
+   * <p>The size of this map.</p>
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * <p>A new array of the keys of this map in unspecified order.</p>
+   */
+  public int[] keys() {
+    int[] result = new int[size];
+    int i = 0;
+    for (Cursor cursor = cursor(); cursor.next();)
+      result[i++] = cursor.key();
+    return result;
+  }
+
+  /**
+   * <p>A new cursor positioned before the first entry of this map.</p>
+   */
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * <p>A cursor over the entries of the map. A cursor does not box keys
+   * or values, nor does it allocate anything per entry. The map must not
+   * be structurally modified, that is, keys must not be added or
+   * removed, while the cursor is used.</p>
+   *
+   * <pre>
+   *  for (IntToDoubleMap.Cursor c = map.cursor(); c.next();)
+   *    System.out.println(c.key() + " -> " + c.value());
+   * </pre>
+   */
+  public final class Cursor {
+    Cursor() {}
+
+    /**
+     * <p>Advances the cursor to the next entry. Returns false if there
+     * are no more entries.</p>
+     */
+    public boolean next() {
+      if (ZERO_KEY_SLOT - 1 == slot) {
+        slot = ZERO_KEY_SLOT;
+        if (hasZeroKey)
+          return true;
+      }
+      while (++slot < keys.length)
+        if (0 != keys[slot])
+          return true;
+      return false;
+    }
+
+    /**
+     * <p>The key of the current entry.</p>
+     */
+    public int key() {
+      return ZERO_KEY_SLOT == slot ? 0 : keys[slot];
+    }
+
+    /**
+     * <p>The value of the current entry.</p>
+     */
+    public double value() {
+      return ZERO_KEY_SLOT == slot ? zeroKeyValue : values[slot];
+    }
+
+    /**
+     * <p>Replaces the value of the current entry.</p>
+     */
+    public void setValue(double value) {
+      if (ZERO_KEY_SLOT == slot)
+        zeroKeyValue = value;
+      else
+        values[slot] = value;
+    }
+
+    private int slot = ZERO_KEY_SLOT - 1;
+  }
+
+  /**
+   * <p>A new map with the same entries.</p>
+   */
+  public Object clone() {
+    try {
+      IntToDoubleMap result = (IntToDoubleMap)super.clone();
+      result.keys = Algs.copyOf(keys);
+      result.values = Algs.copyOf(values);
+      return result;
+    } catch (CloneNotSupportedException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
+  }
+
+  /**
+   * <p>A textual representation of this map.</p>
+   */
+  public String toString() {
+    StringBuffer result = new StringBuffer("{");
+    for (Cursor cursor = cursor(); cursor.next();) {
+      if (1 != result.length())
+        result.append(", ");
+      result.append(cursor.key()).append('=').append(cursor.value());
+    }
+    return result.append('}').toString();
+  }
+
+  private static final int ZERO_KEY_SLOT = -1;
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new double[capacity];
+    threshold = Hashing.thresholdOf(capacity);
+  }
+
+  private int homeOf(int key) {
+    return Hashing.mix(key) & (keys.length - 1);
+  }
+
+  /**
+   * <p>The slot of the non-zero key or <code>~slot</code> of the empty
+   * slot where the key would be inserted.</p>
+   */
+  private int probe(int key) {
+    int mask = keys.length - 1;
+    for (int slot = homeOf(key);; slot = (slot + 1) & mask) {
+      int k = keys[slot];
+      if (0 == k)
+        return ~slot;
+      if (k == key)
+        return slot;
+    }
+  }
+
+  private int slotOrInsert(int key) {
+    int slot = probe(key);
+    if (0 <= slot)
+      return slot;
+
+    if (threshold <= size) {
+      rehash(2 * keys.length);
+      slot = probe(key);
+    }
+    slot = ~slot;
+    keys[slot] = key;
+    values[slot] = 0;
+    ++size;
+    return slot;
+  }
+
+  private void rehash(int capacity) {
+    int[] oldKeys = keys;
+    double[] oldValues = values;
+    allocate(capacity);
+
+    int mask = capacity - 1;
+    for (int i=0; i<oldKeys.length; ++i) {
+      int key = oldKeys[i];
+      if (0 != key) {
+        int slot = homeOf(key);
+        while (0 != keys[slot])
+          slot = (slot + 1) & mask;
+        keys[slot] = key;
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * <p>Removes the entry at the slot by shifting later entries of the
+   * same probe sequence backwards, so that no tombstones are needed.</p>
+   */
+  private void removeSlot(int hole) {
+    int mask = keys.length - 1;
+    for (int slot = (hole + 1) & mask; 0 != keys[slot]; slot = (slot + 1) & mask) {
+      int home = homeOf(keys[slot]);
+      if (((hole - home) & mask) < ((slot - home) & mask)) {
+        keys[hole] = keys[slot];
+        values[hole] = values[slot];
+        hole = slot;
+      }
+    }
+    keys[hole] = 0;
+    values[hole] = 0;
+    --size;
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    out.writeInt(size);
+    for (Cursor cursor = cursor(); cursor.next();) {
+      out.writeInt(cursor.key());
+      out.writeDouble(cursor.value());
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    int n = in.readInt();
+    allocate(Hashing.capacityFor(n));
+    for (int i=0; i<n; ++i) {
+      int key = in.readInt();
+      put(key, in.readDouble());
+    }
+  }
+
+  private static final long serialVersionUID = 1L;
+
+  private transient int[] keys;
+  private transient double[] values;
+  private transient boolean hasZeroKey = false;
+  private transient double zeroKeyValue;
+  private transient int size = 0;
+  private transient int threshold;
+}
@@ -0,0 +1,54 @@
+package javautils.maps;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link LongToLongMap}, which also covers the other maps with
+ * primitive keys.</p>
+ */
+public class LongToLongMapTest extends TestCase {
+
+  /**
+   * <p>Tests that random puts, increments and removes, including ones
+   * with the key <code>0</code>, give the same results as a {@link
+   * HashMap}.</p>
+   */
+  public void testAgainstHashMap() {
+    Random random = new Random(1234);
+    LongToLongMap map = new LongToLongMap();
+    Map expected = new HashMap();
+
+    for (int i=0; i<20000; ++i) {
+      long key = (random.nextInt(300) - 10) * 1024L;
+      Long boxedKey = new Long(key);
+
+      switch (random.nextInt(3)) {
+      case 0:
+        map.put(key, i);
+        expected.put(boxedKey, new Long(i));
+        break;
+      case 1:
+        map.increment(key);
+        Long old = (Long)expected.get(boxedKey);
+        expected.put(boxedKey, new Long((null != old ? old.longValue() : 0) + 1));
+        break;
+      default:
+        map.remove(key);
+        expected.remove(boxedKey);
+      }
+
+      assertEquals(expected.size(), map.size());
+      assertEquals(expected.containsKey(boxedKey), map.containsKey(key));
+    }
+
+    int n = 0;
+    for (LongToLongMap.Cursor cursor = map.cursor(); cursor.next(); ++n)
+      assertEquals(((Long)expected.get(new Long(cursor.key()))).longValue(), cursor.value());
+    assertEquals(expected.size(), n);
+    assertEquals(expected.size(), map.keys().length);
+  }
+}
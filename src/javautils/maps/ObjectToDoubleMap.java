@@ -1,109 +1,395 @@
 package javautils.maps;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
-import javautils.holders.DoubleHolder;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javautils.Exceptions;
+import javautils.Objects;
+import javautils.collections.AbstractIterator;
+import javautils.collections.Algs;
 
 
 /**
- * <p>Map from objects to double-values. {@link DoubleHolder}-objects are
- * used for storing the values in the map.</p>
+ * <p>Map from objects to double-values. The map is an open addressing hash
+ * table with linear probing: keys are stored in an <code>Object</code>-array
+ * and values in a parallel <code>double</code>-array, so an entry takes no
+ * memory beyond the array slots. The key <code>null</code> is not
+ * allowed.</p>
  */
-public final class ObjectToDoubleMap extends AbstractTypedMap {
+public final class ObjectToDoubleMap implements Cloneable, Serializable {
 
   // Warning: This file was generated by the javautils-create-primitive-typed-map
   // script. It is probably more productive to extend the script rather
   // than edit this code directly.
 
   /**
-   * <p>A new map based on the map type used by {@link
-   * AbstractTypedMap#AbstractTypedMap}.</p>
+   * <p>A new empty map.</p>
    */
-  public ObjectToDoubleMap() {}
+  public ObjectToDoubleMap() {
+    this(0);
+  }
 
   /**
-   * <p>A new <code>Object->double</code> map using the given map. The
-   * given map must not contain any values that are not {@link
-   * DoubleHolder}-objects. The given map should also never be modified
-   * except by using the services of this class.</p>
+   * <p>A new empty map that can hold the given number of entries without
+   * growing.</p>
    */
-  public ObjectToDoubleMap(Map map) {
-    super(map);
+  public ObjectToDoubleMap(int expectedSize) {
+    allocate(Hashing.capacityFor(expectedSize));
   }
 
   /**
-   * <p>Tests that the value is a non <code>null</code> {@link
-   * DoubleHolder}-object.</p>
+   * <p>Associates the key with the specified value.</p>
    */
-  protected boolean valuePredicate(Object value) {
-    return null != value && value instanceof DoubleHolder;
+  public void put(Object key, double value) {
+    int slot = slotOrInsert(key);
+    values[slot] = value;
   }
 
   /**
-   * <p>Associates the key with the specified value. Will not create a new
-   * holder if the key is already associated with a value.</p>
+   * <p>The value associated with the key - throws an assertion exception
+   * if the key is not associated with a value.</p>
    */
-  public void put(Object key, double value) {
-    DoubleHolder holder = holder(key);
+  public double get(Object key) {
+    int slot = slotOf(key);
+    assert 0 <= slot : "Key '" + key + "' is not associated with a value.";
+    return values[slot];
+  }
 
-    if (null == holder)
-      put(key, new DoubleHolder(value));
-    else
-      holder.value = value;
+  /**
+   * <p>The value associated with the key <i>or</i> the specified
+   * alternative value if the key is not associated with any value.</p>
+   */
+  public double getOr(Object key, double alternative) {
+    int slot = slotOf(key);
+    return 0 <= slot ? values[slot] : alternative;
   }
 
   /**
-   * <p>Associates the key with the specified holder.</p>
+   * <p>Adds the delta to the value associated with the key and returns
+   * the new value. If the key is not associated with a value, it will be
+   * associated with the delta.</p>
    */
-  public void put(Object key, DoubleHolder holder) {
-    assert null != holder;
-    map.put(key, holder);
+  public double add(Object key, double delta) {
+    int slot = slotOrInsert(key);
+    return values[slot] += delta;
   }
 
   /**
-   * <p>The value associated with the key - throws an assertion exception
-   * if the key is not associated with a value.</p>
+   * <p>True if and only if the key is associated with a value.</p>
    */
-  public double get(Object key) {
-    return ref(key).value;
+  public boolean containsKey(Object key) {
+    return 0 <= slotOf(key);
   }
 
   /**
-   * <p>The value associated with the key <i>or</i> the specified
-   * alternative value if the key is not associated with any value.</p>
+   * <p>Removes the specified key from this map.</p>
    */
-  public double getOr(Object key, double alternative) {
-    DoubleHolder result = holder(key);
-    return null != result ? result.value : alternative;
+  public void remove(Object key) {
+    int slot = slotOf(key);
+    if (0 <= slot)
+      removeSlot(slot);
   }
 
   /**
-   * <p>The holder associated with the key - throws an assertion exception
-   * if the key is not associated with a value.</p>
+   * <p>Removes all mappings from this map.</p>
+   */
+  public void clear() {
+    Arrays.fill(keys, null);
+    size = 0;
+  }
+
+  /**
+   * <p>True iff the size of this map is <code>0</code>.</p>
+   */
+  public boolean isEmpty() {
+    return 0 == size;
+  }
+
+  /**
+   * <p>The size of this map.</p>
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * <p>An iterator over all keys of this map. The iterator does not
+   * support removal and the map must not be modified during the
+   * iteration.</p>
+   */
+  public Iterator keyIterator() {
+    return new CursorIterator(true);
+  }
+
+  /**
+   * <p>An unmodifiable view of the keys of this map. The map must not be
+   * modified while the set is iterated.</p>
+   */
+  public Set keySet() {
+    return new AbstractSet() {
+        public Iterator iterator() {
+          return keyIterator();
+        }
+
+        public int size() {
+          return size;
+        }
+
+        public boolean contains(Object key) {
+          return containsKey(key);
+        }
+      };
+  }
+
+  /**
+   * <p>An iterator over all values of this map boxed by {@link
+   * Objects#asObject}. The iterator does not support removal and the map
+   * must not be modified during the iteration.</p>
+   */
+  public Iterator valueIterator() {
+    return new CursorIterator(false);
+  }
+
+  /**
+   * <p>An unmodifiable copy of this map as a {@link Map} from the keys to
+   * the values boxed by {@link Objects#asObject}. Later changes to this
+   * map are not reflected in the copy.</p>
+   */
+  public Map unmodifiableMap() {
+    Map result = new HashMap(Hashing.capacityFor(size));
+    for (Cursor cursor = cursor(); cursor.next();)
+      result.put(cursor.key(), Objects.asObject(cursor.value()));
+    return Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * <p>A new cursor positioned before the first entry of this map.</p>
+   */
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * <p>A cursor over the entries of the map. Unlike an iterator over
+   * entry objects, a cursor does not allocate anything per entry. The
+   * map must not be structurally modified, that is, keys must not be
+   * added or removed, while the cursor is used.</p>
+   *
+   * <pre>
+   *  for (ObjectToDoubleMap.Cursor c = map.cursor(); c.next();)
+   *    System.out.println(c.key() + " -> " + c.value());
+   * </pre>
    */
-  public DoubleHolder ref(Object key) {
-    DoubleHolder holder = holder(key);
-    assert null != holder;
-    return holder;
+  public final class Cursor {
+    Cursor() {}
+
+    /**
+     * <p>Advances the cursor to the next entry. Returns false if there
+     * are no more entries.</p>
+     */
+    public boolean next() {
+      while (++slot < keys.length)
+        if (null != keys[slot])
+          return true;
+      return false;
+    }
+
+    /**
+     * <p>The key of the current entry.</p>
+     */
+    public Object key() {
+      return keys[slot];
+    }
+
+    /**
+     * <p>The value of the current entry.</p>
+     */
+    public double value() {
+      return values[slot];
+    }
+
+    /**
+     * <p>Replaces the value of the current entry.</p>
+     */
+    public void setValue(double value) {
+      values[slot] = value;
+    }
+
+    private int slot = -1;
   }
 
   /**
-   * <p>The holder associated with the key or a new holder that holds the
-   * specified value and associated with the key.</p>
+   * <p>An iterator over the keys or the boxed values of the map.</p>
    */
-  public DoubleHolder refOr(Object key, double value) {
-    DoubleHolder holder = holder(key);
-    if (null == holder) {
-      holder = new DoubleHolder(value);
-      map.put(key, holder);
+  private final class CursorIterator extends AbstractIterator {
+    CursorIterator(boolean keys) {
+      this.keys = keys;
+    }
+
+    public boolean hasNext() {
+      if (!ready) {
+        more = cursor.next();
+        ready = true;
+      }
+      return more;
     }
-    return holder;
+
+    public Object next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      ready = false;
+      return keys ? cursor.key() : Objects.asObject(cursor.value());
+    }
+
+    private final Cursor cursor = cursor();
+    private final boolean keys;
+    private boolean ready = false;
+    private boolean more = true;
   }
 
   /**
-   * <p>The holder of the value associated with the key or null if the key
-   * is not associated with a value.</p>
+   * <p>A new map with the same entries. The keys, which should never be
+   * modified anyway, are not cloned.</p>
    */
-  public DoubleHolder holder(Object key) {
-    return (DoubleHolder)map.get(key);
+  public Object clone() {
+    try {
+      ObjectToDoubleMap result = (ObjectToDoubleMap)super.clone();
+      result.keys = Algs.copyOf(keys);
+      result.values = Algs.copyOf(values);
+      return result;
+    } catch (CloneNotSupportedException e) {
+      throw Exceptions.toThrowUnchecked(e);
+    }
   }
+
+  /**
+   * <p>A textual representation of this map.</p>
+   */
+  public String toString() {
+    StringBuffer result = new StringBuffer("{");
+    for (Cursor cursor = cursor(); cursor.next();) {
+      if (1 != result.length())
+        result.append(", ");
+      result.append(cursor.key()).append('=').append(cursor.value());
+    }
+    return result.append('}').toString();
+  }
+
+  private void allocate(int capacity) {
+    keys = new Object[capacity];
+    values = new double[capacity];
+    threshold = Hashing.thresholdOf(capacity);
+  }
+
+  private int homeOf(Object key) {
+    return Hashing.mix(key.hashCode()) & (keys.length - 1);
+  }
+
+  /**
+   * <p>The slot of the key or <code>~slot</code> of the empty slot where
+   * the key would be inserted.</p>
+   */
+  private int probe(Object key) {
+    assert null != key : "Null keys are not allowed.";
+
+    int mask = keys.length - 1;
+    for (int slot = homeOf(key);; slot = (slot + 1) & mask) {
+      Object k = keys[slot];
+      if (null == k)
+        return ~slot;
+      if (k == key || k.equals(key))
+        return slot;
+    }
+  }
+
+  private int slotOf(Object key) {
+    return null != key ? Math.max(-1, probe(key)) : -1;
+  }
+
+  private int slotOrInsert(Object key) {
+    int slot = probe(key);
+    if (0 <= slot)
+      return slot;
+
+    if (threshold <= size) {
+      rehash(2 * keys.length);
+      slot = probe(key);
+    }
+    slot = ~slot;
+    keys[slot] = key;
+    values[slot] = 0;
+    ++size;
+    return slot;
+  }
+
+  private void rehash(int capacity) {
+    Object[] oldKeys = keys;
+    double[] oldValues = values;
+    allocate(capacity);
+
+    int mask = capacity - 1;
+    for (int i=0; i<oldKeys.length; ++i) {
+      Object key = oldKeys[i];
+      if (null != key) {
+        int slot = homeOf(key);
+        while (null != keys[slot])
+          slot = (slot + 1) & mask;
+        keys[slot] = key;
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * <p>Removes the entry at the slot by shifting later entries of the
+   * same probe sequence backwards, so that no tombstones are needed.</p>
+   */
+  private void removeSlot(int hole) {
+    int mask = keys.length - 1;
+    for (int slot = (hole + 1) & mask; null != keys[slot]; slot = (slot + 1) & mask) {
+      int home = homeOf(keys[slot]);
+      if (((hole - home) & mask) < ((slot - home) & mask)) {
+        keys[hole] = keys[slot];
+        values[hole] = values[slot];
+        hole = slot;
+      }
+    }
+    keys[hole] = null;
+    --size;
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    out.writeInt(size);
+    for (Cursor cursor = cursor(); cursor.next();) {
+      out.writeObject(cursor.key());
+      out.writeDouble(cursor.value());
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    int n = in.readInt();
+    allocate(Hashing.capacityFor(n));
+    for (int i=0; i<n; ++i) {
+      Object key = in.readObject();
+      put(key, in.readDouble());
+    }
+  }
+
+  private static final long serialVersionUID = 1L;
+
+  private transient Object[] keys;
+  private transient double[] values;
+  private transient int size = 0;
+  private transient int threshold;
 }
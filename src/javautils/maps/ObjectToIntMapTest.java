@@ -0,0 +1,137 @@
+package javautils.maps;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link ObjectToIntMap}. As the typed maps are generated by the
+ * same script, this test also covers the other primitive typed maps.</p>
+ */
+public class ObjectToIntMapTest extends TestCase {
+
+  /**
+   * <p>Tests that random puts, adds and removes give the same results as
+   * a {@link HashMap}. The keys are few compared to the operations, so
+   * that probe sequences get long and removals shift entries.</p>
+   */
+  public void testAgainstHashMap() {
+    Random random = new Random(4711);
+    ObjectToIntMap map = new ObjectToIntMap();
+    Map expected = new HashMap();
+
+    for (int i=0; i<20000; ++i) {
+      Integer key = new Integer(random.nextInt(300) * 64);
+
+      switch (random.nextInt(3)) {
+      case 0:
+        map.put(key, i);
+        expected.put(key, new Integer(i));
+        break;
+      case 1:
+        int sum = map.add(key, i);
+        Integer old = (Integer)expected.get(key);
+        expected.put(key, new Integer((null != old ? old.intValue() : 0) + i));
+        assertEquals(((Integer)expected.get(key)).intValue(), sum);
+        break;
+      default:
+        map.remove(key);
+        expected.remove(key);
+      }
+
+      assertEquals(expected.size(), map.size());
+    }
+
+    assertEqualContents(expected, map);
+  }
+
+  /**
+   * <p>Tests that {@link ObjectToIntMap#getOr} and {@link
+   * ObjectToIntMap#containsKey} handle missing and <code>null</code>
+   * keys.</p>
+   */
+  public void testMissingKeys() {
+    ObjectToIntMap map = new ObjectToIntMap();
+    map.put("a", 1);
+
+    assertTrue(map.containsKey("a"));
+    assertFalse(map.containsKey("b"));
+    assertFalse(map.containsKey(null));
+    assertEquals(-1, map.getOr("b", -1));
+    assertEquals(1, map.getOr("a", -1));
+  }
+
+  /**
+   * <p>Tests that a cloned and a serialized map are independent copies of
+   * the original.</p>
+   */
+  public void testCloneAndSerialization() throws Exception {
+    ObjectToIntMap map = new ObjectToIntMap();
+    for (int i=0; i<100; ++i)
+      map.put("k" + i, i);
+
+    ObjectToIntMap clone = (ObjectToIntMap)map.clone();
+    clone.put("k0", 42);
+    assertEquals(0, map.get("k0"));
+    assertEquals(42, clone.get("k0"));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(map);
+    out.close();
+    ObjectToIntMap copy = (ObjectToIntMap)
+      new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+    assertEquals(map.size(), copy.size());
+    for (ObjectToIntMap.Cursor cursor = map.cursor(); cursor.next();)
+      assertEquals(cursor.value(), copy.get(cursor.key()));
+  }
+
+  /**
+   * <p>Tests that {@link ObjectToIntMap#keySet}, {@link
+   * ObjectToIntMap#valueIterator} and {@link
+   * ObjectToIntMap#unmodifiableMap} agree with the entries of the
+   * map.</p>
+   */
+  public void testViews() {
+    ObjectToIntMap map = new ObjectToIntMap();
+    Map expected = new HashMap();
+    for (int i=0; i<50; ++i) {
+      map.put("k" + i, i);
+      expected.put("k" + i, new Integer(i));
+    }
+
+    assertEquals(expected.keySet(), map.keySet());
+    assertTrue(map.keySet().contains("k7"));
+    assertFalse(map.keySet().contains("k50"));
+    assertEquals(expected, map.unmodifiableMap());
+
+    int sum = 0;
+    for (Iterator values = map.valueIterator(); values.hasNext();)
+      sum += ((Integer)values.next()).intValue();
+    assertEquals(49 * 50 / 2, sum);
+
+    try {
+      map.unmodifiableMap().put("k0", new Integer(1));
+      fail();
+    } catch (UnsupportedOperationException e) {
+      // Expected.
+    }
+  }
+
+  private static void assertEqualContents(Map expected, ObjectToIntMap map) {
+    int n = 0;
+    for (Iterator keys = map.keyIterator(); keys.hasNext(); ++n) {
+      Object key = keys.next();
+      assertEquals(((Integer)expected.get(key)).intValue(), map.get(key));
+    }
+    assertEquals(expected.size(), n);
+  }
+}
@@ -0,0 +1,350 @@
+package javautils.maps;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import javautils.collections.AbstractIterator;
+import javautils.collections.Algs;
+
+/**
+ * <p>An immutable map from objects to objects. Instead of modifying the
+ * map, {@link #with with} and {@link #without without} return a new
+ * version of the map that shares all but <code>O(log N)</code> of its
+ * structure with the old version, so that many versions of a large map
+ * can be kept at a small cost.</p>
+ *
+ * <p>The map is a hash array mapped trie [<a
+ * href="{@docRoot}/overview-summary.html#[Bagwell2001]">Bagwell2001</a>].
+ * Each level of the trie consumes five bits of the {@link Hashing#mix
+ * mixed} hash code of the key. A node stores a bitmap of the used slots
+ * and a dense array with a key and a value, or a subnode, for each used
+ * slot. Keys whose hash codes are equal are kept in a list at the
+ * bottom of the trie.</p>
+ *
+ * <p>Neither keys nor values may be <code>null</code>.</p>
+ */
+public final class PersistentHashMap {
+
+  /**
+   * <p>The empty map.</p>
+   */
+  public static final PersistentHashMap EMPTY = new PersistentHashMap(null, 0);
+
+  /**
+   * <p>The value associated with the key or <code>null</code> if the key
+   * is not in the map.</p>
+   */
+  public Object get(Object key) {
+    return null == root ? null : root.get(0, Hashing.mix(key.hashCode()), key);
+  }
+
+  /**
+   * <p>True if and only if the key is in the map.</p>
+   */
+  public boolean containsKey(Object key) {
+    return null != get(key);
+  }
+
+  /**
+   * <p>A version of this map that associates the value with the key.</p>
+   */
+  public PersistentHashMap with(Object key, Object value) {
+    assert null != key && null != value;
+
+    boolean[] added = new boolean[1];
+    Node node =
+      null == root
+      ? new BitmapNode(0, EMPTY_ARRAY).with(0, Hashing.mix(key.hashCode()), key, value, added)
+      : root.with(0, Hashing.mix(key.hashCode()), key, value, added);
+    return node == root ? this : new PersistentHashMap(node, added[0] ? size + 1 : size);
+  }
+
+  /**
+   * <p>A version of this map without the key.</p>
+   */
+  public PersistentHashMap without(Object key) {
+    if (null == root)
+      return this;
+
+    Node node = root.without(0, Hashing.mix(key.hashCode()), key);
+    return node == root ? this : new PersistentHashMap(node, size - 1);
+  }
+
+  /**
+   * <p>The number of keys in the map.</p>
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * <p>True if and only if the map has no keys.</p>
+   */
+  public boolean isEmpty() {
+    return 0 == size;
+  }
+
+  /**
+   * <p>An iterator over the keys of the map in an unspecified order.</p>
+   */
+  public Iterator keys() {
+    return new KeyIterator(root);
+  }
+
+  public String toString() {
+    StringBuffer result = new StringBuffer("{");
+    for (Iterator keys = keys(); keys.hasNext();) {
+      Object key = keys.next();
+      result.append(key).append('=').append(get(key));
+      if (keys.hasNext())
+        result.append(", ");
+    }
+    return result.append('}').toString();
+  }
+
+  private PersistentHashMap(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * <p>A node of the trie. The array holds pairs of a key and a value, or
+   * of <code>null</code> and a subnode.</p>
+   */
+  private abstract static class Node {
+    Node(Object[] array) {
+      this.array = array;
+    }
+
+    abstract Object get(int shift, int hash, Object key);
+
+    /**
+     * <p>This node with the key associated with the value. Sets
+     * <code>added[0]</code> if the key was not in the node.</p>
+     */
+    abstract Node with(int shift, int hash, Object key, Object value, boolean[] added);
+
+    /**
+     * <p>This node without the key, or <code>null</code> if the node
+     * becomes empty.</p>
+     */
+    abstract Node without(int shift, int hash, Object key);
+
+    final Object[] array;
+  }
+
+  private static final class BitmapNode extends Node {
+    BitmapNode(int bitmap, Object[] array) {
+      super(array);
+      this.bitmap = bitmap;
+    }
+
+    Object get(int shift, int hash, Object key) {
+      int bit = 1 << ((hash >>> shift) & 31);
+      if (0 == (bitmap & bit))
+        return null;
+
+      int i = indexOf(bit);
+      if (null == array[i])
+        return ((Node)array[i + 1]).get(shift + BITS, hash, key);
+      return key.equals(array[i]) ? array[i + 1] : null;
+    }
+
+    Node with(int shift, int hash, Object key, Object value, boolean[] added) {
+      int bit = 1 << ((hash >>> shift) & 31);
+      int i = indexOf(bit);
+
+      if (0 == (bitmap & bit)) {
+        added[0] = true;
+        Object[] result = new Object[array.length + 2];
+        System.arraycopy(array, 0, result, 0, i);
+        result[i] = key;
+        result[i + 1] = value;
+        System.arraycopy(array, i, result, i + 2, array.length - i);
+        return new BitmapNode(bitmap | bit, result);
+      }
+
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (null == k) {
+        Node node = ((Node)v).with(shift + BITS, hash, key, value, added);
+        return node == v ? this : replaced(i, null, node);
+      }
+      if (key.equals(k))
+        return value == v ? this : replaced(i, k, value);
+
+      added[0] = true;
+      return replaced(i, null, pair(shift + BITS, Hashing.mix(k.hashCode()), k, v, hash, key, value));
+    }
+
+    Node without(int shift, int hash, Object key) {
+      int bit = 1 << ((hash >>> shift) & 31);
+      if (0 == (bitmap & bit))
+        return this;
+
+      int i = indexOf(bit);
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (null == k) {
+        Node node = ((Node)v).without(shift + BITS, hash, key);
+        if (node == v)
+          return this;
+        if (null == node)
+          return removed(i, bit);
+        if (2 == node.array.length && null != node.array[0])
+          return replaced(i, node.array[0], node.array[1]);
+        return replaced(i, null, node);
+      }
+      return key.equals(k) ? removed(i, bit) : this;
+    }
+
+    private int indexOf(int bit) {
+      return 2 * Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    private Node replaced(int i, Object key, Object value) {
+      Object[] result = Algs.copyOf(array);
+      result[i] = key;
+      result[i + 1] = value;
+      return new BitmapNode(bitmap, result);
+    }
+
+    private Node removed(int i, int bit) {
+      if (bitmap == bit)
+        return null;
+
+      Object[] result = new Object[array.length - 2];
+      System.arraycopy(array, 0, result, 0, i);
+      System.arraycopy(array, i + 2, result, i, result.length - i);
+      return new BitmapNode(bitmap & ~bit, result);
+    }
+
+    private final int bitmap;
+  }
+
+  /**
+   * <p>The keys with the same hash code.</p>
+   */
+  private static final class CollisionNode extends Node {
+    CollisionNode(Object[] array) {
+      super(array);
+    }
+
+    Object get(int shift, int hash, Object key) {
+      int i = indexOf(key);
+      return -1 == i ? null : array[i + 1];
+    }
+
+    Node with(int shift, int hash, Object key, Object value, boolean[] added) {
+      int i = indexOf(key);
+      Object[] result;
+
+      if (-1 == i) {
+        added[0] = true;
+        result = new Object[array.length + 2];
+        System.arraycopy(array, 0, result, 0, array.length);
+        i = array.length;
+      } else if (value == array[i + 1]) {
+        return this;
+      } else {
+        result = Algs.copyOf(array);
+      }
+      result[i] = key;
+      result[i + 1] = value;
+      return new CollisionNode(result);
+    }
+
+    Node without(int shift, int hash, Object key) {
+      int i = indexOf(key);
+      if (-1 == i)
+        return this;
+      if (2 == array.length)
+        return null;
+
+      Object[] result = new Object[array.length - 2];
+      System.arraycopy(array, 0, result, 0, i);
+      System.arraycopy(array, i + 2, result, i, result.length - i);
+      return new CollisionNode(result);
+    }
+
+    private int indexOf(Object key) {
+      for (int i=0; i<array.length; i+=2)
+        if (key.equals(array[i]))
+          return i;
+      return -1;
+    }
+  }
+
+  /**
+   * <p>A node with two different keys whose mixed hash codes agree on the
+   * bits below the shift.</p>
+   */
+  private static Node pair(int shift, int hash1, Object key1, Object value1, int hash2, Object key2, Object value2) {
+    if (MAX_SHIFT < shift)
+      return new CollisionNode(new Object[]{key1, value1, key2, value2});
+
+    int bit1 = (hash1 >>> shift) & 31;
+    int bit2 = (hash2 >>> shift) & 31;
+    if (bit1 == bit2)
+      return new BitmapNode(1 << bit1,
+                            new Object[]{null, pair(shift + BITS, hash1, key1, value1, hash2, key2, value2)});
+    return bit1 < bit2
+      ? new BitmapNode((1 << bit1) | (1 << bit2), new Object[]{key1, value1, key2, value2})
+      : new BitmapNode((1 << bit1) | (1 << bit2), new Object[]{key2, value2, key1, value1});
+  }
+
+  /**
+   * <p>Iterates over the keys depth first, keeping the arrays of the
+   * nodes on the path and the positions in them.</p>
+   */
+  private static final class KeyIterator extends AbstractIterator {
+    KeyIterator(Node root) {
+      if (null != root)
+        arrays[depth++] = root.array;
+      advance();
+    }
+
+    public boolean hasNext() {
+      return null != next;
+    }
+
+    public Object next() {
+      if (null == next)
+        throw new NoSuchElementException();
+
+      Object result = next;
+      advance();
+      return result;
+    }
+
+    private void advance() {
+      next = null;
+      while (0 < depth) {
+        Object[] array = arrays[depth - 1];
+        int i = positions[depth - 1];
+
+        if (array.length <= i) {
+          positions[--depth] = 0;
+        } else {
+          positions[depth - 1] = i + 2;
+          if (null != array[i]) {
+            next = array[i];
+            return;
+          }
+          arrays[depth++] = ((Node)array[i + 1]).array;
+        }
+      }
+    }
+
+    private final Object[][] arrays = new Object[MAX_SHIFT / BITS + 2][];
+    private final int[] positions = new int[MAX_SHIFT / BITS + 2];
+    private int depth = 0;
+    private Object next;
+  }
+
+  private static final int BITS = 5;
+  private static final int MAX_SHIFT = 30;
+  private static final Object[] EMPTY_ARRAY = new Object[0];
+
+  private final Node root;
+  private final int size;
+}
@@ -0,0 +1,101 @@
+package javautils.maps;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * <p>A [<a href="{@docRoot}/overview-summary.html#[JUnit]">JUnit</a>]
+ * test for {@link PersistentHashMap}.</p>
+ */
+public class PersistentHashMapTest extends TestCase {
+
+  /**
+   * <p>Tests random insertions and removals against a {@link HashMap} and
+   * that every earlier version is left unchanged. Every fifth key has the
+   * same hash code so that collisions are exercised, too.</p>
+   */
+  public void testAgainstHashMap() {
+    Random random = new Random(24);
+    List versions = new ArrayList();
+    List expected = new ArrayList();
+    PersistentHashMap map = PersistentHashMap.EMPTY;
+    Map reference = new HashMap();
+
+    for (int step=0; step<3000; ++step) {
+      Object key = new Key(random.nextInt(500));
+      if (random.nextInt(3) == 0) {
+        map = map.without(key);
+        reference.remove(key);
+      } else {
+        Object value = new Integer(step);
+        map = map.with(key, value);
+        reference.put(key, value);
+      }
+      if (step % 100 == 0) {
+        versions.add(map);
+        expected.add(new HashMap(reference));
+      }
+      assertEquals(reference.size(), map.size());
+    }
+    versions.add(map);
+    expected.add(reference);
+
+    for (int i=0; i<versions.size(); ++i)
+      assertSameMappings((Map)expected.get(i), (PersistentHashMap)versions.get(i));
+  }
+
+  /**
+   * <p>Tests that operations that do not change the map return the same
+   * map.</p>
+   */
+  public void testUnchanged() {
+    Integer value = new Integer(1);
+    PersistentHashMap map = PersistentHashMap.EMPTY.with("a", value);
+    assertSame(map, map.with("a", value));
+    assertSame(map, map.without("b"));
+    assertSame(PersistentHashMap.EMPTY, PersistentHashMap.EMPTY.without("a"));
+    assertTrue(map.without("a").isEmpty());
+    assertEquals("{a=1}", map.toString());
+  }
+
+  private static void assertSameMappings(Map expected, PersistentHashMap actual) {
+    assertEquals(expected.size(), actual.size());
+    for (Iterator keys = expected.keySet().iterator(); keys.hasNext();) {
+      Object key = keys.next();
+      assertSame(expected.get(key), actual.get(key));
+    }
+
+    HashSet keys = new HashSet();
+    for (Iterator i = actual.keys(); i.hasNext();)
+      assertTrue(keys.add(i.next()));
+    assertEquals(expected.keySet(), keys);
+    assertNull(actual.get(new Key(-1)));
+  }
+
+  /**
+   * <p>A key whose hash code is the same for every fifth key.</p>
+   */
+  private static final class Key {
+    Key(int id) {
+      this.id = id;
+      this.hash = id % 5 == 0 ? 5 : id;
+    }
+
+    public boolean equals(Object other) {
+      return other instanceof Key && id == ((Key)other).id;
+    }
+
+    public int hashCode() {
+      return hash;
+    }
+
+    private final int id;
+    private final int hash;
+  }
+}